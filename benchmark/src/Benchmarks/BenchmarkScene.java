@@ -0,0 +1,127 @@
+package Benchmarks;
+
+import Interface.OBJModelLoader;
+import RenderingEngine.Constructs.Edge;
+import RenderingEngine.Constructs.EngineObject;
+import RenderingEngine.Constructs.LightSource;
+import RenderingEngine.Constructs.Transform;
+import RenderingEngine.CoreComponents.Bitmap;
+import RenderingEngine.CoreComponents.Matrix4;
+import RenderingEngine.CoreComponents.Vector4;
+import RenderingEngine.Rendering.EdgeCalculator;
+import RenderingEngine.Rendering.EdgeDrawer;
+import java.awt.Color;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * BenchmarkScene is the default scene the benchmarks are measured on: Statue.obj standing on Plane.obj, lit by two LightSources
+ * whose light map zBuffers are calculated once for the whole trial. The scene, camera and lights are fixed, so the results of different commits
+ * are comparable on the same machine. The resources are read from the directory given by the system property benchmark.resources,
+ * src/Interface/Resources of the working directory by default.
+ *
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+@State(Scope.Benchmark)
+public class BenchmarkScene {
+    public final static int LIGHT_MAP_RESOLUTION = 1024;
+    public final static float[] AMBIENT_LIGHT_COLOR = {1, 1, 1};
+    public final static float AMBIENT_LIGHT_INTENSITY = 0.2f;
+
+    private List<EngineObject> m_renderObjects;
+    private List<LightSource> m_lightSources;
+    private Matrix4 m_identity;
+    private Matrix4 m_lightScreenSpaceTransform;
+    private ForkJoinPool m_pool;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        File resources = getResources();
+        m_renderObjects = new ArrayList<>();
+        m_renderObjects.add(new EngineObject("Statue", new Transform(), OBJModelLoader.meshFromObjFile(new File(resources, "Statue.obj"), false),
+                new Bitmap(ImageIO.read(new File(resources, "Statue.jpg")))));
+        m_renderObjects.add(new EngineObject("Plane", new Transform(), OBJModelLoader.meshFromObjFile(new File(resources, "Plane.obj"), false),
+                new Bitmap(ImageIO.read(new File(resources, "Marble.jpg")))));
+        m_lightSources = new ArrayList<>();
+        m_lightSources.add(new LightSource("Light", new Transform(new Vector4(20,8,3)).lookAt(new Vector4(0,0,0), new Vector4(0,1,0)), 90, 100, Color.WHITE, 0.9f));
+        m_lightSources.add(new LightSource("Light", new Transform(new Vector4(0,3,5)).lookAt(new Vector4(0,0,0), new Vector4(0,1,0)), 90, 100, Color.GRAY, 0.9f));
+        m_identity = new Matrix4().initIdentity();
+        m_lightScreenSpaceTransform = new Matrix4().initScreenSpaceTransform(LIGHT_MAP_RESOLUTION/2, LIGHT_MAP_RESOLUTION/2);
+        for(LightSource ls : m_lightSources)
+            ls.setzBuffer(EdgeDrawer.drawzBuffer(getEdges(ls.getViewProjection(), m_lightScreenSpaceTransform, false), LIGHT_MAP_RESOLUTION));
+        m_pool = new ForkJoinPool();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        m_pool.shutdown();
+    }
+
+    public List<EngineObject> getRenderObjects() {return m_renderObjects;}
+    public List<LightSource> getLightSources() {return m_lightSources;}
+    public Matrix4 getIdentity() {return m_identity;}
+    public Matrix4 getLightScreenSpaceTransform() {return m_lightScreenSpaceTransform;}
+
+    /**
+    * Returns the ForkJoinPool the parallel and tiled benchmarks run on
+    */
+    public ForkJoinPool getPool() {return m_pool;}
+
+    /**
+    * Returns the directory the OBJ models and textures of the scene are read from
+    */
+    public static File getResources() {
+        return new File(System.getProperty("benchmark.resources", "src/Interface/Resources"));
+    }
+
+    /**
+    * Returns the Edges of the scene seen through Matrix4 viewProjection, calculated one EngineObject after another on the calling thread
+    */
+    public List<Edge> getEdges(Matrix4 viewProjection, Matrix4 screenSpaceTransform, boolean guardBand) {
+        List<Edge> edges = new ArrayList<>();
+        for(EngineObject o : m_renderObjects)
+            edges.addAll(EdgeCalculator.getEdges(viewProjection, screenSpaceTransform, m_identity, o, guardBand, null));
+        return edges;
+    }
+
+    /**
+    * Returns the width and height of the frame size String size, given as &lt;width&gt;x&lt;height&gt;
+    */
+    public static int[] parseSize(String size) {
+        String[] values = size.split("x");
+        return new int[]{Integer.parseInt(values[0]), Integer.parseInt(values[1])};
+    }
+
+    /**
+    * Returns a fresh copy of List edges, because drawing the Edges steps them to the bottom of their triangles.
+    * The Edges shared between the two halves of a triangle stay shared in the copy
+    */
+    public static List<Edge> copy(List<Edge> edges) {
+        List<Edge> copies = new ArrayList<>(edges.size());
+        Map<Edge, Edge> triangle = new IdentityHashMap<>();
+        for(int i = 0; i < edges.size(); i += 6){
+            triangle.clear();
+            for(int j = i; j < i + 6; j++){
+                Edge edge = edges.get(j);
+                Edge copy = triangle.get(edge);
+                if(copy == null){
+                    copy = new Edge(edge);
+                    triangle.put(edge, copy);
+                }
+                copies.add(copy);
+            }
+        }
+        return copies;
+    }
+}
@@ -0,0 +1,66 @@
+package Benchmarks;
+
+import RenderingEngine.Constructs.Camera;
+import RenderingEngine.Constructs.Edge;
+import RenderingEngine.Constructs.Transform;
+import RenderingEngine.CoreComponents.Matrix4;
+import RenderingEngine.CoreComponents.Vector4;
+import RenderingEngine.Rendering.EdgeCalculator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * GeometryBenchmarks measures calculating the Edges of the BenchmarkScene with EdgeCalculator at 720p, 1080p and 4K:
+ * one EngineObject after another on a single thread, in parallel chunks, and with the triangles inside the guard band left unclipped.
+ *
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GeometryBenchmarks {
+    @Param({"1280x720", "1920x1080", "3840x2160"})
+    public String size;
+
+    private Matrix4 m_viewProjection;
+    private Matrix4 m_screenSpaceTransform;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] frameSize = BenchmarkScene.parseSize(size);
+        int width = frameSize[0];
+        int height = frameSize[1];
+        m_viewProjection = new Camera("Camera", new Transform(new Vector4(0,1.5f,-4)), 90, (float)width/height, 0.1f, 100).getViewProjection();
+        m_screenSpaceTransform = new Matrix4().initScreenSpaceTransform(width/2, height/2);
+    }
+
+    @Benchmark
+    public List<Edge> getEdges(BenchmarkScene scene) {
+        return scene.getEdges(m_viewProjection, m_screenSpaceTransform, false);
+    }
+
+    @Benchmark
+    public List<Edge> getEdgesParallel(BenchmarkScene scene) {
+        return EdgeCalculator.getEdges(scene.getPool(), m_viewProjection, m_screenSpaceTransform, scene.getIdentity(), scene.getRenderObjects(), false, null);
+    }
+
+    @Benchmark
+    public List<Edge> getEdgesGuardBand(BenchmarkScene scene) {
+        return scene.getEdges(m_viewProjection, m_screenSpaceTransform, true);
+    }
+}
@@ -0,0 +1,62 @@
+package Benchmarks;
+
+import RenderingEngine.Constructs.Edge;
+import RenderingEngine.Constructs.LightSource;
+import RenderingEngine.CoreComponents.Matrix4;
+import RenderingEngine.Rendering.EdgeDrawer;
+import RenderingEngine.Rendering.TiledEdgeDrawer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * LightMapBenchmarks measures drawing the light map zBuffer of the first LightSource of the BenchmarkScene at resolutions from 512 to 4096,
+ * with EdgeDrawer, or with TiledEdgeDrawer when tiled is true
+ *
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LightMapBenchmarks {
+    @Param({"512", "1024", "2048", "4096"})
+    public int resolution;
+
+    @Param({"false", "true"})
+    public boolean tiled;
+
+    private List<Edge> m_edges;
+    private List<Edge> m_copy;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkScene scene) {
+        LightSource light = scene.getLightSources().get(0);
+        m_edges = scene.getEdges(light.getViewProjection(), new Matrix4().initScreenSpaceTransform(resolution/2, resolution/2), false);
+    }
+
+    @Setup(Level.Invocation)
+    public void copyEdges() {
+        m_copy = BenchmarkScene.copy(m_edges);
+    }
+
+    @Benchmark
+    public float[] drawzBuffer(BenchmarkScene scene) {
+        if(tiled)
+            return TiledEdgeDrawer.drawzBuffer(scene.getPool(), m_copy, resolution);
+        return EdgeDrawer.drawzBuffer(m_copy, resolution);
+    }
+}
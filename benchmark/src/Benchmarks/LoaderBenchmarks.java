@@ -0,0 +1,47 @@
+package Benchmarks;
+
+import Interface.OBJModelLoader;
+import RenderingEngine.Constructs.Mesh;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * LoaderBenchmarks measures reading Statue.obj with OBJModelLoader, parsing the OBJ file every time, or reading its MeshCache file when useCache is true
+ *
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LoaderBenchmarks {
+    @Param({"false", "true"})
+    public boolean useCache;
+
+    private File m_statueFile;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        m_statueFile = new File(BenchmarkScene.getResources(), "Statue.obj");
+    }
+
+    @Benchmark
+    public Mesh meshFromObjFile() throws IOException {
+        return OBJModelLoader.meshFromObjFile(m_statueFile, useCache);
+    }
+}
@@ -0,0 +1,67 @@
+package Benchmarks;
+
+import RenderingEngine.CoreComponents.Matrix4;
+import RenderingEngine.CoreComponents.Quaternion;
+import RenderingEngine.CoreComponents.Vector4;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MathBenchmarks measures the Matrix4, Quaternion and Vector4 operations the pipeline runs per EngineObject, LightSource and vertex
+ *
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MathBenchmarks {
+    private final Matrix4 m_rotation = new Matrix4().initRotation(0.3f, 0.7f, 1.1f);
+    private final Matrix4 m_perspective = new Matrix4().initPerspective(1.5f, 16f/9f, 0.1f, 100);
+    private final Vector4 m_vector = new Vector4(0.5f, 1.5f, -2.5f);
+    private final float[] m_vertices = new float[]{0.5f, 1.5f, -2.5f, 1};
+    private final float[] m_transformed = new float[4];
+    private final Quaternion m_yaw = new Quaternion(new Vector4(0,1,0), 0.4f);
+    private final Quaternion m_pitch = new Quaternion(new Vector4(1,0,0), 1.2f);
+
+    @Benchmark
+    public Matrix4 matrix4Mul() {
+        return m_rotation.mul(m_perspective);
+    }
+
+    @Benchmark
+    public Vector4 matrix4TransformVector4() {
+        return m_perspective.transform(m_vector);
+    }
+
+    @Benchmark
+    public float[] matrix4TransformFloats() {
+        m_perspective.transform(m_vertices, 0, m_transformed, 0);
+        return m_transformed;
+    }
+
+    @Benchmark
+    public Quaternion quaternionMul() {
+        return m_yaw.mul(m_pitch);
+    }
+
+    @Benchmark
+    public Matrix4 quaternionToRotationMatrix() {
+        return m_yaw.toRotationMatrix();
+    }
+
+    @Benchmark
+    public Vector4 vector4Rotate() {
+        return m_vector.rotate(m_yaw);
+    }
+}
@@ -0,0 +1,120 @@
+package Benchmarks;
+
+import RenderingEngine.Constructs.Camera;
+import RenderingEngine.Constructs.Edge;
+import RenderingEngine.Constructs.Transform;
+import RenderingEngine.CoreComponents.Bitmap;
+import RenderingEngine.CoreComponents.Matrix4;
+import RenderingEngine.CoreComponents.Vector4;
+import RenderingEngine.Rendering.EdgeDrawer;
+import RenderingEngine.Rendering.GBuffer;
+import RenderingEngine.Rendering.TiledEdgeDrawer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * RenderBenchmarks measures every drawing mode of EdgeDrawer, and of TiledEdgeDrawer when tiled is true, on the Edges of the BenchmarkScene
+ * at 720p, 1080p and 4K. The Edges are calculated once per trial and copied before every invocation outside of the measured time.
+ *
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderBenchmarks {
+    @Param({"1280x720", "1920x1080", "3840x2160"})
+    public String size;
+
+    @Param({"false", "true"})
+    public boolean tiled;
+
+    private Camera m_camera;
+    private Matrix4 m_inverseScreenSpaceTransform;
+    private List<Edge> m_edges;
+    private List<Edge> m_copy;
+    private Bitmap m_frame;
+    private GBuffer m_gBuffer;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkScene scene) {
+        int[] frameSize = BenchmarkScene.parseSize(size);
+        int width = frameSize[0];
+        int height = frameSize[1];
+        m_camera = new Camera("Camera", new Transform(new Vector4(0,1.5f,-4)), 90, (float)width/height, 0.1f, 100);
+        m_inverseScreenSpaceTransform = new Matrix4().initInverseScreenSpaceTransform(width/2, height/2);
+        m_edges = scene.getEdges(m_camera.getViewProjection(), new Matrix4().initScreenSpaceTransform(width/2, height/2), false);
+        m_frame = new Bitmap(width, height);
+        m_gBuffer = new GBuffer();
+    }
+
+    @Setup(Level.Invocation)
+    public void copyEdges() {
+        m_copy = BenchmarkScene.copy(m_edges);
+    }
+
+    @Benchmark
+    public Bitmap drawDepth(BenchmarkScene scene) {
+        if(tiled)
+            TiledEdgeDrawer.drawDepth(scene.getPool(), m_frame, m_copy, null);
+        else
+            EdgeDrawer.drawDepth(m_frame, m_copy, null);
+        return m_frame;
+    }
+
+    @Benchmark
+    public Bitmap drawWireFrame(BenchmarkScene scene) {
+        if(tiled)
+            TiledEdgeDrawer.drawWireFrame(scene.getPool(), m_frame, m_copy, null);
+        else
+            EdgeDrawer.drawWireFrame(m_frame, m_copy, null);
+        return m_frame;
+    }
+
+    @Benchmark
+    public Bitmap drawNormal(BenchmarkScene scene) {
+        if(tiled)
+            TiledEdgeDrawer.drawNormal(scene.getPool(), m_frame, m_copy, null);
+        else
+            EdgeDrawer.drawNormal(m_frame, m_copy, null);
+        return m_frame;
+    }
+
+    @Benchmark
+    public Bitmap drawDiffuse(BenchmarkScene scene) {
+        if(tiled)
+            TiledEdgeDrawer.drawDiffuse(scene.getPool(), m_frame, m_copy, null);
+        else
+            EdgeDrawer.drawDiffuse(m_frame, m_copy, null);
+        return m_frame;
+    }
+
+    @Benchmark
+    public Bitmap drawLighted(BenchmarkScene scene) {
+        if(tiled)
+            TiledEdgeDrawer.drawLighted(
+                    scene.getPool(), m_frame, m_copy, m_gBuffer, scene.getLightSources(),
+                    m_inverseScreenSpaceTransform, scene.getLightScreenSpaceTransform(), m_camera.getInverseViewProjection(),
+                    BenchmarkScene.LIGHT_MAP_RESOLUTION, BenchmarkScene.AMBIENT_LIGHT_COLOR, BenchmarkScene.AMBIENT_LIGHT_INTENSITY, null);
+        else
+            EdgeDrawer.drawLighted(
+                    scene.getPool(), m_frame, m_copy, m_gBuffer, scene.getLightSources(),
+                    m_inverseScreenSpaceTransform, scene.getLightScreenSpaceTransform(), m_camera.getInverseViewProjection(),
+                    BenchmarkScene.LIGHT_MAP_RESOLUTION, BenchmarkScene.AMBIENT_LIGHT_COLOR, BenchmarkScene.AMBIENT_LIGHT_INTENSITY, null);
+        return m_frame;
+    }
+}
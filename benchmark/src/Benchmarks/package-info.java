@@ -0,0 +1,10 @@
+/**
+ * The JMH benchmarks of the RenderingEngine, built by the benchmark module into benchmark/target/benchmarks.jar.
+ * They are run from the root of the repository, so that the default scene is found in src/Interface/Resources, for example
+ * <pre>
+ * mvn -B package
+ * java -jar benchmark/target/benchmarks.jar RenderBenchmarks -p size=1920x1080 -rf csv -rff results.csv
+ * </pre>
+ * Another directory of resources can be given with -Dbenchmark.resources=&lt;directory&gt;.
+ */
+package Benchmarks;
@@ -0,0 +1,146 @@
+package Interface;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import RenderingEngine.Constructs.Mesh;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * MeshCacheTest checks that Meshes read back from cache files equal the Meshes written, and that cache files of other sources,
+ * or truncated ones, are ignored
+ *
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+public class MeshCacheTest {
+    private static final long HASH = 0x123456789ABCDEFL;
+    private static final long SIZE = 4321;
+
+    @TempDir
+    Path m_directory;
+
+    @Test
+    public void readsBackTheMeshWritten() throws IOException {
+        Mesh mesh = generate(new Random(18), 500);
+        File file = m_directory.resolve("model.obj.mesh").toFile();
+        MeshCache.write(file, mesh, HASH, SIZE, false);
+        Mesh cached = MeshCache.read(file, HASH, SIZE);
+        assertNotNull(cached);
+        OBJModelLoaderTest.assertMeshEquals(mesh, cached);
+    }
+
+    @Test
+    public void readsBackTheQuantizedMeshApproximately() throws IOException {
+        Mesh mesh = generate(new Random(19), 500);
+        File file = m_directory.resolve("model.obj.mesh").toFile();
+        MeshCache.write(file, mesh, HASH, SIZE, true);
+        Mesh cached = MeshCache.read(file, HASH, SIZE);
+        assertNotNull(cached);
+        assertEquals(mesh.getVertexCount(), cached.getVertexCount());
+        assertArrayEquals(mesh.getIndices(), cached.getIndices());
+        assertArrayEquals(OBJModelLoaderTest.toArray(mesh.getPositions()), OBJModelLoaderTest.toArray(cached.getPositions()), 20f / 65535);
+        assertArrayEquals(OBJModelLoaderTest.toArray(mesh.getUVcoords()), OBJModelLoaderTest.toArray(cached.getUVcoords()), 1f / 65535);
+        assertArrayEquals(OBJModelLoaderTest.toArray(mesh.getNormals()), OBJModelLoaderTest.toArray(cached.getNormals()), 1e-4f);
+    }
+
+    @Test
+    public void ignoresCachesOfOtherSources() throws IOException {
+        File file = m_directory.resolve("model.obj.mesh").toFile();
+        for(boolean quantize : new boolean[]{false, true}){
+            MeshCache.write(file, generate(new Random(20), 10), HASH, SIZE, quantize);
+            assertNull(MeshCache.read(file, HASH + 1, SIZE));
+            assertNull(MeshCache.read(file, HASH, SIZE + 1));
+            assertNotNull(MeshCache.read(file, HASH, SIZE));
+        }
+        assertNull(MeshCache.read(m_directory.resolve("missing.obj.mesh").toFile(), HASH, SIZE));
+    }
+
+    @Test
+    public void ignoresTruncatedCaches() throws IOException {
+        File file = m_directory.resolve("model.obj.mesh").toFile();
+        MeshCache.write(file, generate(new Random(21), 10), HASH, SIZE, false);
+        long size = file.length();
+        for(long truncated : new long[]{size - 1, size / 2, 12}){
+            try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)){
+                channel.truncate(truncated);
+            }
+            assertNull(MeshCache.read(file, HASH, SIZE));
+        }
+    }
+
+    @Test
+    public void hashDetectsChanges() throws IOException {
+        byte[] contents = "v 1 2 3\nv 4 5 6\nv 7 8 9\nf 1 2 3\n".getBytes(StandardCharsets.US_ASCII);
+        long hash = hash(write("a.obj", contents));
+        assertEquals(hash, hash(write("b.obj", contents.clone())));
+        for(int i = 0; i < contents.length; i++){
+            byte[] changed = contents.clone();
+            changed[i] ^= 1;
+            assertNotEquals(hash, hash(write("c.obj", changed)));
+        }
+        byte[] longer = new byte[contents.length + 1];
+        System.arraycopy(contents, 0, longer, 0, contents.length);
+        assertNotEquals(hash, hash(write("d.obj", longer)));
+    }
+
+    @Test
+    public void loaderReadsItsCache() throws IOException {
+        Path source = m_directory.resolve("quad.obj");
+        Files.write(source, "v 0 0 0\nv 1 0 0\nv 1 1 0\nv 0 1 0\nvt 0 0\nvt 1 1\nf 1/1 2/2 3/1 4/2\n".getBytes(StandardCharsets.US_ASCII));
+        Mesh parsed = OBJModelLoader.meshFromObjFile(source.toFile(), true);
+        File cacheFile = MeshCache.getCacheFile(source.toFile());
+        assertTrue(cacheFile.isFile());
+        OBJModelLoaderTest.assertMeshEquals(parsed, OBJModelLoader.meshFromObjFile(source.toFile(), true));
+        Files.write(source, "v 0 0 0\nv 1 0 0\nv 1 1 0\nf 1 2 3\n".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(3, OBJModelLoader.meshFromObjFile(source.toFile(), true).getIndices().length);
+    }
+
+    /**
+    * Returns a Mesh of int vertexCount random vertices with unit length normals, and twice as many random triangles between them
+    */
+    private static Mesh generate(Random random, int vertexCount) {
+        float[] positions = new float[vertexCount * Mesh.POSITION_SIZE];
+        float[] UVcoords = new float[vertexCount * Mesh.UVCOORD_SIZE];
+        float[] normals = new float[vertexCount * Mesh.NORMAL_SIZE];
+        for(int i = 0; i < positions.length; i++)
+            positions[i] = (float)random.nextGaussian() * 5;
+        for(int i = 0; i < UVcoords.length; i++)
+            UVcoords[i] = random.nextFloat();
+        for(int i = 0; i < normals.length; i += 3){
+            float x = (float)random.nextGaussian(), y = (float)random.nextGaussian(), z = (float)random.nextGaussian();
+            float length = (float)Math.sqrt(x*x + y*y + z*z);
+            normals[i] = x / length;
+            normals[i + 1] = y / length;
+            normals[i + 2] = z / length;
+        }
+        int[] indices = new int[vertexCount * 6];
+        for(int i = 0; i < indices.length; i++)
+            indices[i] = random.nextInt(vertexCount);
+        return new Mesh(positions, UVcoords, normals, indices);
+    }
+
+    private Path write(String name, byte[] contents) throws IOException {
+        Path file = m_directory.resolve(name);
+        Files.write(file, contents);
+        return file;
+    }
+
+    private static long hash(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            return MeshCache.hash(channel);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package Interface;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import RenderingEngine.Constructs.Mesh;
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * OBJModelLoaderTest checks that an OBJ file parses to the same Mesh streamed on a single thread and split into chunks parsed in parallel,
+ * wherever the chunk boundaries fall, and that negative indices resolve to the records they count back to
+ *
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+public class OBJModelLoaderTest {
+    private static final int[] CHUNK_SIZES = {1, 7, 64, 333, 4096};
+
+    @TempDir
+    Path m_directory;
+
+    @Test
+    public void chunksParseLikeTheStream() throws IOException {
+        for(boolean relative : new boolean[]{false, true}){
+            Path file = write("model.obj", generate(new Random(17), true, true, relative));
+            Mesh streamed = parse(file, Integer.MAX_VALUE);
+            for(int chunkSize : CHUNK_SIZES)
+                assertMeshEquals(streamed, parse(file, chunkSize));
+        }
+    }
+
+    @Test
+    public void chunksCalculateNormalsLikeTheStream() throws IOException {
+        Path file = write("model.obj", generate(new Random(18), false, false, true));
+        Mesh streamed = parse(file, Integer.MAX_VALUE);
+        for(int chunkSize : CHUNK_SIZES)
+            assertMeshEquals(streamed, parse(file, chunkSize));
+    }
+
+    @Test
+    public void negativeIndicesCountBack() throws IOException {
+        Path absolute = write("absolute.obj", generate(new Random(19), true, true, false));
+        Path relative = write("relative.obj", generate(new Random(19), true, true, true));
+        assertMeshEquals(parse(absolute, Integer.MAX_VALUE), parse(relative, Integer.MAX_VALUE));
+        assertMeshEquals(parse(absolute, Integer.MAX_VALUE), parse(relative, 64));
+    }
+
+    @Test
+    public void facesWithoutTextureCoordinatesUseTheirNormals() throws IOException {
+        Path file = write("quad.obj", "v 0 0 0\r\nv 1 0 0\r\nv 1 1 0\r\nv 0 1 0\r\nvn 0 0 1\r\nvn 0 0 -1\r\nf 1//1 2//1 3//1 4//2\r\n");
+        Mesh mesh = parse(file, Integer.MAX_VALUE);
+        assertArrayEquals(new int[]{0, 1, 2, 0, 2, 3}, mesh.getIndices());
+        assertArrayEquals(new float[]{0, 0, 1, 0, 0, 1, 0, 0, 1, 0, 0, -1}, toArray(mesh.getNormals()));
+        assertMeshEquals(mesh, parse(file, 1));
+    }
+
+    @Test
+    public void indexMapKeepsItsEntriesWhenGrowing() {
+        Random random = new Random(19);
+        OBJModelLoader.IndexMap indexMap = new OBJModelLoader.IndexMap(1);
+        Map<List<Integer>, Integer> expected = new HashMap<>();
+        for(int i = 0; i < 100000; i++){
+            int vertexIndex = random.nextInt(300);
+            int UVcoordIndex = random.nextInt(20);
+            int normalIndex = random.nextInt(20);
+            List<Integer> key = Arrays.asList(vertexIndex, UVcoordIndex, normalIndex);
+            Integer value = expected.get(key);
+            assertEquals(value == null ? -1 : value, indexMap.putIfAbsent(vertexIndex, UVcoordIndex, normalIndex, expected.size()));
+            if(value == null)
+                expected.put(key, expected.size());
+        }
+        for(Map.Entry<List<Integer>, Integer> entry : expected.entrySet()){
+            List<Integer> key = entry.getKey();
+            assertEquals(entry.getValue(), indexMap.putIfAbsent(key.get(0), key.get(1), key.get(2), -2));
+        }
+    }
+
+    @Test
+    public void indexMapTellsApartTheNormalIndices() {
+        OBJModelLoader.IndexMap indexMap = new OBJModelLoader.IndexMap(1);
+        for(int normalIndex = 0; normalIndex < 1000; normalIndex++)
+            assertEquals(-1, indexMap.putIfAbsent(7, 7, normalIndex, normalIndex));
+        assertEquals(-1, indexMap.putIfAbsent(7, -1, 7, 1000));
+        assertEquals(-1, indexMap.putIfAbsent(-1, 7, 7, 1001));
+        for(int normalIndex = 0; normalIndex < 1000; normalIndex++)
+            assertEquals(normalIndex, indexMap.putIfAbsent(7, 7, normalIndex, -2));
+        assertEquals(1000, indexMap.putIfAbsent(7, -1, 7, -2));
+        assertEquals(1001, indexMap.putIfAbsent(-1, 7, 7, -2));
+    }
+
+    @Test
+    public void sharesVerticesOfTheSameIndicesOnly() throws IOException {
+        StringBuilder file = new StringBuilder("v 0 0 0\nv 1 0 0\nv 0 1 0\n");
+        for(int i = 0; i < 40; i++)
+            file.append("vt ").append(i).append(" 0\n").append("vn 0 0 ").append(i).append('\n');
+        for(int i = 1; i <= 40; i++)
+            for(int j = 1; j <= 40; j += 3)
+                file.append("f 1/").append(i).append('/').append(j).append(" 2/").append(i).append("/1 3/1/").append(j).append('\n');
+        Mesh mesh = parse(write("shared.obj", file.toString()), Integer.MAX_VALUE);
+        int[] indices = mesh.getIndices();
+        float[] UVcoords = toArray(mesh.getUVcoords());
+        float[] normals = toArray(mesh.getNormals());
+        Map<List<Float>, Integer> vertices = new HashMap<>();
+        for(int corner = 0; corner < indices.length; corner++){
+            int vertex = indices[corner];
+            List<Float> key = Arrays.asList((float)(corner % 3), UVcoords[vertex * 2], normals[vertex * 3 + 2]);
+            Integer expected = vertices.get(key);
+            if(expected == null)
+                vertices.put(key, vertex);
+            else
+                assertEquals(expected, vertex);
+        }
+        assertEquals(vertices.size(), mesh.getVertexCount());
+    }
+
+    /**
+    * Returns the text of an OBJ file of random records, with faces of three to six vertices between them.
+    * The faces refer to the records before them with negative indices if boolean relative is true, otherwise with positive ones
+    */
+    private static String generate(Random random, boolean UVcoords, boolean normals, boolean relative) {
+        StringBuilder file = new StringBuilder("# generated\n");
+        int vertices = 0, UVcoordAmount = 0, normalAmount = 0;
+        for(int record = 0; record < 2000; record++){
+            String lineEnd = random.nextInt(4) == 0 ? "\r\n" : "\n";
+            int type = vertices < 6 ? 0 : random.nextInt(5);
+            if(type == 0 || (type == 1 && !UVcoords) || (type == 2 && !normals)){
+                file.append(String.format(Locale.ROOT, "v %.5f %.5e %f", random.nextGaussian(), random.nextGaussian(), random.nextGaussian())).append(lineEnd);
+                vertices++;
+            }
+            else if(type == 1){
+                file.append(String.format(Locale.ROOT, "vt %.4f %.4f", random.nextFloat(), random.nextFloat())).append(lineEnd);
+                UVcoordAmount++;
+            }
+            else if(type == 2){
+                file.append(String.format(Locale.ROOT, "vn %.4f %.4f %.4f", random.nextGaussian(), random.nextGaussian(), random.nextGaussian())).append(lineEnd);
+                normalAmount++;
+            }
+            else if(UVcoords && UVcoordAmount == 0 || normals && normalAmount == 0)
+                file.append("o skipped").append(lineEnd);
+            else{
+                file.append('f');
+                int corners = 3 + random.nextInt(4);
+                for(int i = 0; i < corners; i++){
+                    file.append(' ').append(index(random, vertices, relative));
+                    if(UVcoords)
+                        file.append('/').append(index(random, UVcoordAmount, relative));
+                    else if(normals)
+                        file.append('/');
+                    if(normals)
+                        file.append('/').append(index(random, normalAmount, relative));
+                }
+                file.append(lineEnd);
+            }
+        }
+        return file.toString();
+    }
+
+    private static int index(Random random, int count, boolean relative) {
+        int index = random.nextInt(Math.min(count, 8));
+        return relative ? -1 - index : count - index;
+    }
+
+    private Path write(String name, String text) throws IOException {
+        Path file = m_directory.resolve(name);
+        Files.write(file, text.getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+
+    private static Mesh parse(Path file, int chunkSize) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            return OBJModelLoader.meshFromObjChannel(channel, chunkSize);
+        }
+    }
+
+    static void assertMeshEquals(Mesh expected, Mesh actual) {
+        assertEquals(expected.getVertexCount(), actual.getVertexCount());
+        assertArrayEquals(toArray(expected.getPositions()), toArray(actual.getPositions()));
+        assertArrayEquals(toArray(expected.getUVcoords()), toArray(actual.getUVcoords()));
+        assertArrayEquals(toArray(expected.getNormals()), toArray(actual.getNormals()));
+        assertArrayEquals(expected.getIndices(), actual.getIndices());
+    }
+
+    static float[] toArray(FloatBuffer buffer) {
+        float[] values = new float[buffer.remaining()];
+        buffer.duplicate().get(values);
+        return values;
+    }
+}
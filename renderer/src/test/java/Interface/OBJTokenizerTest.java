@@ -0,0 +1,137 @@
+package Interface;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * OBJTokenizerTest checks the records, floats and indices OBJTokenizer parses, both streamed from a channel and from a ByteBuffer
+ *
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+public class OBJTokenizerTest {
+    @Test
+    public void parsesFloatsLikeFloatParseFloat() throws IOException {
+        Random random = new Random(16);
+        String[] values = new String[3000];
+        for(int i = 0; i < values.length; i += 3){
+            float value = Float.intBitsToFloat(random.nextInt());
+            while(Float.isNaN(value) || Float.isInfinite(value))
+                value = Float.intBitsToFloat(random.nextInt());
+            values[i] = Float.toString(value);
+            values[i + 1] = String.format(Locale.ROOT, "%.6e", random.nextGaussian() * 1000);
+            values[i + 2] = String.format(Locale.ROOT, "%.4f", random.nextGaussian() * 10);
+        }
+        StringBuilder file = new StringBuilder();
+        for(int i = 0; i < values.length; i += 3)
+            file.append("v ").append(values[i]).append(' ').append(values[i + 1]).append(' ').append(values[i + 2]).append('\n');
+        OBJTokenizer tokenizer = streamed(file.toString());
+        for(int i = 0; i < values.length; i += 3){
+            assertEquals(OBJTokenizer.VERTEX, tokenizer.nextRecord());
+            for(int j = i; j < i + 3; j++)
+                assertEquals(Float.floatToIntBits(Float.parseFloat(values[j])), Float.floatToIntBits(tokenizer.nextFloat()), values[j]);
+        }
+        assertEquals(OBJTokenizer.END, tokenizer.nextRecord());
+    }
+
+    @Test
+    public void parsesExponents() throws IOException {
+        OBJTokenizer tokenizer = mapped("v 1.5e3 -2.25E-2 +3e+1\nvn 1E0 .5e1 -0.0e-7\n");
+        assertEquals(OBJTokenizer.VERTEX, tokenizer.nextRecord());
+        assertEquals(1500f, tokenizer.nextFloat());
+        assertEquals(-0.0225f, tokenizer.nextFloat());
+        assertEquals(30f, tokenizer.nextFloat());
+        assertEquals(OBJTokenizer.NORMAL, tokenizer.nextRecord());
+        assertEquals(1f, tokenizer.nextFloat());
+        assertEquals(5f, tokenizer.nextFloat());
+        assertEquals(Float.floatToIntBits(-0f), Float.floatToIntBits(tokenizer.nextFloat()));
+        assertEquals(OBJTokenizer.END, tokenizer.nextRecord());
+    }
+
+    @Test
+    public void parsesNegativeIndices() throws IOException {
+        OBJTokenizer tokenizer = mapped("f -1 -2/-3 -4/-5/-6\n");
+        assertEquals(OBJTokenizer.FACE, tokenizer.nextRecord());
+        assertTrue(tokenizer.hasNext());
+        assertEquals(-1, tokenizer.nextInt());
+        assertFalse(tokenizer.skip('/'));
+        assertTrue(tokenizer.hasNext());
+        assertEquals(-2, tokenizer.nextInt());
+        assertTrue(tokenizer.skip('/'));
+        assertEquals(-3, tokenizer.nextInt());
+        assertTrue(tokenizer.hasNext());
+        assertEquals(-4, tokenizer.nextInt());
+        assertTrue(tokenizer.skip('/'));
+        assertEquals(-5, tokenizer.nextInt());
+        assertTrue(tokenizer.skip('/'));
+        assertEquals(-6, tokenizer.nextInt());
+        assertFalse(tokenizer.hasNext());
+    }
+
+    @Test
+    public void parsesFacesWithoutTextureCoordinates() throws IOException {
+        OBJTokenizer tokenizer = streamed("f 1//2 3//4\t5//6\r\n");
+        assertEquals(OBJTokenizer.FACE, tokenizer.nextRecord());
+        for(int i = 1; i < 7; i += 2){
+            assertTrue(tokenizer.hasNext());
+            assertEquals(i, tokenizer.nextInt());
+            assertTrue(tokenizer.skip('/'));
+            assertTrue(tokenizer.skip('/'));
+            assertEquals(i + 1, tokenizer.nextInt());
+        }
+        assertFalse(tokenizer.hasNext());
+        assertEquals(OBJTokenizer.END, tokenizer.nextRecord());
+    }
+
+    @Test
+    public void skipsOtherRecordsAndCountsLines() throws IOException {
+        OBJTokenizer tokenizer = streamed("# comment\r\nmtllib a.mtl\no object\n\n  vt 0.5 0.25\nvp 1 2\nusemtl a\r\nvn 0 1 0\nf 1 2 3 4");
+        assertEquals(OBJTokenizer.UVCOORD, tokenizer.nextRecord());
+        assertEquals(5, tokenizer.getLine());
+        assertEquals(OBJTokenizer.NORMAL, tokenizer.nextRecord());
+        assertEquals(8, tokenizer.getLine());
+        assertEquals(OBJTokenizer.FACE, tokenizer.nextRecord());
+        assertEquals(9, tokenizer.getLine());
+        assertEquals(4, tokenizer.countValues());
+        assertEquals(OBJTokenizer.END, tokenizer.nextRecord());
+    }
+
+    @Test
+    public void growsTheBufferForLongLines() throws IOException {
+        StringBuilder file = new StringBuilder("# ");
+        for(int i = 0; i < 100000; i++)
+            file.append('x');
+        file.append("\nf");
+        for(int i = 1; i <= 20000; i++)
+            file.append(' ').append(i);
+        file.append("\nv 1 2 3\n");
+        OBJTokenizer tokenizer = streamed(file.toString());
+        assertEquals(OBJTokenizer.FACE, tokenizer.nextRecord());
+        for(int i = 1; i <= 20000; i++){
+            assertTrue(tokenizer.hasNext());
+            assertEquals(i, tokenizer.nextInt());
+        }
+        assertFalse(tokenizer.hasNext());
+        assertEquals(OBJTokenizer.VERTEX, tokenizer.nextRecord());
+        assertEquals(3, tokenizer.getLine());
+        assertEquals(3, tokenizer.countValues());
+        assertEquals(OBJTokenizer.END, tokenizer.nextRecord());
+    }
+
+    private static OBJTokenizer streamed(String file) {
+        return new OBJTokenizer(Channels.newChannel(new ByteArrayInputStream(file.getBytes(StandardCharsets.US_ASCII))));
+    }
+
+    private static OBJTokenizer mapped(String file) {
+        return new OBJTokenizer(ByteBuffer.wrap(file.getBytes(StandardCharsets.US_ASCII)), 1);
+    }
+}
@@ -0,0 +1,109 @@
+package RenderingEngine.Rendering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import RenderingEngine.Constructs.Vertex;
+import RenderingEngine.Constructs.VertexBuffer;
+import RenderingEngine.CoreComponents.Vector4;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * EdgeCalculatorTest checks that clipping triangles in place in VertexBuffers gives the same polygons as the clipper
+ * that clipped Lists of Vertices
+ *
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+public class EdgeCalculatorTest {
+    @Test
+    public void clipsLikeTheVertexListClipper() {
+        Random random = new Random(25);
+        VertexBuffer vertices = new VertexBuffer(EdgeCalculator.MAX_CLIPPED_VERTICES);
+        VertexBuffer auxilliary = new VertexBuffer(EdgeCalculator.MAX_CLIPPED_VERTICES);
+        int clipped = 0;
+        for(int i = 0; i < 20000; i++){
+            Vertex[] triangle = {vertex(random), vertex(random), vertex(random)};
+            List<Vertex> expected = new ArrayList<>();
+            for(Vertex v : triangle)
+                expected.add(v);
+            List<Vertex> auxilliaryList = new ArrayList<>();
+            boolean visible = clipPolygonAxis(expected, auxilliaryList, 0) && clipPolygonAxis(expected, auxilliaryList, 1) && clipPolygonAxis(expected, auxilliaryList, 2);
+
+            vertices.clear();
+            for(Vertex v : triangle)
+                vertices.add(v);
+            assertEquals(visible, EdgeCalculator.clip(vertices, auxilliary), "triangle " + i);
+            if(!visible)
+                continue;
+            clipped++;
+            assertEquals(expected.size(), vertices.size(), "triangle " + i);
+            for(int j = 0; j < expected.size(); j++)
+                assertVertexEquals(expected.get(j), vertices.getVertex(j), "triangle " + i + " vertex " + j);
+        }
+        assertTrue(clipped > 1000);
+    }
+
+    /**
+    * Returns a random clip space Vertex, on one of the planes of the view frustum now and then, and behind the camera now and then
+    */
+    private static Vertex vertex(Random random) {
+        float w = random.nextFloat() * 3 - 0.5f;
+        float[] position = new float[3];
+        for(int i = 0; i < 3; i++)
+            position[i] = random.nextInt(8) == 0 ? (random.nextBoolean() ? w : -w) : (random.nextFloat() * 2 - 1) * 3 * Math.abs(w);
+        return new Vertex(
+                new Vector4(position[0], position[1], position[2], w),
+                new Vector4(random.nextFloat(), random.nextFloat(), 0, 0),
+                new Vector4(random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1, 0));
+    }
+
+    private static void assertVertexEquals(Vertex expected, Vertex actual, String message) {
+        for(int i = 0; i < 4; i++)
+            assertEquals(expected.get(i), actual.get(i), message);
+        assertEquals(expected.getUVcoord().getX(), actual.getUVcoord().getX(), message);
+        assertEquals(expected.getUVcoord().getY(), actual.getUVcoord().getY(), message);
+        assertEquals(expected.getNormal().getX(), actual.getNormal().getX(), message);
+        assertEquals(expected.getNormal().getY(), actual.getNormal().getY(), message);
+        assertEquals(expected.getNormal().getZ(), actual.getNormal().getZ(), message);
+        assertEquals(expected.getNormal().getW(), actual.getNormal().getW(), message);
+    }
+
+    private static boolean clipPolygonAxis(List<Vertex> vertices, List<Vertex> auxilliary, int componentIndex){
+        clipPolygonComponent(vertices, componentIndex, 1f, auxilliary);
+        vertices.clear();
+        if(auxilliary.isEmpty())
+            return false;
+        clipPolygonComponent(auxilliary, componentIndex, -1f, vertices);
+        auxilliary.clear();
+        return !vertices.isEmpty();
+    }
+
+    private static void clipPolygonComponent(List<Vertex> vertices, int componentIndex, float componentFactor, List<Vertex> result){
+        Vertex previousVertex = vertices.get(vertices.size() - 1);
+        float previousComponent = previousVertex.get(componentIndex) * componentFactor;
+        boolean previousInside = previousComponent <= previousVertex.getPosition().getW();
+        Iterator<Vertex> it = vertices.iterator();
+        while(it.hasNext()){
+            Vertex currentVertex = it.next();
+            float currentComponent = currentVertex.get(componentIndex) * componentFactor;
+            boolean currentInside = currentComponent <= currentVertex.getPosition().getW();
+            if(currentInside ^ previousInside){
+                float lerpAmount = (previousVertex.getPosition().getW() - previousComponent) /
+                        ((previousVertex.getPosition().getW() - previousComponent) -
+                        (currentVertex.getPosition().getW() - currentComponent));
+                result.add(previousVertex.lerp(currentVertex, lerpAmount));
+            }
+
+            if(currentInside)
+                result.add(currentVertex);
+
+            previousVertex = currentVertex;
+            previousComponent = currentComponent;
+            previousInside = currentInside;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package Interface;
 
 import RenderingEngine.Constructs.Transform;
+import RenderingEngine.Rendering.RenderScheduler;
 import java.awt.Cursor;
 import java.awt.Point;
 import java.awt.Toolkit;
@@ -11,9 +12,13 @@ import java.awt.event.FocusListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import javax.swing.AbstractAction;
+import javax.swing.JComponent;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
@@ -30,9 +35,19 @@ import javax.swing.undo.UndoManager;
  * @author Eero Lempiö el415524@student.uta.fi
  */
 public class MainWindow extends JFrame {
+    /**
+    * The frame rate the render panel is drawn at while the camera is moving
+    */
+    public static final int TARGET_FPS = 60;
+    
+    /**
+    * The key toggling the profiler overlay of the render panel
+    */
+    public static final int PROFILER_OVERLAY_KEY = KeyEvent.VK_F3;
+    
     private RendererModel m_model;
     private D3DViewController m_viewController;
-    protected Thread m_renderThread;
+    protected RenderScheduler m_renderScheduler;
     private JFileChooser m_objChooser;
     /**
      * Creates new form MainWindow
@@ -59,6 +74,7 @@ public class MainWindow extends JFrame {
                 m_viewController.setMouseLockPosition(p.x + renderPanel.getWidth()/2, p.y + renderPanel.getHeight()/2);
                 renderPanel.addMouseMotionListener(m_viewController);
                 renderPanel.setCursor(blankCursor);
+                m_renderScheduler.wake();
             }
 
             @Override
@@ -70,7 +86,9 @@ public class MainWindow extends JFrame {
         renderPanel.addMouseListener(new MouseListener() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                if(renderPanel.hasFocus())
+                if(e.getButton() == MouseEvent.BUTTON3)
+                    m_model.selectObjectAt(e.getX(), e.getY());
+                else if(renderPanel.hasFocus())
                     thisFrame.requestFocusInWindow();
                 else
                     renderPanel.requestFocusInWindow();
@@ -85,6 +103,14 @@ public class MainWindow extends JFrame {
             public void mouseExited(MouseEvent e) {}
         });
         renderPanel.addKeyListener(m_viewController);
+        renderPanel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(PROFILER_OVERLAY_KEY, 0), "toggleProfilerOverlay");
+        renderPanel.getActionMap().put("toggleProfilerOverlay", new AbstractAction(){
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                renderPanel.setProfilerOverlay(!renderPanel.isProfilerOverlay());
+                renderPanel.render();
+            }
+        });
     }
     
     private void initModel(){
@@ -175,22 +201,33 @@ public class MainWindow extends JFrame {
     }
 
     private void initRenderThread(){
-        m_renderThread = new Thread(){
+        m_renderScheduler = new RenderScheduler(new RenderScheduler.FrameSource(){
             @Override
-            public void run(){
-                long previousTime = System.nanoTime();
-                while(true){
-                    long currentTime = System.nanoTime();
-                    float delta =(float)((currentTime - previousTime)/1000000000.0);
-                    previousTime = currentTime;
-                    if(renderPanel.hasFocus()){
-                        Transform transform = m_viewController.update(delta, renderPanel.getCameraTransform());
-                        renderPanel.setCameraTransform(transform);
-                        renderPanel.render();
-                    }
-                }
+            public boolean needsFrame() {
+                return renderPanel.hasFocus() && m_viewController.isMoving();
             }
-        };
+
+            @Override
+            public void drawFrame(float delta) {
+                Transform transform = m_viewController.update(delta, renderPanel.getCameraTransform());
+                renderPanel.setCameraTransform(transform);
+                renderPanel.render();
+            }
+        }, TARGET_FPS);
+        renderPanel.setScheduler(m_renderScheduler);
+        m_viewController.setInputListener(new Runnable(){
+            @Override
+            public void run() {
+                m_renderScheduler.wake();
+            }
+        });
+        addWindowListener(new WindowAdapter(){
+            @Override
+            public void windowClosing(WindowEvent e) {
+                m_renderScheduler.stop();
+                renderPanel.close();
+            }
+        });
     }
     /**
      * This method is called from within the constructor to initialize the form.
@@ -320,7 +357,7 @@ public class MainWindow extends JFrame {
                 window.requestFocus();
             }
         });
-        window.m_renderThread.start();
+        window.m_renderScheduler.start();
     }
 
     // Variables declaration - do not modify//GEN-BEGIN:variables
@@ -0,0 +1,223 @@
+package Interface;
+
+import RenderingEngine.Constructs.Mesh;
+import RenderingEngine.CoreComponents.OctahedralNormal;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MeshCache stores Meshes in a compact binary file, so that a Mesh parsed from an OBJ file once can later be loaded without parsing it again.
+ * <p>
+ * A cache file starts with a header of little-endian values: the magic bytes MESH, the format version, a hash of the contents of the source file,
+ * the size of the source file, flags, the amount of vertices and the amount of indices. The header is followed by the positions and normals
+ * as three floats and the texture coordinates as two floats per vertex, and then the indices as ints, the same layout a Mesh stores them in.
+ * <p>
+ * A quantized cache file stores the bounds of the positions and texture coordinates after the header, the positions and texture coordinates
+ * as 16 bit fixed point values inside those bounds, and the normals encoded to a single int with OctahedralNormal.encode, taking about half the space.
+ * <p>
+ * Cache files are loaded through a memory map, and a cache file whose source hash, size or layout doesn't match is ignored.
+ *
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+public class MeshCache {
+    /**
+    * The extension added to the name of the source file to get the name of its cache file
+    */
+    public static final String EXTENSION = ".mesh";
+    
+    private static final int MAGIC = 'M' | 'E' << 8 | 'S' << 16 | 'H' << 24;
+    private static final int VERSION = 1;
+    private static final int QUANTIZED = 1;
+    private static final int HEADER_SIZE = 40;
+    private static final int BOUNDS_SIZE = 10 * 4;
+    private static final int HASH_REGION_SIZE = 1 << 30;
+    private static final float QUANTIZATION_STEPS = 65535;
+    
+    /**
+    * Returns the cache file of the source file File source, stored next to it
+    */
+    public static File getCacheFile(File source) {
+        return new File(source.getPath() + EXTENSION);
+    }
+    
+    /**
+    * Returns a 64 bit hash of the contents of the file open in FileChannel channel, read through memory maps.
+    * The hash only detects changes to the file, it is not meant to be secure
+    */
+    public static long hash(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long hash = size * 0x9E3779B97F4A7C15L;
+        for(long position = 0; position < size; position += HASH_REGION_SIZE){
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(HASH_REGION_SIZE, size - position));
+            region.order(ByteOrder.LITTLE_ENDIAN);
+            while(region.remaining() >= 8)
+                hash = mix(hash, region.getLong());
+            while(region.hasRemaining())
+                hash = mix(hash, region.get());
+        }
+        return mix(hash, size);
+    }
+    
+    /**
+    * Returns the Mesh stored in the cache file File file if it was written from a source file of long sourceSize bytes with the hash long sourceHash,
+    * otherwise returns null. Files that aren't cache files of the current version, or that are truncated, are also ignored
+    */
+    public static Mesh read(File file, long sourceHash, long sourceSize) throws IOException {
+        if(!file.isFile())
+            return null;
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+            if(channel.size() < HEADER_SIZE)
+                return null;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if(buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getLong() != sourceHash || buffer.getLong() != sourceSize)
+                return null;
+            int flags = buffer.getInt();
+            int vertexCount = buffer.getInt();
+            int indexCount = buffer.getInt();
+            buffer.position(HEADER_SIZE);
+            boolean quantized = (flags & QUANTIZED) != 0;
+            if(vertexCount < 0 || indexCount < 0 || channel.size() != getFileSize(vertexCount, indexCount, quantized))
+                return null;
+            
+            float[] positions = new float[vertexCount * Mesh.POSITION_SIZE];
+            float[] UVcoords = new float[vertexCount * Mesh.UVCOORD_SIZE];
+            float[] normals = new float[vertexCount * Mesh.NORMAL_SIZE];
+            if(quantized)
+                readQuantized(buffer, vertexCount, positions, UVcoords, normals);
+            else{
+                readFloats(buffer, positions);
+                readFloats(buffer, UVcoords);
+                readFloats(buffer, normals);
+            }
+            int[] indices = new int[indexCount];
+            buffer.asIntBuffer().get(indices);
+            for(int index : indices)
+                if(index < 0 || index >= vertexCount)
+                    return null;
+            return new Mesh(positions, UVcoords, normals, indices);
+        }
+    }
+    
+    /**
+    * Writes Mesh mesh to the cache file File file, recording long sourceHash and long sourceSize of the source file it was parsed from.
+    * The Mesh is quantized if boolean quantize is true. The file is written under a temporary name and then moved in place,
+    * so that a partly written cache file is never read
+    */
+    public static void write(File file, Mesh mesh, long sourceHash, long sourceSize, boolean quantize) throws IOException {
+        int vertexCount = mesh.getVertexCount();
+        int[] indices = mesh.getIndices();
+        long fileSize = getFileSize(vertexCount, indices.length, quantize);
+        if(fileSize > Integer.MAX_VALUE)
+            throw new IOException("The Mesh is too large to be cached");
+        ByteBuffer buffer = ByteBuffer.allocate((int)fileSize).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(sourceHash).putLong(sourceSize);
+        buffer.putInt(quantize ? QUANTIZED : 0).putInt(vertexCount).putInt(indices.length);
+        buffer.position(HEADER_SIZE);
+        if(quantize)
+            writeQuantized(buffer, mesh);
+        else{
+            writeFloats(buffer, mesh.getPositions());
+            writeFloats(buffer, mesh.getUVcoords());
+            writeFloats(buffer, mesh.getNormals());
+        }
+        buffer.asIntBuffer().put(indices);
+        buffer.position(0);
+        
+        Path target = file.toPath();
+        Path temporary = Files.createTempFile(target.toAbsolutePath().getParent(), file.getName(), ".tmp");
+        try{
+            try(FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)){
+                while(buffer.hasRemaining())
+                    channel.write(buffer);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally{
+            Files.deleteIfExists(temporary);
+        }
+    }
+    
+    private static long getFileSize(int vertexCount, int indexCount, boolean quantized) {
+        if(quantized)
+            return HEADER_SIZE + BOUNDS_SIZE + (long)vertexCount * (3 * 2 + 2 * 2 + 4) + (long)indexCount * 4;
+        return HEADER_SIZE + (long)vertexCount * (3 + 2 + 3) * 4 + (long)indexCount * 4;
+    }
+    
+    private static void readFloats(ByteBuffer buffer, float[] values) {
+        buffer.asFloatBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Float.BYTES);
+    }
+    
+    private static void writeFloats(ByteBuffer buffer, FloatBuffer values) {
+        buffer.asFloatBuffer().put(values);
+        buffer.position(buffer.position() + values.capacity() * Float.BYTES);
+    }
+    
+    private static void readQuantized(ByteBuffer buffer, int vertexCount, float[] positions, float[] UVcoords, float[] normals) {
+        float[] minimums = new float[5];
+        float[] extents = new float[5];
+        for(int i = 0; i < 5; i++){
+            minimums[i] = buffer.getFloat();
+            extents[i] = buffer.getFloat() / QUANTIZATION_STEPS;
+        }
+        for(int i = 0; i < vertexCount * 3; i++)
+            positions[i] = minimums[i % 3] + (buffer.getShort() & 0xFFFF) * extents[i % 3];
+        for(int i = 0; i < vertexCount * 2; i++)
+            UVcoords[i] = minimums[3 + i % 2] + (buffer.getShort() & 0xFFFF) * extents[3 + i % 2];
+        float[] normal = new float[3];
+        for(int i = 0; i < vertexCount; i++){
+            OctahedralNormal.decode(buffer.getInt(), normal);
+            System.arraycopy(normal, 0, normals, i * 3, 3);
+        }
+    }
+    
+    private static void writeQuantized(ByteBuffer buffer, Mesh mesh) {
+        int vertexCount = mesh.getVertexCount();
+        FloatBuffer positions = mesh.getPositions();
+        FloatBuffer UVcoords = mesh.getUVcoords();
+        FloatBuffer normals = mesh.getNormals();
+        float[] minimums = new float[5];
+        float[] extents = new float[5];
+        for(int j = 0; j < 5; j++){
+            FloatBuffer values = j < 3 ? positions : UVcoords;
+            int stride = j < 3 ? 3 : 2;
+            int component = j < 3 ? j : j - 3;
+            float min = Float.MAX_VALUE;
+            float max = -Float.MAX_VALUE;
+            for(int i = 0; i < vertexCount; i++){
+                min = Math.min(min, values.get(i * stride + component));
+                max = Math.max(max, values.get(i * stride + component));
+            }
+            minimums[j] = vertexCount > 0 ? min : 0;
+            extents[j] = vertexCount > 0 ? max - min : 0;
+            buffer.putFloat(minimums[j]).putFloat(extents[j]);
+        }
+        for(int i = 0; i < vertexCount * 3; i++)
+            buffer.putShort(quantize(positions.get(i), minimums[i % 3], extents[i % 3]));
+        for(int i = 0; i < vertexCount * 2; i++)
+            buffer.putShort(quantize(UVcoords.get(i), minimums[3 + i % 2], extents[3 + i % 2]));
+        for(int i = 0; i < vertexCount; i++)
+            buffer.putInt(OctahedralNormal.encode(normals.get(i * 3), normals.get(i * 3 + 1), normals.get(i * 3 + 2)));
+    }
+    
+    private static short quantize(float value, float minimum, float extent) {
+        if(extent == 0)
+            return 0;
+        return (short)(int)((value - minimum) / extent * QUANTIZATION_STEPS + 0.5f);
+    }
+    
+    private static long mix(long hash, long value) {
+        hash = (hash ^ value) * 0xBF58476D1CE4E5B9L;
+        return hash ^ (hash >>> 31);
+    }
+}
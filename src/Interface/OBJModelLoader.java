@@ -1,233 +1,623 @@
-package Interface;
-
-
-
-import RenderingEngine.Constructs.Mesh;
-import RenderingEngine.CoreComponents.Vector4;
-import RenderingEngine.Constructs.Vertex;
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
-/**
- *
- * @author E
- */
-public class OBJModelLoader {
-    private static final String FILENAME = ".+?(?=[.]obj$)";
-    private static final String OBJEXTENSION = "[\\s\\S]+[.]obj$";
-    private static final String NAME = "^o\\s[\\s\\S]+";
-    private static final String VERTEX = "^v(\\s-?\\d+[.]\\d+){3,}";
-    private static final String UVCOORDINATE= "^vt(\\s-?\\d+[.]\\d+){2,}";
-    private static final String NORMAL = "^vn(\\s-?\\d+[.]\\d+){3,}";
-    private static final String FACE = "^f(\\s\\d+([/]\\d*){2}){1,}";
-    
-
-    public static Mesh meshFromObjFile(File file) throws IOException {
-        List<String> allLines = Files.readAllLines(file.toPath());
-        OBJModel model = new OBJModelLoader().new OBJModel(allLines);
-        return model.toIndexedModel().toMesh();
-    }   
-    private class OBJModel{
-        private class OBJIndex{
-            public int vertexIndex;
-            public int UVcoordIndex;
-            public int normalIndex;
-
-            public int getVertexIndex() {return vertexIndex;}
-            public int getUVcoordIndex() {return UVcoordIndex;}
-            public int getNormalIndex() {return normalIndex;}
-            public void setVertexIndex(int vertexIndex) {this.vertexIndex = vertexIndex;}
-            public void setUVcoordIndex(int UVcoordIndex) {this.UVcoordIndex = UVcoordIndex;}
-            public void setNormalIndex(int normalIndex) {this.normalIndex = normalIndex;}
-            @Override
-            public boolean equals(Object obj){
-                OBJIndex index = (OBJIndex)obj;
-
-                return 
-                    vertexIndex == index.vertexIndex
-                    && UVcoordIndex == index.UVcoordIndex
-                    && normalIndex == index.normalIndex;
-            }
-
-            @Override
-            public int hashCode(){
-                final int BASE = 17;
-                final int MULTIPLIER = 31;
-
-                int result = BASE;
-
-                result = MULTIPLIER * result + vertexIndex;
-                result = MULTIPLIER * result + UVcoordIndex;
-                result = MULTIPLIER * result + normalIndex;
-
-                return result;
-            }
-        }
-        private class IndexedModel {
-            private List<Vector4> positions;
-            private List<Vector4> UVcoords;
-            private List<Vector4> normals;
-            private List<Integer> indices;
-
-            public List<Vector4> getPositions() {return positions;}
-            public List<Vector4> getUVcoords() {return UVcoords;}
-            public List<Vector4> getNormals() {return normals;}
-            public List<Integer> getIndices() {return indices;}
-
-            public IndexedModel() {
-                positions = new ArrayList<Vector4>();
-                UVcoords = new ArrayList<Vector4>();
-                normals = new ArrayList<Vector4>();
-                indices = new ArrayList<Integer>();
-            }
-
-            public void calcNormals(){
-                for(int i = 0; i < indices.size(); i += 3){
-                    int i0 = indices.get(i);
-                    int i1 = indices.get(i + 1);
-                    int i2 = indices.get(i + 2);
-
-                    Vector4 v1 = positions.get(i1).sub(positions.get(i0));
-                    Vector4 v2 = positions.get(i2).sub(positions.get(i0));
-
-                    Vector4 normal = v1.cross(v2).normalized();
-
-                    normals.set(i0, normals.get(i0).add(normal));
-                    normals.set(i1, normals.get(i1).add(normal));
-                    normals.set(i2, normals.get(i2).add(normal));
-                }
-                for(int i = 0; i < normals.size(); i++)
-                    normals.set(i, normals.get(i).normalized());
-            }
-
-            public Mesh toMesh(){
-                List<Vertex> vertices = new ArrayList<>();
-                for(int i = 0; i < positions.size(); i++){
-                    vertices.add(new Vertex(
-                        positions.get(i),
-                        UVcoords.get(i),
-                        normals.get(i)
-                    ));
-                }
-                return new Mesh(vertices, indices);
-            }
-        }
-        private List<Vector4> positions;
-        private List<Vector4> UVcoords;
-        private List<Vector4> normals;
-        private List<OBJIndex> indices;
-        private boolean        hasUVcoords;
-        private boolean        hasNormals;
-        public OBJModel(List<String> allLines){
-            positions = new ArrayList<>();
-            UVcoords = new ArrayList<>();
-            normals = new ArrayList<>();
-            indices = new ArrayList<>();
-            hasUVcoords = false;
-            hasNormals = false;
-
-            for(String line : allLines){
-                line = line.trim();
-                String[] parts = line.split("\\s");
-                if(line.matches(VERTEX)){
-                    positions.add(new Vector4(
-                            Float.valueOf(parts[1]),
-                            Float.valueOf(parts[2]),
-                            Float.valueOf(parts[3]), 1));
-                }    
-                else if(line.matches(UVCOORDINATE)){
-                    UVcoords.add(new Vector4(
-                            Float.valueOf(parts[1]),
-                            1f - Float.valueOf(parts[2]), 0, 0));
-                }   
-                else if(line.matches(NORMAL)){
-                    normals.add(new Vector4(
-                            Float.valueOf(parts[1]),
-                            Float.valueOf(parts[2]),
-                            Float.valueOf(parts[3]), 0));
-                }    
-                else if(line.matches(FACE)){
-                    for(int i = 0; i < parts.length - 3; i++){
-                        indices.add(parseOBJIndex(parts[1]));
-                        indices.add(parseOBJIndex(parts[2 + i]));
-                        indices.add(parseOBJIndex(parts[3 + i]));
-                    }
-                }
-            }
-        }
-        public OBJIndex parseOBJIndex(String part){
-            String[] values = part.split("/");
-            OBJIndex result = new OBJIndex();
-            result.setVertexIndex(Integer.parseInt(values[0]) - 1);
-            if(values.length > 1){
-                if(!values[1].isEmpty()){
-                    hasUVcoords = true;
-                    result.setUVcoordIndex(Integer.parseInt(values[1]) - 1);
-                }
-                if(values.length > 2){
-                    hasNormals = true;
-                    result.setNormalIndex(Integer.parseInt(values[2]) - 1);
-                }
-            }
-            return result;
-        }
-        public IndexedModel toIndexedModel(){
-            IndexedModel result = new IndexedModel();
-            IndexedModel normalModel = new IndexedModel();
-            Map<OBJIndex, Integer> resultIndexMap = new HashMap<OBJIndex, Integer>();
-            Map<Integer, Integer> normalIndexMap = new HashMap<Integer, Integer>();
-            Map<Integer, Integer> indexMap = new HashMap<Integer, Integer>();
-
-            for(int i = 0; i < indices.size(); i++){
-                    OBJIndex currentIndex = indices.get(i);
-                    Vector4 currentPosition = positions.get(currentIndex.getVertexIndex());
-                    Vector4 currentUVcoord;
-                    Vector4 currentNormal;
-
-                    if(hasUVcoords)
-                        currentUVcoord = UVcoords.get(currentIndex.getUVcoordIndex());
-                    else
-                        currentUVcoord = new Vector4(0,0,0,0);
-                    if(hasNormals)
-                        currentNormal = normals.get(currentIndex.getNormalIndex());
-                    else
-                        currentNormal = new Vector4(0,0,0,0);
-
-                    Integer modelVertexIndex = resultIndexMap.get(currentIndex);
-                    if(modelVertexIndex == null){
-                        modelVertexIndex = result.getPositions().size();
-                        resultIndexMap.put(currentIndex, modelVertexIndex);
-
-                        result.getPositions().add(currentPosition);
-                        result.getUVcoords().add(currentUVcoord);
-                        if(hasNormals)
-                            result.getNormals().add(currentNormal);
-                    }
-
-                    Integer normalModelIndex = normalIndexMap.get(currentIndex.getVertexIndex());
-                    if(normalModelIndex == null){
-                        normalModelIndex = normalModel.getPositions().size();
-                        normalIndexMap.put(currentIndex.getVertexIndex(), normalModelIndex);
-                        normalModel.getPositions().add(currentPosition);
-                        normalModel.getUVcoords().add(currentUVcoord);
-                        normalModel.getNormals().add(currentNormal);
-                    }
-
-                    result.getIndices().add(modelVertexIndex);
-                    normalModel.getIndices().add(normalModelIndex);
-                    indexMap.put(modelVertexIndex, normalModelIndex);
-            }
-            if(!hasNormals){
-                normalModel.calcNormals();
-                for(int i = 0; i < result.getPositions().size(); i++)
-                    result.getNormals().add(normalModel.getNormals().get(indexMap.get(i)));
-            }
-            return result;
-        }
-    }
-}
+package Interface;
+
+
+
+import RenderingEngine.Constructs.Mesh;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ *
+ * @author E
+ */
+public class OBJModelLoader {
+    /**
+    * The size in bytes of the chunks a large OBJ file is split into and parsed in parallel. Files up to this size are streamed on a single thread
+    */
+    public static final int CHUNK_SIZE = 1 << 22;
+    
+    /**
+    * Reads a Mesh from the OBJ file File file, using and updating its MeshCache file, see meshFromObjFile(File, boolean)
+    */
+    public static Mesh meshFromObjFile(File file) throws IOException {
+        return meshFromObjFile(file, true);
+    }
+    
+    /**
+    * Reads a Mesh from the OBJ file File file. The records are parsed straight into primitive arrays by OBJTokenizers.
+    * Files up to CHUNK_SIZE are streamed, larger files are memory mapped in chunks that are parsed in parallel.
+    * Faces with more than three vertices are split into triangle fans, and negative indices are resolved relative to the records read before them.
+    * If boolean useCache is true, the Mesh is loaded from the MeshCache file next to the OBJ file when its hash matches the contents of the OBJ file,
+    * and otherwise the parsed Mesh is written to the MeshCache file. Failing to write the cache file doesn't fail the loading
+    */
+    public static Mesh meshFromObjFile(File file, boolean useCache) throws IOException {
+        return meshFromObjFile(file, useCache, false);
+    }
+    
+    /**
+    * Reads a Mesh from the OBJ file File file like meshFromObjFile(File, boolean). If boolean quantizeCache is true, a new MeshCache file is written quantized,
+    * taking about half the space at the cost of the precision of the positions, texture coordinates and normals.
+    * An existing cache file is loaded whether it is quantized or not
+    */
+    public static Mesh meshFromObjFile(File file, boolean useCache, boolean quantizeCache) throws IOException {
+        Mesh mesh;
+        long hash = 0, size = 0;
+        File cacheFile = MeshCache.getCacheFile(file);
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+            size = channel.size();
+            if(useCache){
+                hash = MeshCache.hash(channel);
+                Mesh cached = MeshCache.read(cacheFile, hash, size);
+                if(cached != null)
+                    return cached;
+            }
+            mesh = meshFromObjChannel(channel, CHUNK_SIZE);
+        }
+        if(useCache){
+            try{
+                MeshCache.write(cacheFile, mesh, hash, size, quantizeCache);
+            }
+            catch(IOException e){
+                // The cache only speeds up loading, the Mesh is parsed from the OBJ file again next time
+            }
+        }
+        return mesh;
+    }
+    
+    /**
+    * Parses a Mesh from the OBJ file open in FileChannel channel. Files up to int chunkSize bytes are streamed from the current position of the channel,
+    * larger files are memory mapped in chunks of about int chunkSize that are parsed in parallel
+    */
+    static Mesh meshFromObjChannel(FileChannel channel, int chunkSize) throws IOException {
+        OBJModel model;
+        if(channel.size() <= chunkSize)
+            model = new OBJModelLoader().new OBJModel(new OBJTokenizer(channel));
+        else
+            model = new OBJModelLoader().new OBJModel(channel, chunkSize, ForkJoinPool.commonPool());
+        return model.toMesh();
+    }
+    
+    private class OBJModel{
+        private FloatArray positions;
+        private FloatArray UVcoords;
+        private FloatArray normals;
+        private IntArray indices;
+        private boolean        hasUVcoords;
+        private boolean        hasNormals;
+        /**
+        * Creates a new OBJModel from the records read by OBJTokenizer tokenizer
+        */
+        public OBJModel(OBJTokenizer tokenizer) throws IOException{
+            positions = new FloatArray();
+            UVcoords = new FloatArray();
+            normals = new FloatArray();
+            indices = new IntArray();
+            RecordParser parser = new RecordParser(positions, UVcoords, normals, indices);
+            parser.parse(tokenizer);
+            hasUVcoords = parser.hasUVcoords;
+            hasNormals = parser.hasNormals;
+        }
+        
+        /**
+        * Creates a new OBJModel from the OBJ file open in FileChannel channel. The file is split at line boundaries into chunks of about int chunkSize bytes,
+        * which are memory mapped and parsed in parallel on ForkJoinPool pool in two passes. The first pass only counts the records of each chunk,
+        * and the prefix sums of the counts give the offsets each chunk writes its records to in the second pass,
+        * along with the amount of records before it for resolving negative indices
+        */
+        public OBJModel(FileChannel channel, int chunkSize, ForkJoinPool pool) throws IOException{
+            List<OBJChunk> chunks = OBJChunk.split(channel, chunkSize);
+            invoke(pool, new ChunkTask(chunks, 0, chunks.size(), false));
+            int lines = 0;
+            int vertices = 0;
+            int UVcoordAmount = 0;
+            int normalAmount = 0;
+            int triangles = 0;
+            for(OBJChunk chunk : chunks){
+                chunk.m_firstLine = lines + 1;
+                chunk.m_vertexOffset = vertices;
+                chunk.m_UVcoordOffset = UVcoordAmount;
+                chunk.m_normalOffset = normalAmount;
+                chunk.m_triangleOffset = triangles;
+                lines += chunk.m_lines;
+                vertices = Math.addExact(vertices, chunk.m_vertices);
+                UVcoordAmount = Math.addExact(UVcoordAmount, chunk.m_UVcoords);
+                normalAmount = Math.addExact(normalAmount, chunk.m_normals);
+                triangles = Math.addExact(triangles, chunk.m_triangles);
+            }
+            positions = new FloatArray(Math.multiplyExact(vertices, 3));
+            UVcoords = new FloatArray(Math.multiplyExact(UVcoordAmount, 2));
+            normals = new FloatArray(Math.multiplyExact(normalAmount, 3));
+            indices = new IntArray(Math.multiplyExact(triangles, 9));
+            for(OBJChunk chunk : chunks)
+                chunk.m_parser = new RecordParser(
+                        new FloatArray(positions, chunk.m_vertexOffset * 3),
+                        new FloatArray(UVcoords, chunk.m_UVcoordOffset * 2),
+                        new FloatArray(normals, chunk.m_normalOffset * 3),
+                        new IntArray(indices, chunk.m_triangleOffset * 9));
+            invoke(pool, new ChunkTask(chunks, 0, chunks.size(), true));
+            hasUVcoords = false;
+            hasNormals = false;
+            for(OBJChunk chunk : chunks){
+                hasUVcoords |= chunk.m_parser.hasUVcoords;
+                hasNormals |= chunk.m_parser.hasNormals;
+            }
+        }
+        
+        private void invoke(ForkJoinPool pool, ChunkTask task) throws IOException{
+            try{
+                pool.invoke(task);
+            }
+            catch(UncheckedIOException e){
+                throw e.getCause();
+            }
+        }
+        
+        private void checkIndex(int index, int count) throws IOException{
+            if(index >= count)
+                throw new IOException("Index " + (index + 1) + " refers past the " + count + " records of the file");
+        }
+        
+        /**
+        * Returns the Mesh of this OBJModel, with a vertex for every unique combination of the position, texture coordinate and normal indices of the faces,
+        * in the order they are first used. If the file has no normals, the normal of a position is the normalized sum of the normals of the triangles using it
+        */
+        public Mesh toMesh() throws IOException{
+            int corners = indices.size() / 3;
+            int positionCount = positions.size() / 3;
+            int[] meshIndices = new int[corners];
+            IntArray firstCorners = new IntArray();
+            IndexMap indexMap = new IndexMap(positionCount);
+            for(int i = 0; i < corners; i++){
+                int vertexIndex = indices.get(i * 3);
+                int UVcoordIndex = indices.get(i * 3 + 1);
+                int normalIndex = indices.get(i * 3 + 2);
+                int meshIndex = indexMap.putIfAbsent(vertexIndex, UVcoordIndex, normalIndex, firstCorners.size());
+                if(meshIndex == -1){
+                    checkIndex(vertexIndex, positionCount);
+                    if(hasUVcoords)
+                        checkIndex(UVcoordIndex, UVcoords.size() / 2);
+                    if(hasNormals)
+                        checkIndex(normalIndex, normals.size() / 3);
+                    meshIndex = firstCorners.size();
+                    firstCorners.add(i);
+                }
+                meshIndices[i] = meshIndex;
+            }
+            
+            float[] positionNormals = hasNormals ? null : calcNormals(positionCount);
+            int vertexCount = firstCorners.size();
+            float[] meshPositions = new float[vertexCount * Mesh.POSITION_SIZE];
+            float[] meshUVcoords = new float[vertexCount * Mesh.UVCOORD_SIZE];
+            float[] meshNormals = new float[vertexCount * Mesh.NORMAL_SIZE];
+            for(int i = 0; i < vertexCount; i++){
+                int corner = firstCorners.get(i) * 3;
+                int position = indices.get(corner) * 3;
+                meshPositions[i * 3] = positions.get(position);
+                meshPositions[i * 3 + 1] = positions.get(position + 1);
+                meshPositions[i * 3 + 2] = positions.get(position + 2);
+                if(hasUVcoords){
+                    int UVcoord = indices.get(corner + 1) * 2;
+                    meshUVcoords[i * 2] = UVcoords.get(UVcoord);
+                    meshUVcoords[i * 2 + 1] = UVcoords.get(UVcoord + 1);
+                }
+                if(hasNormals){
+                    int normal = indices.get(corner + 2) * 3;
+                    meshNormals[i * 3] = normals.get(normal);
+                    meshNormals[i * 3 + 1] = normals.get(normal + 1);
+                    meshNormals[i * 3 + 2] = normals.get(normal + 2);
+                }
+                else{
+                    int normal = indices.get(corner) * 3;
+                    float length = (float)Math.sqrt(
+                            positionNormals[normal] * positionNormals[normal] + positionNormals[normal + 1] * positionNormals[normal + 1]
+                            + positionNormals[normal + 2] * positionNormals[normal + 2]);
+                    for(int j = 0; j < 3; j++)
+                        meshNormals[i * 3 + j] = positionNormals[normal + j] / length;
+                }
+            }
+            return new Mesh(meshPositions, meshUVcoords, meshNormals, meshIndices);
+        }
+        
+        /**
+        * Returns the sums of the normals of the triangles using each of the int positionCount positions, three floats per position.
+        * The sums are accumulated in the order of the triangles, with the same float operations as Vector4
+        */
+        private float[] calcNormals(int positionCount){
+            float[] sums = new float[positionCount * 3];
+            for(int i = 0; i < indices.size(); i += 9){
+                int i0 = indices.get(i) * 3;
+                int i1 = indices.get(i + 3) * 3;
+                int i2 = indices.get(i + 6) * 3;
+                float x0 = positions.get(i0), y0 = positions.get(i0 + 1), z0 = positions.get(i0 + 2);
+                float x1 = positions.get(i1) - x0, y1 = positions.get(i1 + 1) - y0, z1 = positions.get(i1 + 2) - z0;
+                float x2 = positions.get(i2) - x0, y2 = positions.get(i2 + 1) - y0, z2 = positions.get(i2 + 2) - z0;
+                float x = y1*z2 - z1*y2;
+                float y = z1*x2 - x1*z2;
+                float z = x1*y2 - y1*x2;
+                float length = (float)Math.sqrt(x*x + y*y + z*z);
+                x /= length;
+                y /= length;
+                z /= length;
+                for(int corner = i; corner < i + 9; corner += 3){
+                    int sum = indices.get(corner) * 3;
+                    sums[sum] += x;
+                    sums[sum + 1] += y;
+                    sums[sum + 2] += z;
+                }
+            }
+            return sums;
+        }
+    }
+    
+    /**
+    * IndexMap is an open addressing hash map from the position, texture coordinate and normal indices of a face vertex to the index of a Mesh vertex.
+    * The position and texture coordinate indices are packed to a long key with the normal index stored alongside it,
+    * so nothing is allocated per face vertex and the keys are compared without boxing
+    */
+    static class IndexMap{
+        private long[] m_keys;
+        private int[] m_normalIndices;
+        private int[] m_values;
+        private int m_size;
+
+        /**
+        * Creates an IndexMap that holds int expectedSize entries without growing
+        */
+        public IndexMap(int expectedSize) {
+            int capacity = 16;
+            while(capacity < expectedSize * 2 && capacity < 1 << 30)
+                capacity <<= 1;
+            allocate(capacity);
+        }
+        
+        /**
+        * Maps the face vertex (int vertexIndex, int UVcoordIndex, int normalIndex) to int value and returns -1 if it isn't mapped yet,
+        * otherwise returns the value it is mapped to
+        */
+        public int putIfAbsent(int vertexIndex, int UVcoordIndex, int normalIndex, int value){
+            long key = (long)vertexIndex << 32 | (UVcoordIndex & 0xFFFFFFFFL);
+            int mask = m_values.length - 1;
+            int slot = hash(key, normalIndex) & mask;
+            while(m_values[slot] != -1){
+                if(m_keys[slot] == key && m_normalIndices[slot] == normalIndex)
+                    return m_values[slot];
+                slot = (slot + 1) & mask;
+            }
+            m_keys[slot] = key;
+            m_normalIndices[slot] = normalIndex;
+            m_values[slot] = value;
+            if(++m_size * 2 > m_values.length)
+                grow();
+            return -1;
+        }
+        
+        private void allocate(int capacity){
+            m_keys = new long[capacity];
+            m_normalIndices = new int[capacity];
+            m_values = new int[capacity];
+            Arrays.fill(m_values, -1);
+        }
+        
+        private void grow(){
+            long[] keys = m_keys;
+            int[] normalIndices = m_normalIndices;
+            int[] values = m_values;
+            allocate(values.length * 2);
+            int mask = m_values.length - 1;
+            for(int i = 0; i < values.length; i++){
+                if(values[i] == -1)
+                    continue;
+                int slot = hash(keys[i], normalIndices[i]) & mask;
+                while(m_values[slot] != -1)
+                    slot = (slot + 1) & mask;
+                m_keys[slot] = keys[i];
+                m_normalIndices[slot] = normalIndices[i];
+                m_values[slot] = values[i];
+            }
+        }
+        
+        private static int hash(long key, int normalIndex){
+            long hash = (key ^ (long)normalIndex * 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+            return (int)(hash ^ hash >>> 32);
+        }
+    }
+    
+    /**
+    * RecordParser parses the records read by an OBJTokenizer, appending the positions, texture coordinates, normals and the indices of the triangles to its arrays.
+    * The sizes of the arrays when a face is parsed are the amounts of records its negative indices are resolved against
+    */
+    private static class RecordParser{
+        private final FloatArray m_positions;
+        private final FloatArray m_UVcoords;
+        private final FloatArray m_normals;
+        private final IntArray m_indices;
+        private final IntArray m_face;
+        private boolean hasUVcoords;
+        private boolean hasNormals;
+
+        public RecordParser(FloatArray positions, FloatArray UVcoords, FloatArray normals, IntArray indices) {
+            m_positions = positions;
+            m_UVcoords = UVcoords;
+            m_normals = normals;
+            m_indices = indices;
+            m_face = new IntArray();
+            hasUVcoords = false;
+            hasNormals = false;
+        }
+        
+        public void parse(OBJTokenizer tokenizer) throws IOException{
+            int record;
+            while((record = tokenizer.nextRecord()) != OBJTokenizer.END){
+                switch(record){
+                    case OBJTokenizer.VERTEX:
+                        m_positions.add(tokenizer.nextFloat());
+                        m_positions.add(tokenizer.nextFloat());
+                        m_positions.add(tokenizer.nextFloat());
+                        break;
+                    case OBJTokenizer.UVCOORD:
+                        m_UVcoords.add(tokenizer.nextFloat());
+                        m_UVcoords.add(1f - tokenizer.nextFloat());
+                        break;
+                    case OBJTokenizer.NORMAL:
+                        m_normals.add(tokenizer.nextFloat());
+                        m_normals.add(tokenizer.nextFloat());
+                        m_normals.add(tokenizer.nextFloat());
+                        break;
+                    default:
+                        m_face.clear();
+                        while(tokenizer.hasNext())
+                            parseOBJIndex(tokenizer);
+                        for(int i = 3; i < m_face.size() - 3; i += 3){
+                            m_indices.add(m_face, 0);
+                            m_indices.add(m_face, i);
+                            m_indices.add(m_face, i + 3);
+                        }
+                }
+            }
+        }
+        
+        /**
+        * Parses a vertex of a face from OBJTokenizer tokenizer and adds its position, texture coordinate and normal indices to the current face.
+        * Missing texture coordinate and normal indices are added as 0
+        */
+        private void parseOBJIndex(OBJTokenizer tokenizer) throws IOException{
+            int vertexIndex = resolveIndex(tokenizer, tokenizer.nextInt(), m_positions.size() / 3);
+            int UVcoordIndex = 0;
+            int normalIndex = 0;
+            if(tokenizer.skip('/')){
+                if(!tokenizer.skip('/')){
+                    hasUVcoords = true;
+                    UVcoordIndex = resolveIndex(tokenizer, tokenizer.nextInt(), m_UVcoords.size() / 2);
+                    if(tokenizer.skip('/')){
+                        hasNormals = true;
+                        normalIndex = resolveIndex(tokenizer, tokenizer.nextInt(), m_normals.size() / 3);
+                    }
+                }
+                else{
+                    hasNormals = true;
+                    normalIndex = resolveIndex(tokenizer, tokenizer.nextInt(), m_normals.size() / 3);
+                }
+            }
+            m_face.add(vertexIndex);
+            m_face.add(UVcoordIndex);
+            m_face.add(normalIndex);
+        }
+        
+        /**
+        * Returns the zero based index of OBJ index int index, which starts from 1, or counts back from int count of the records read so far if it is negative
+        */
+        private static int resolveIndex(OBJTokenizer tokenizer, int index, int count) throws IOException{
+            if(index > 0)
+                return index - 1;
+            if(index < 0 && count + index >= 0)
+                return count + index;
+            throw new IOException("Invalid index " + index + " on line " + tokenizer.getLine());
+        }
+    }
+    
+    /**
+    * OBJChunk is a memory mapped range of whole lines of an OBJ file, along with the amounts of records in it and the offsets its records are parsed to
+    */
+    private static class OBJChunk{
+        private final MappedByteBuffer m_buffer;
+        private int m_lines, m_vertices, m_UVcoords, m_normals, m_triangles;
+        private int m_firstLine, m_vertexOffset, m_UVcoordOffset, m_normalOffset, m_triangleOffset;
+        private RecordParser m_parser;
+
+        public OBJChunk(MappedByteBuffer buffer) {
+            m_buffer = buffer;
+        }
+        
+        /**
+        * Returns the OBJChunks of the file open in FileChannel channel, each starting int chunkSize bytes after the previous one
+        * and extended to the end of the line it would otherwise split
+        */
+        public static List<OBJChunk> split(FileChannel channel, int chunkSize) throws IOException{
+            long size = channel.size();
+            List<OBJChunk> chunks = new ArrayList<>();
+            ByteBuffer search = ByteBuffer.allocate(4096);
+            long start = 0;
+            while(start < size){
+                long end = start + chunkSize < size ? nextLineStart(channel, start + chunkSize, search) : size;
+                chunks.add(new OBJChunk(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start)));
+                start = end;
+            }
+            return chunks;
+        }
+        
+        /**
+        * Returns the position of the first line starting at or after long position in the file open in FileChannel channel,
+        * reading the file through ByteBuffer search
+        */
+        private static long nextLineStart(FileChannel channel, long position, ByteBuffer search) throws IOException{
+            long offset = position - 1;
+            while(true){
+                search.clear();
+                int read = channel.read(search, offset);
+                if(read < 0)
+                    return channel.size();
+                for(int i = 0; i < read; i++)
+                    if(search.get(i) == '\n')
+                        return offset + i + 1;
+                offset += read;
+            }
+        }
+        
+        /**
+        * Counts the lines and records of this OBJChunk
+        */
+        public void count() throws IOException{
+            OBJTokenizer tokenizer = new OBJTokenizer(m_buffer.duplicate(), 1);
+            int record;
+            while((record = tokenizer.nextRecord()) != OBJTokenizer.END){
+                switch(record){
+                    case OBJTokenizer.VERTEX: m_vertices++; break;
+                    case OBJTokenizer.UVCOORD: m_UVcoords++; break;
+                    case OBJTokenizer.NORMAL: m_normals++; break;
+                    default:
+                        m_triangles += Math.max(tokenizer.countValues() - 2, 0);
+                }
+            }
+            m_lines = tokenizer.getLine();
+        }
+        
+        public void parse() throws IOException{
+            m_parser.parse(new OBJTokenizer(m_buffer.duplicate(), m_firstLine));
+        }
+    }
+    
+    /**
+    * ChunkTask counts or parses a range of OBJChunks, splitting itself until a single OBJChunk is left
+    */
+    private static class ChunkTask extends RecursiveAction{
+        private static final long serialVersionUID = 1L;
+        
+        private final List<OBJChunk> m_chunks;
+        private final int m_start, m_end;
+        private final boolean m_parse;
+
+        public ChunkTask(List<OBJChunk> chunks, int start, int end, boolean parse) {
+            m_chunks = chunks;
+            m_start = start;
+            m_end = end;
+            m_parse = parse;
+        }
+        
+        @Override
+        protected void compute() {
+            if(m_end - m_start > 1){
+                int middle = (m_start + m_end) / 2;
+                invokeAll(new ChunkTask(m_chunks, m_start, middle, m_parse), new ChunkTask(m_chunks, middle, m_end, m_parse));
+                return;
+            }
+            OBJChunk chunk = m_chunks.get(m_start);
+            try{
+                if(m_parse)
+                    chunk.parse();
+                else
+                    chunk.count();
+            }
+            catch(IOException e){
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+    
+    /**
+    * FloatArray is a growable array of primitive floats
+    */
+    private static class FloatArray{
+        private float[] m_values;
+        private int m_size;
+
+        public FloatArray() {
+            m_values = new float[1024];
+            m_size = 0;
+        }
+        
+        /**
+        * Creates a new FloatArray of int size zeros
+        */
+        public FloatArray(int size) {
+            m_values = new float[size];
+            m_size = size;
+        }
+        
+        /**
+        * Creates a new FloatArray that adds its values to the values of FloatArray array, starting from int offset.
+        * The values added must fit in the values of FloatArray array
+        */
+        public FloatArray(FloatArray array, int offset) {
+            m_values = array.m_values;
+            m_size = offset;
+        }
+        
+        public int size() {return m_size;}
+        public float get(int index) {return m_values[index];}
+        
+        public void add(float value) {
+            if(m_size == m_values.length)
+                m_values = Arrays.copyOf(m_values, m_size * 2);
+            m_values[m_size++] = value;
+        }
+    }
+    
+    /**
+    * IntArray is a growable array of primitive ints
+    */
+    private static class IntArray{
+        private int[] m_values;
+        private int m_size;
+
+        public IntArray() {
+            m_values = new int[1024];
+            m_size = 0;
+        }
+        
+        /**
+        * Creates a new IntArray of int size zeros
+        */
+        public IntArray(int size) {
+            m_values = new int[size];
+            m_size = size;
+        }
+        
+        /**
+        * Creates a new IntArray that adds its values to the values of IntArray array, starting from int offset.
+        * The values added must fit in the values of IntArray array
+        */
+        public IntArray(IntArray array, int offset) {
+            m_values = array.m_values;
+            m_size = offset;
+        }
+        
+        public int size() {return m_size;}
+        public int get(int index) {return m_values[index];}
+        public void clear() {m_size = 0;}
+        
+        public void add(int value) {
+            if(m_size == m_values.length)
+                m_values = Arrays.copyOf(m_values, m_size * 2);
+            m_values[m_size++] = value;
+        }
+        
+        /**
+        * Adds the three values of IntArray source starting from int index
+        */
+        public void add(IntArray source, int index) {
+            add(source.m_values[index]);
+            add(source.m_values[index + 1]);
+            add(source.m_values[index + 2]);
+        }
+    }
+}
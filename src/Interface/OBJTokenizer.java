@@ -0,0 +1,290 @@
+package Interface;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * OBJTokenizer reads the vertex, texture coordinate, normal and face records of an OBJ file straight from its bytes.
+ * The bytes are streamed from a ReadableByteChannel through a single reused ByteBuffer, and floats and ints are parsed from the bytes
+ * without creating Strings, so reading a record allocates nothing. Every other record, like comments, objects and materials, is skipped.
+ * <p>
+ * A record is started with nextRecord, after which its values are read with hasNext, nextFloat, nextInt and skip until the next record is started.
+ * A record is always completely inside the buffer, which grows if a single line doesn't fit.
+ * An OBJTokenizer can also read a ByteBuffer that already holds a part of a file, such as a memory mapped chunk, in which case nothing is copied.
+ *
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+public class OBJTokenizer {
+    public static final int END = -1;
+    public static final int VERTEX = 0;
+    public static final int UVCOORD = 1;
+    public static final int NORMAL = 2;
+    public static final int FACE = 3;
+    
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_MANTISSA_DIGITS = 18;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    
+    private final ReadableByteChannel m_channel;
+    private ByteBuffer m_buffer;
+    private int m_position;
+    private int m_lineEnd;
+    private int m_limit;
+    private boolean m_endOfInput;
+    private int m_line;
+    
+    /**
+    * Creates a new OBJTokenizer reading ReadableByteChannel channel from its current position to its end
+    */
+    public OBJTokenizer(ReadableByteChannel channel) {
+        m_channel = channel;
+        m_buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        m_position = 0;
+        m_lineEnd = -1;
+        m_limit = 0;
+        m_endOfInput = false;
+        m_line = 0;
+    }
+    
+    /**
+    * Creates a new OBJTokenizer reading ByteBuffer buffer from its position to its limit, numbering the lines from int firstLine onwards.
+    * The buffer has to start at the beginning of a line
+    */
+    public OBJTokenizer(ByteBuffer buffer, int firstLine) {
+        m_channel = null;
+        m_buffer = buffer;
+        m_position = buffer.position();
+        m_lineEnd = -1;
+        m_limit = buffer.limit();
+        m_endOfInput = true;
+        m_line = firstLine - 1;
+    }
+    
+    /**
+    * Returns the line number of the current record, starting from 1
+    */
+    public int getLine() {return m_line;}
+    
+    /**
+    * Starts the next vertex, texture coordinate, normal or face record and returns which one it is, or END if there are no more records.
+    * Whatever is left of the current record is skipped
+    */
+    public int nextRecord() throws IOException {
+        while(true){
+            if(m_lineEnd >= 0)
+                m_position = m_lineEnd + 1;
+            if(!findLineEnd())
+                return END;
+            m_line++;
+            skipWhitespace();
+            int start = m_position;
+            while(m_position < m_lineEnd && !isWhitespace(m_buffer.get(m_position)))
+                m_position++;
+            int length = m_position - start;
+            byte first = length > 0 ? m_buffer.get(start) : 0;
+            if(first == 'v'){
+                if(length == 1)
+                    return VERTEX;
+                if(length == 2 && m_buffer.get(start + 1) == 't')
+                    return UVCOORD;
+                if(length == 2 && m_buffer.get(start + 1) == 'n')
+                    return NORMAL;
+            }
+            else if(first == 'f' && length == 1)
+                return FACE;
+        }
+    }
+    
+    /**
+    * Skips whitespace and returns true if the current record has more values
+    */
+    public boolean hasNext() {
+        skipWhitespace();
+        return m_position < m_lineEnd;
+    }
+    
+    /**
+    * Skips the rest of the current record and returns the amount of whitespace separated values it had
+    */
+    public int countValues() {
+        int values = 0;
+        while(hasNext()){
+            values++;
+            while(m_position < m_lineEnd && !isWhitespace(m_buffer.get(m_position)))
+                m_position++;
+        }
+        return values;
+    }
+    
+    /**
+    * Consumes the next character of the current record and returns true if it is char c, otherwise returns false without consuming anything
+    */
+    public boolean skip(char c) {
+        if(m_position < m_lineEnd && m_buffer.get(m_position) == c){
+            m_position++;
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+    * Skips whitespace and parses a float from the current record.
+    * Decimal and exponent notation are parsed straight from the bytes, anything else, like NaN or Infinity, is left to Float.parseFloat
+    */
+    public float nextFloat() throws IOException {
+        skipWhitespace();
+        int start = m_position;
+        int i = m_position;
+        boolean negative = false;
+        if(i < m_lineEnd && (m_buffer.get(i) == '-' || m_buffer.get(i) == '+'))
+            negative = m_buffer.get(i++) == '-';
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean hasDigits = false;
+        byte c;
+        for(; i < m_lineEnd && (c = m_buffer.get(i)) >= '0' && c <= '9'; i++){
+            hasDigits = true;
+            if(digits < MAX_MANTISSA_DIGITS){
+                mantissa = mantissa * 10 + (c - '0');
+                if(mantissa != 0)
+                    digits++;
+            }
+            else
+                exponent++;
+        }
+        if(i < m_lineEnd && m_buffer.get(i) == '.'){
+            for(i++; i < m_lineEnd && (c = m_buffer.get(i)) >= '0' && c <= '9'; i++){
+                hasDigits = true;
+                if(digits < MAX_MANTISSA_DIGITS){
+                    mantissa = mantissa * 10 + (c - '0');
+                    if(mantissa != 0)
+                        digits++;
+                    exponent--;
+                }
+            }
+        }
+        if(hasDigits && i < m_lineEnd && (m_buffer.get(i) == 'e' || m_buffer.get(i) == 'E')){
+            m_position = i + 1;
+            exponent += nextInt();
+            i = m_position;
+        }
+        if(!hasDigits || (i < m_lineEnd && !isSeparator(m_buffer.get(i)))){
+            m_position = start;
+            return parseFloat();
+        }
+        m_position = i;
+        double value = mantissa;
+        if(exponent < 0)
+            value = -exponent < POWERS_OF_TEN.length ? value / POWERS_OF_TEN[-exponent] : value / Math.pow(10, -exponent);
+        else if(exponent > 0)
+            value = exponent < POWERS_OF_TEN.length ? value * POWERS_OF_TEN[exponent] : value * Math.pow(10, exponent);
+        return (float)(negative ? -value : value);
+    }
+    
+    /**
+    * Parses an int from the current record. Unlike nextFloat, whitespace isn't skipped, so that the indices of a face can be read between slashes
+    */
+    public int nextInt() throws IOException {
+        int i = m_position;
+        boolean negative = false;
+        if(i < m_lineEnd && (m_buffer.get(i) == '-' || m_buffer.get(i) == '+'))
+            negative = m_buffer.get(i++) == '-';
+        long value = 0;
+        int start = i;
+        byte c;
+        for(; i < m_lineEnd && (c = m_buffer.get(i)) >= '0' && c <= '9'; i++){
+            value = value * 10 + (c - '0');
+            if(value > Integer.MAX_VALUE)
+                throw new IOException("Integer out of range on line " + m_line);
+        }
+        if(i == start)
+            throw new IOException("Expected an integer on line " + m_line);
+        m_position = i;
+        return (int)(negative ? -value : value);
+    }
+    
+    /**
+    * Parses the float at the current position with Float.parseFloat
+    */
+    private float parseFloat() throws IOException {
+        int start = m_position;
+        while(m_position < m_lineEnd && !isWhitespace(m_buffer.get(m_position)))
+            m_position++;
+        byte[] token = new byte[m_position - start];
+        m_buffer.get(start, token);
+        try{
+            return Float.parseFloat(new String(token, StandardCharsets.US_ASCII));
+        }
+        catch(NumberFormatException e){
+            throw new IOException("Expected a number on line " + m_line, e);
+        }
+    }
+    
+    /**
+    * Sets the end of the current line to the next line feed after the current position, reading more of the channel when needed.
+    * Returns false if there is nothing left
+    */
+    private boolean findLineEnd() throws IOException {
+        int searched = 0;
+        while(true){
+            for(int i = m_position + searched; i < m_limit; i++)
+                if(m_buffer.get(i) == '\n'){
+                    m_lineEnd = i;
+                    return true;
+                }
+            searched = m_limit - m_position;
+            if(!fill()){
+                m_lineEnd = m_limit;
+                return m_position < m_limit;
+            }
+        }
+    }
+    
+    /**
+    * Moves the unread bytes to the start of the buffer, growing it if it is full, and reads more of the channel after them.
+    * Returns false if the channel has ended
+    */
+    private boolean fill() throws IOException {
+        if(m_endOfInput)
+            return false;
+        int unread = m_limit - m_position;
+        if(unread == m_buffer.capacity()){
+            ByteBuffer grown = ByteBuffer.allocate(m_buffer.capacity() * 2);
+            System.arraycopy(m_buffer.array(), m_position, grown.array(), 0, unread);
+            m_buffer = grown;
+        }
+        else
+            System.arraycopy(m_buffer.array(), m_position, m_buffer.array(), 0, unread);
+        m_position = 0;
+        m_limit = unread;
+        m_buffer.limit(m_buffer.capacity()).position(m_limit);
+        int read = 0;
+        while(read == 0)
+            read = m_channel.read(m_buffer);
+        if(read < 0){
+            m_endOfInput = true;
+            return false;
+        }
+        m_limit += read;
+        return true;
+    }
+    
+    private void skipWhitespace() {
+        while(m_position < m_lineEnd && isWhitespace(m_buffer.get(m_position)))
+            m_position++;
+    }
+    
+    private static boolean isWhitespace(byte c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\f';
+    }
+    
+    private static boolean isSeparator(byte c) {
+        return isWhitespace(c) || c == '/';
+    }
+}
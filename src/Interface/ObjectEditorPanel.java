@@ -44,6 +44,7 @@ public class ObjectEditorPanel extends javax.swing.JPanel implements ObjectEdito
     private JFileChooser m_fileChooser;
     
     private ChangeListener m_spinnerListener;
+    private ActionListener m_cullModeListener;
     private MouseListener m_lightColorListener;
     private MouseListener m_objectTextureListener;
 
@@ -58,6 +59,7 @@ public class ObjectEditorPanel extends javax.swing.JPanel implements ObjectEdito
         toggleTransformParameters(false);
         toggleLightParameters(false);
         toggleColorPanel(false);
+        toggleCullMode(false);
         m_spinners = new JSpinner[]{
             locationX, locationY, locationZ, rotationX, rotationY, rotationZ, rotationW, scale, angle, distance, intensity};
     }
@@ -78,11 +80,14 @@ public class ObjectEditorPanel extends javax.swing.JPanel implements ObjectEdito
         toggleTransformParameters(false);
         toggleLightParameters(false);
         toggleColorPanel(false);
+        toggleCullMode(false);
         if(baseObject != null){
             refreshTransform(baseObject);
             refreshColor(baseObject);
             if(baseObject instanceof LightSource)
                 refreshLight(baseObject);
+            else
+                refreshCullMode(baseObject);
             objectName.setText(baseObject.toString());
         }
         else{
@@ -149,6 +154,18 @@ public class ObjectEditorPanel extends javax.swing.JPanel implements ObjectEdito
             toggleLightParameters(true);
         }
     }
+
+    /**
+     * Sets the displayed cull mode of this ObjectEditorPanel to the CullMode of BaseObject baseObject
+     */
+    @Override
+    public void refreshCullMode(BaseObject baseObject) {
+        toggleCullMode(false);
+        if(baseObject instanceof EngineObject){
+            cullMode.setSelectedItem(((EngineObject)baseObject).getCullMode());
+            toggleCullMode(true);
+        }
+    }
     
     private void initChoosers() {
         m_colorChooser = new JColorChooser();
@@ -214,6 +231,13 @@ public class ObjectEditorPanel extends javax.swing.JPanel implements ObjectEdito
                 }
             }
         };
+        m_cullModeListener = new ActionListener(){
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if(m_model != null)
+                    m_model.setCurrentObjectCullMode((EngineObject.CullMode)cullMode.getSelectedItem());
+            }
+        };
         ActionListener buttonListener = new ActionListener(){
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -257,6 +281,14 @@ public class ObjectEditorPanel extends javax.swing.JPanel implements ObjectEdito
         delete.setEnabled(state);
     }
     
+    private void toggleCullMode(boolean state){
+        cullMode.setEnabled(state);
+        if(state)
+            cullMode.addActionListener(m_cullModeListener);
+        else
+            cullMode.removeActionListener(m_cullModeListener);
+    }
+    
     private void toggleColorPanel(boolean state){
         Component[] components = colorPanel.getComponents();
         for(Component c : components)
@@ -308,6 +340,7 @@ public class ObjectEditorPanel extends javax.swing.JPanel implements ObjectEdito
         distance = new javax.swing.JSpinner();
         duplicate = new javax.swing.JButton();
         delete = new javax.swing.JButton();
+        cullMode = new javax.swing.JComboBox<>();
 
         setBackground(new java.awt.Color(114, 114, 114));
         setPreferredSize(new java.awt.Dimension(736, 147));
@@ -559,6 +592,9 @@ public class ObjectEditorPanel extends javax.swing.JPanel implements ObjectEdito
 
         delete.setText("Delete");
 
+        cullMode.setModel(new javax.swing.DefaultComboBoxModel<>(EngineObject.CullMode.values()));
+        cullMode.setToolTipText("Cull Mode");
+
         javax.swing.GroupLayout layout = new javax.swing.GroupLayout(this);
         this.setLayout(layout);
         layout.setHorizontalGroup(
@@ -573,7 +609,8 @@ public class ObjectEditorPanel extends javax.swing.JPanel implements ObjectEdito
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                 .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING, false)
                     .addComponent(duplicate, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
-                    .addComponent(delete, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+                    .addComponent(delete, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addComponent(cullMode, 0, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
                 .addGap(0, 0, Short.MAX_VALUE))
         );
         layout.setVerticalGroup(
@@ -589,6 +626,8 @@ public class ObjectEditorPanel extends javax.swing.JPanel implements ObjectEdito
                         .addComponent(duplicate)
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                         .addComponent(delete)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(cullMode, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
                         .addContainerGap())))
         );
     }// </editor-fold>//GEN-END:initComponents
@@ -597,6 +636,7 @@ public class ObjectEditorPanel extends javax.swing.JPanel implements ObjectEdito
     private javax.swing.JSpinner angle;
     private javax.swing.JLabel colorDisplay;
     private javax.swing.JPanel colorPanel;
+    private javax.swing.JComboBox<EngineObject.CullMode> cullMode;
     private javax.swing.JButton delete;
     private javax.swing.JSpinner distance;
     private javax.swing.JButton duplicate;
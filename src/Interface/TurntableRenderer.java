@@ -0,0 +1,251 @@
+package Interface;
+
+import RenderingEngine.Constructs.EngineObject;
+import RenderingEngine.Constructs.LightSource;
+import RenderingEngine.Constructs.Mesh;
+import RenderingEngine.Constructs.Transform;
+import RenderingEngine.CoreComponents.Bitmap;
+import RenderingEngine.CoreComponents.Vector4;
+import RenderingEngine.Rendering.OffscreenRenderer;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.imageio.ImageIO;
+
+/**
+ * TurntableRenderer is a command line entry point which renders an OBJ model from a camera orbiting around it and writes the frames as PNG images.
+ * The frames are rendered headlessly with an OffscreenRenderer, and the images are encoded on a separate pool of I/O threads
+ * so the rendering only waits for ImageIO when FRAMES_IN_FLIGHT frames are already waiting to be written.
+ *
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+public class TurntableRenderer {
+    private final static int DEFAULT_WIDTH = 640;
+    private final static int DEFAULT_HEIGHT = 480;
+    private final static int DEFAULT_STEPS = 36;
+    private final static OffscreenRenderer.Mode DEFAULT_RENDER_MODE = OffscreenRenderer.Mode.LIGHTED_DYNAMIC;
+    private final static Color DEFAULT_ZENITH_COLOR = Color.PINK;
+    private final static Color DEFAULT_AMBIENTLIGHT_COLOR  = Color.WHITE;
+    private final static float DEFAULT_AMBIENTLIGHT_INTENSITY = 0.2f;
+    private final static int DEFAULT_LIGHTMAP_RESOLUTION = 1024;
+    private final static Color DEFAULT_TEXTURE_COLOR = Color.LIGHT_GRAY;
+    private final static int IO_THREADS = 2;
+    private final static int FRAMES_IN_FLIGHT = IO_THREADS * 2;
+
+    private final static String USAGE =
+            "Usage: java -Djava.awt.headless=true -cp <classpath> Interface.TurntableRenderer -obj <file> [options]\n" +
+            "  -obj <file>        the OBJ model to render\n" +
+            "  -texture <file>    the texture of the model, plain light gray by default\n" +
+            "  -out <directory>   the directory the frames are written to, the current directory by default\n" +
+            "  -steps <n>         the amount of frames in a full orbit, " + DEFAULT_STEPS + " by default\n" +
+            "  -mode <mode>       the rendering mode, one of DEPTH, WIREFRAME, NORMAL, DIFFUSE, LIGHTED_STATIC, LIGHTED_DYNAMIC\n" +
+            "  -size <w>x<h>      the size of the frames in pixels, " + DEFAULT_WIDTH + "x" + DEFAULT_HEIGHT + " by default\n" +
+            "  -distance <d>      the distance of the camera from the center of the model, based on the size of the model by default\n" +
+            "  -tiled             rasterize and calculate the geometry in parallel\n" +
+            "  -guardband         draw triangles crossing the sides of the frame without clipping them\n" +
+            "  -offheap           keep the vertex attributes of the model outside of the Java heap\n" +
+            "  -quantize          write the mesh cache file of the model quantized to about half the size";
+
+    /**
+    * Renders the turntable described by String[] args, see USAGE
+    */
+    public static void main(String[] args) {
+        try{
+            run(args);
+        }
+        catch(IllegalArgumentException e){
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        catch(IOException | InterruptedException e){
+            System.err.println("Rendering the turntable failed: " + e);
+            System.exit(1);
+        }
+    }
+
+    private static void run(String[] args) throws IOException, InterruptedException {
+        File objFile = null;
+        File textureFile = null;
+        File outDirectory = new File(".");
+        int steps = DEFAULT_STEPS;
+        OffscreenRenderer.Mode mode = DEFAULT_RENDER_MODE;
+        int width = DEFAULT_WIDTH;
+        int height = DEFAULT_HEIGHT;
+        float distance = 0;
+        boolean tiled = false;
+        boolean guardBand = false;
+        boolean offHeap = false;
+        boolean quantize = false;
+        for(int i = 0; i < args.length; i++){
+            switch(args[i]){
+                case "-obj":
+                    objFile = new File(getValue(args, ++i));
+                    break;
+                case "-texture":
+                    textureFile = new File(getValue(args, ++i));
+                    break;
+                case "-out":
+                    outDirectory = new File(getValue(args, ++i));
+                    break;
+                case "-steps":
+                    steps = Integer.parseInt(getValue(args, ++i));
+                    break;
+                case "-mode":
+                    mode = OffscreenRenderer.Mode.valueOf(getValue(args, ++i).toUpperCase(Locale.ROOT));
+                    break;
+                case "-size":
+                    String[] size = getValue(args, ++i).split("x");
+                    if(size.length != 2)
+                        throw new IllegalArgumentException("The size has to be given as <width>x<height>");
+                    width = Integer.parseInt(size[0]);
+                    height = Integer.parseInt(size[1]);
+                    break;
+                case "-distance":
+                    distance = Float.parseFloat(getValue(args, ++i));
+                    break;
+                case "-tiled":
+                    tiled = true;
+                    break;
+                case "-guardband":
+                    guardBand = true;
+                    break;
+                case "-offheap":
+                    offHeap = true;
+                    break;
+                case "-quantize":
+                    quantize = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if(objFile == null)
+            throw new IllegalArgumentException("No OBJ model given");
+        if(steps <= 0 || width <= 0 || height <= 0)
+            throw new IllegalArgumentException("The amount of steps and the size of the frames have to be positive");
+        if(!outDirectory.isDirectory() && !outDirectory.mkdirs())
+            throw new IOException("Can't create the directory " + outDirectory);
+
+        long startTime = System.nanoTime();
+        Bitmap texture = readTexture(textureFile);
+        Mesh mesh = OBJModelLoader.meshFromObjFile(objFile, true, quantize);
+        if(offHeap)
+            mesh = mesh.toOffHeap();
+        System.out.println(String.format(Locale.ROOT, "Loaded %s: %d vertices, %d triangles, %.2f MB %s",
+                objFile.getName(), mesh.getVertexCount(), mesh.getIndices().length / 3, mesh.getMemoryFootprint() / (1024.0 * 1024.0),
+                mesh.isOffHeap() ? "off the heap" : "on the heap"));
+        EngineObject model = new EngineObject(objFile.getName(), new Transform(), mesh, texture);
+        Vector4 center = model.getWorldBoundsMin().add(model.getWorldBoundsMax()).mul(0.5f);
+        float size = model.getWorldBoundsMax().sub(model.getWorldBoundsMin()).length();
+        if(distance <= 0)
+            distance = size;
+
+        List<EngineObject> renderObjects = new ArrayList<>();
+        renderObjects.add(model);
+        List<LightSource> lightSources = new ArrayList<>();
+        lightSources.add(new LightSource(
+                "Key light",
+                new Transform(center.add(new Vector4(distance * 2, distance, distance * 0.5f, 0))).lookAt(center, new Vector4(0,1,0)),
+                90, distance * 10, Color.WHITE, 0.9f));
+        lightSources.add(new LightSource(
+                "Fill light",
+                new Transform(center.add(new Vector4(0, distance * 0.5f, -distance, 0))).lookAt(center, new Vector4(0,1,0)),
+                90, distance * 10, Color.GRAY, 0.9f));
+
+        OffscreenRenderer renderer = new OffscreenRenderer(width, height);
+        renderer.setMode(mode);
+        renderer.setTiled(tiled);
+        renderer.setParallelGeometry(tiled);
+        renderer.setGuardBand(guardBand);
+        renderer.setProjection(60, distance * 0.01f, distance * 10);
+        renderer.setIllumination(DEFAULT_ZENITH_COLOR, DEFAULT_AMBIENTLIGHT_COLOR, DEFAULT_AMBIENTLIGHT_INTENSITY, DEFAULT_LIGHTMAP_RESOLUTION);
+        renderer.setRenderObjects(renderObjects);
+        renderer.setLightSources(lightSources);
+
+        ExecutorService ioPool = Executors.newFixedThreadPool(IO_THREADS);
+        BlockingQueue<BufferedImage> images = new ArrayBlockingQueue<>(FRAMES_IN_FLIGHT);
+        for(int i = 0; i < FRAMES_IN_FLIGHT; i++)
+            images.add(new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR));
+        AtomicReference<IOException> failedWrite = new AtomicReference<>();
+        String baseName = objFile.getName().replaceFirst("[.][^.]*$", "");
+        long renderTime = 0;
+        try{
+            for(int step = 0; step < steps && failedWrite.get() == null; step++){
+                double angle = 2 * Math.PI * step / steps;
+                Vector4 position = center.add(new Vector4(
+                        (float)Math.sin(angle) * distance, size * 0.25f, -(float)Math.cos(angle) * distance, 0));
+                renderer.setCameraTransform(new Transform(position).lookAt(center, new Vector4(0,1,0)));
+
+                BufferedImage image = images.take();
+                long frameStart = System.nanoTime();
+                renderer.render(new Bitmap(width, height, ((DataBufferByte)image.getRaster().getDataBuffer()).getData()));
+                renderTime += System.nanoTime() - frameStart;
+
+                File frameFile = new File(outDirectory, String.format("%s_%04d.png", baseName, step));
+                ioPool.execute(new Runnable(){
+                    @Override
+                    public void run() {
+                        try{
+                            if(failedWrite.get() == null)
+                                ImageIO.write(image, "png", frameFile);
+                        }
+                        catch(IOException | RuntimeException e){
+                            failedWrite.compareAndSet(null, new IOException("Can't write " + frameFile, e));
+                        }
+                        finally{
+                            images.add(image);
+                        }
+                    }
+                });
+            }
+            for(int i = 0; i < FRAMES_IN_FLIGHT; i++)
+                images.take();
+        }
+        finally{
+            ioPool.shutdown();
+            renderer.close();
+        }
+        if(failedWrite.get() != null)
+            throw failedWrite.get();
+        double wallSeconds = (System.nanoTime() - startTime) / 1e9;
+        double renderSeconds = renderTime / 1e9;
+        System.out.println(String.format(Locale.ROOT,
+                "Rendered %d frames of %s in %s mode at %dx%d: %.2f frames per second, %.3f s rendering, %.3f s wall time",
+                steps, objFile.getName(), mode, width, height, steps / renderSeconds, renderSeconds, wallSeconds));
+    }
+
+    /**
+    * Returns the texture read from File textureFile, or a plain DEFAULT_TEXTURE_COLOR texture if File textureFile is null
+    */
+    private static Bitmap readTexture(File textureFile) throws IOException {
+        if(textureFile == null){
+            Bitmap texture = new Bitmap(1, 1);
+            texture.clear(new byte[]{
+                (byte)DEFAULT_TEXTURE_COLOR.getBlue(), (byte)DEFAULT_TEXTURE_COLOR.getGreen(), (byte)DEFAULT_TEXTURE_COLOR.getRed()});
+            return texture;
+        }
+        if(!textureFile.isFile())
+            throw new IOException("Can't find the texture " + textureFile);
+        BufferedImage textureImage = ImageIO.read(textureFile);
+        if(textureImage == null)
+            throw new IOException("Can't read the texture " + textureFile);
+        return new Bitmap(textureImage);
+    }
+
+    private static String getValue(String[] args, int index){
+        if(index >= args.length)
+            throw new IllegalArgumentException("Option " + args[index - 1] + " needs a value");
+        return args[index];
+    }
+}
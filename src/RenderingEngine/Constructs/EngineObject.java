@@ -1,55 +1,275 @@
-package RenderingEngine.Constructs;
-
-import RenderingEngine.CoreComponents.Bitmap;
-
-/**
- * EngineObject is a 3D model representation of a mesh transformed by a Transform and textured with a Bitmap texture
- * 
- * @author Eero Lempiö el415524@student.uta.fi
- */
-public class EngineObject extends BaseObject{
-    private Mesh m_mesh;
-    private Bitmap m_texture;
-    private Vertex[] m_worldVertices;
-
-    public EngineObject(String name, Transform transform, Mesh mesh, Bitmap texture) {
-        super(name, transform);
-        m_mesh = mesh;
-        m_transform = transform;
-        m_texture = texture;
-        calculateWorldVertices();
-    }
-    
-    /**
-    * Returns this EngineObjects Mesh
-    */
-    public Mesh getMesh() {return m_mesh;}
-    
-    /**
-    * Returns this EngineObjects texture
-    */
-    public Bitmap getTexture() {return m_texture;}
-    
-    /**
-    * Returns the vertices of this EngineObjects Mesh, transformed by this EngineObjects tranform to world space
-    */
-    public Vertex[] getWorldVertices(){return m_worldVertices;}
-    
-    /**
-    * Sets this EngineObjects transform to Transform transform and recalculates its world space vertices
-    */
-    @Override
-    public void setTransform(Transform transform) {super.setTransform(transform); calculateWorldVertices();}
-    
-    /**
-    * Sets this EngineObjects texture to Bitmap texture
-    */
-    public void setTexture(Bitmap texture) {m_texture = texture;}
-    
-    /**
-    * Calculates this EngineObjects world space vertices
-    */
-    private void calculateWorldVertices(){
-        m_worldVertices = m_mesh.getTriangleVertices(m_transform.getTransformation(), m_transform.getTransformation());
-    }
-}
+package RenderingEngine.Constructs;
+
+import RenderingEngine.CoreComponents.Bitmap;
+import RenderingEngine.CoreComponents.Matrix4;
+import RenderingEngine.CoreComponents.Vector4;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * EngineObject is a 3D model representation of a mesh transformed by a Transform and textured with a Bitmap texture.
+ * The Mesh stays in model space and is transformed straight to clip space when it is drawn.
+ * The world space vertices are only calculated when they are asked for, and again after the Transform changes.
+ * 
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+public class EngineObject extends BaseObject{
+    /**
+    * CullMode enumeration denotes which faces of an EngineObject's triangles are left undrawn: the ones facing away from the camera,
+    * the ones facing towards it, or none, which makes the EngineObject double-sided
+    */
+    public static enum CullMode{
+        BACK, FRONT, NONE
+    }
+    
+    /**
+    * The most ClipSpaceVertices an EngineObject keeps after they are released, enough for the camera and a few LightSources to each find their own still transformed
+    */
+    private static final int MAX_CLIP_SPACE_BUFFERS = 4;
+    
+    private Mesh m_mesh;
+    private Bitmap m_texture;
+    private VertexBuffer m_worldVertices;
+    private Vector4 m_worldBoundsMin, m_worldBoundsMax;
+    private int m_geometryVersion;
+    private CullMode m_cullMode;
+    private final List<ClipSpaceVertices> m_clipSpaceVertices;
+
+    public EngineObject(String name, Transform transform, Mesh mesh, Bitmap texture) {
+        super(name, transform);
+        m_mesh = mesh;
+        m_transform = transform;
+        m_texture = texture;
+        m_geometryVersion = 0;
+        m_cullMode = CullMode.BACK;
+        m_clipSpaceVertices = new ArrayList<>();
+    }
+    
+    /**
+    * Returns this EngineObjects Mesh
+    */
+    public Mesh getMesh() {return m_mesh;}
+    
+    /**
+    * Returns this EngineObjects texture
+    */
+    public Bitmap getTexture() {return m_texture;}
+    
+    /**
+    * Returns this EngineObjects CullMode, which is BACK unless it has been set otherwise
+    */
+    public CullMode getCullMode() {return m_cullMode;}
+    
+    /**
+    * Returns the vertices of this EngineObjects Mesh, transformed by this EngineObjects tranform to world space
+    */
+    public Vertex[] getWorldVertices(){
+        VertexBuffer worldVertices = getWorldVertexBuffer();
+        int[] indices = m_mesh.getIndices();
+        Vertex[] vertices = new Vertex[indices.length];
+        for(int i = 0; i < vertices.length; i++)
+            vertices[i] = worldVertices.getVertex(indices[i]);
+        return vertices;
+    }
+    
+    /**
+    * Returns the VertexBuffer of the unique vertices of this EngineObjects Mesh, transformed by this EngineObjects tranform to world space.
+    * The triangles are formed by the indices of this EngineObjects Mesh. The vertices are calculated on the first call after the transform has changed
+    */
+    public synchronized VertexBuffer getWorldVertexBuffer(){
+        if(m_worldVertices == null)
+            calculateWorldVertices();
+        return m_worldVertices;
+    }
+    
+    /**
+    * Returns ClipSpaceVertices for transforming the vertices of this EngineObjects Mesh to clip space by Matrix4 modelViewProjection and Matrix4 normalTransform while it is drawn.
+    * Of the ClipSpaceVertices released earlier with releaseClipSpaceVertices, the ones already transformed by the same matrices at the current geometry version are returned first,
+    * so the vertices are only transformed again after the view or this EngineObject has changed, and otherwise the least recently released ones are refilled in place.
+    * Nobody else is given the returned ClipSpaceVertices before they are released again
+    */
+    public synchronized ClipSpaceVertices acquireClipSpaceVertices(Matrix4 modelViewProjection, Matrix4 normalTransform){
+        for(int i = m_clipSpaceVertices.size() - 1; i >= 0; i--)
+            if(m_clipSpaceVertices.get(i).isValid(modelViewProjection, normalTransform, m_geometryVersion))
+                return m_clipSpaceVertices.remove(i);
+        if(m_clipSpaceVertices.isEmpty())
+            return new ClipSpaceVertices(m_mesh.getVertexCount());
+        return m_clipSpaceVertices.remove(0);
+    }
+    
+    /**
+    * Returns ClipSpaceVertices vertices, given by acquireClipSpaceVertices, for reuse once they are no longer needed
+    */
+    public synchronized void releaseClipSpaceVertices(ClipSpaceVertices vertices){
+        m_clipSpaceVertices.add(vertices);
+        if(m_clipSpaceVertices.size() > MAX_CLIP_SPACE_BUFFERS)
+            m_clipSpaceVertices.remove(0);
+    }
+    
+    /**
+    * Returns the minimum corner of the axis aligned box containing this EngineObjects Mesh's bounding box transformed to world space
+    */
+    public synchronized Vector4 getWorldBoundsMin(){
+        if(m_worldBoundsMin == null)
+            calculateWorldBounds();
+        return m_worldBoundsMin;
+    }
+    
+    /**
+    * Returns the maximum corner of the axis aligned box containing this EngineObjects Mesh's bounding box transformed to world space
+    */
+    public synchronized Vector4 getWorldBoundsMax(){
+        if(m_worldBoundsMax == null)
+            calculateWorldBounds();
+        return m_worldBoundsMax;
+    }
+    
+    /**
+    * Returns the distance along the ray starting from Vector4 origin in the direction of Vector4 direction at which it first hits a triangle of this EngineObject,
+    * in lengths of direction, or Float.POSITIVE_INFINITY if it doesn't hit any. Both sides of the triangles are hit
+    */
+    public float intersectRay(Vector4 origin, Vector4 direction){
+        float[] positions = getWorldVertexBuffer().getPositions();
+        int[] indices = m_mesh.getIndices();
+        float ox = origin.getX(), oy = origin.getY(), oz = origin.getZ();
+        float dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
+        float nearest = Float.POSITIVE_INFINITY;
+        for(int i = 0; i + 2 < indices.length; i += 3){
+            int a = indices[i] * VertexBuffer.POSITION_SIZE;
+            int b = indices[i + 1] * VertexBuffer.POSITION_SIZE;
+            int c = indices[i + 2] * VertexBuffer.POSITION_SIZE;
+            float e1x = positions[b] - positions[a], e1y = positions[b + 1] - positions[a + 1], e1z = positions[b + 2] - positions[a + 2];
+            float e2x = positions[c] - positions[a], e2y = positions[c + 1] - positions[a + 1], e2z = positions[c + 2] - positions[a + 2];
+            float px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+            float determinant = e1x * px + e1y * py + e1z * pz;
+            if(determinant == 0)
+                continue;
+            float inverseDeterminant = 1 / determinant;
+            float sx = ox - positions[a], sy = oy - positions[a + 1], sz = oz - positions[a + 2];
+            float u = (sx * px + sy * py + sz * pz) * inverseDeterminant;
+            if(u < 0 || u > 1)
+                continue;
+            float qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+            float v = (dx * qx + dy * qy + dz * qz) * inverseDeterminant;
+            if(v < 0 || u + v > 1)
+                continue;
+            float distance = (e2x * qx + e2y * qy + e2z * qz) * inverseDeterminant;
+            if(distance >= 0 && distance < nearest)
+                nearest = distance;
+        }
+        return nearest;
+    }
+    
+    /**
+    * Returns a number that changes every time this EngineObjects world space vertices or CullMode change
+    */
+    public int getGeometryVersion(){return m_geometryVersion;}
+    
+    /**
+    * Sets this EngineObjects transform to Transform transform. The world space vertices are recalculated when they are next asked for
+    */
+    @Override
+    public synchronized void setTransform(Transform transform) {
+        super.setTransform(transform);
+        m_worldVertices = null;
+        m_worldBoundsMin = null;
+        m_worldBoundsMax = null;
+        m_geometryVersion++;
+    }
+    
+    /**
+    * Sets this EngineObjects CullMode to CullMode cullMode. The geometry version changes, since the drawn triangles change
+    */
+    public synchronized void setCullMode(CullMode cullMode) {
+        m_cullMode = cullMode;
+        m_geometryVersion++;
+        changed();
+    }
+    
+    /**
+    * Sets this EngineObjects texture to Bitmap texture
+    */
+    public void setTexture(Bitmap texture) {m_texture = texture; changed();}
+    
+    /**
+    * Calculates this EngineObjects world space vertices
+    */
+    private void calculateWorldVertices(){
+        m_worldVertices = m_mesh.getVertexBuffer(m_transform.getTransformation(), m_transform.getTransformation());
+    }
+    
+    /**
+    * Calculates the world space box containing the corners of this EngineObjects Mesh's bounding box, without transforming its vertices
+    */
+    private void calculateWorldBounds(){
+        Matrix4 transformation = m_transform.getTransformation();
+        Vector4 boundsMin = m_mesh.getBoundsMin();
+        Vector4 boundsMax = m_mesh.getBoundsMax();
+        float[] min = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+        float[] max = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        for(int i = 0; i < 8; i++){
+            Vector4 corner = transformation.transform(new Vector4(
+                    (i & 1) == 0 ? boundsMin.getX() : boundsMax.getX(),
+                    (i & 2) == 0 ? boundsMin.getY() : boundsMax.getY(),
+                    (i & 4) == 0 ? boundsMin.getZ() : boundsMax.getZ()));
+            float[] values = {corner.getX(), corner.getY(), corner.getZ()};
+            for(int j = 0; j < 3; j++){
+                min[j] = Math.min(min[j], values[j]);
+                max[j] = Math.max(max[j], values[j]);
+            }
+        }
+        m_worldBoundsMin = new Vector4(min[0], min[1], min[2]);
+        m_worldBoundsMax = new Vector4(max[0], max[1], max[2]);
+    }
+    
+    /**
+    * ClipSpaceVertices is a VertexBuffer of the vertices of an EngineObjects Mesh transformed to clip space, along with the matrices and the geometry version they were transformed at,
+    * so that they can be drawn again without transforming them as long as neither the view nor the EngineObject has changed
+    */
+    public static class ClipSpaceVertices{
+        private final VertexBuffer m_vertices;
+        private final float[] m_transforms;
+        private int m_geometryVersion;
+        private boolean m_valid;
+
+        private ClipSpaceVertices(int vertexCount) {
+            m_vertices = new VertexBuffer(vertexCount);
+            m_transforms = new float[32];
+            m_valid = false;
+        }
+        
+        /**
+        * Returns the VertexBuffer the transformed vertices are stored in
+        */
+        public VertexBuffer getVertices() {return m_vertices;}
+        
+        /**
+        * Returns true if the vertices have been transformed by Matrix4 modelViewProjection and Matrix4 normalTransform at geometry version int geometryVersion
+        */
+        public boolean isValid(Matrix4 modelViewProjection, Matrix4 normalTransform, int geometryVersion){
+            if(!m_valid || m_geometryVersion != geometryVersion)
+                return false;
+            for(int i = 0; i < 16; i++)
+                if(m_transforms[i] != modelViewProjection.get(i / 4, i % 4) || m_transforms[16 + i] != normalTransform.get(i / 4, i % 4))
+                    return false;
+            return true;
+        }
+        
+        /**
+        * Marks the vertices as no longer valid, before they are refilled
+        */
+        public void invalidate() {m_valid = false;}
+        
+        /**
+        * Marks the vertices as transformed by Matrix4 modelViewProjection and Matrix4 normalTransform at geometry version int geometryVersion, after they have been refilled
+        */
+        public void validate(Matrix4 modelViewProjection, Matrix4 normalTransform, int geometryVersion){
+            for(int i = 0; i < 16; i++){
+                m_transforms[i] = modelViewProjection.get(i / 4, i % 4);
+                m_transforms[16 + i] = normalTransform.get(i / 4, i % 4);
+            }
+            m_geometryVersion = geometryVersion;
+            m_valid = true;
+        }
+    }
+}
\ No newline at end of file
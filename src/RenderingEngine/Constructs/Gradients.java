@@ -1,80 +1,111 @@
-package RenderingEngine.Constructs;
-
-/**
- * Gradients represents a Triangle made of three vertices, and is used to interpolate values on the surface of this triangle based on these three vertices,
- * 
- * modified from <a href="https://github.com/BennyQBD/3DSoftwareRenderer/">BennyQBD's 3DSoftwareRenderer</a>
- * @author Eero Lempiö el415524@student.uta.fi
- */
-public class Gradients {
-    /*depth, oneOverZ, UVX, UVY, NormalX, NormalY, NormalZ, W*/
-    private float[][] m_values;
-
-    /*depthX, depthY, oneOverZX, oneOverZY, UVXX, UVXY, UVYX, UVYY,
-    NormalXX, NormalXY, NormalYX, NormalYY, NormalZX, NormalZY, WX, WY*/    
-    private float[] m_steps;
-
-    /**
-    * Creates a new Gradients object, representing a triangle made of vertices Vertex minYvert, Vertex midYvert, Vertex maxYvert
-    */
-    public Gradients(Vertex minYvert, Vertex midYvert, Vertex maxYvert) {
-        m_values = new float[8][3];
-        m_steps = new float[8 * 2];
-        float oneOverdX = 1f / 
-                (((midYvert.getPosition().getX() - maxYvert.getPosition().getX()) *
-                (minYvert.getPosition().getY() - maxYvert.getPosition().getY())) -
-                ((minYvert.getPosition().getX() - maxYvert.getPosition().getX()) *
-                (midYvert.getPosition().getY() - maxYvert.getPosition().getY())));
-        
-        Vertex[] verts = {minYvert, midYvert, maxYvert};
-        
-        for(int j = 0; j < 3; j++){
-            m_values[0][j] = verts[j].getPosition().getZ();
-            m_values[1][j] = 1f/verts[j].getPosition().getW();
-            m_values[2][j] = verts[j].getUVcoord().getX() * m_values[1][j];
-            m_values[3][j] = verts[j].getUVcoord().getY() * m_values[1][j];
-            m_values[4][j] = verts[j].getNormal().getX();
-            m_values[5][j] = verts[j].getNormal().getY();
-            m_values[6][j] = verts[j].getNormal().getZ();
-            m_values[7][j] = verts[j].getPosition().getW();
-        }
-        for(int i = 0; i < m_values.length; i++){
-            m_steps[i * 2] = calcXStep(m_values[i], minYvert, midYvert, maxYvert, oneOverdX);
-            m_steps[i * 2 + 1] = calcYStep(m_values[i], minYvert, midYvert, maxYvert, -oneOverdX);
-        }
-    }    
-    
-    /**
-    * Returns a value representing either Depth, oneOverZ, UVX, UVY, NormalX, NormalY, NormalZ or W of based on int i of Vertex j, 
-    * in order Vertex minYvert, Vertex midYvert, Vertex maxYvert
-    */
-    public float getValue(int i, int j){return m_values[i][j];}
-    
-    /**
-    * Returns a value representing how much to step either Depth, oneOverZ, UVX, UVY, NormalX, NormalY, NormalZ or W and in which direction, X or Y, based on int i.
-    * Steps are depthX, depthY, oneOverZX, oneOverZY, UVXX, UVXY, UVYX, UVYY, NormalXX, NormalXY, NormalYX, NormalYY, NormalZX, NormalZY, WX, WY
-    */
-    public float getStep(int i){return m_steps[i];}
-    
-    /**
-    * Calculates the X step of float[] values, based on Vertex minYvert, Vertex midYvert, Vertex maxYvert, float oneOverdX
-    */
-    private float calcXStep(float[] values, Vertex minYvert, Vertex midYvert, Vertex maxYvert, float oneOverdX){
-        return (((values[1] - (values[2])) *
-                (minYvert.getPosition().getY() - maxYvert.getPosition().getY())) -
-                ((values[0] - (values[2])) *
-                (midYvert.getPosition().getY() - maxYvert.getPosition().getY()))) *
-                oneOverdX;
-    }
-    
-    /**
-    * Calculates the Y step of float[] values, based on Vertex minYvert, Vertex midYvert, Vertex maxYvert, float oneOverdX
-    */
-    private float calcYStep(float[] values, Vertex minYvert, Vertex midYvert, Vertex maxYvert, float oneOverdY){
-        return (((values[1] - (values[2])) *
-                (minYvert.getPosition().getX() - maxYvert.getPosition().getX())) -
-                ((values[0] - (values[2])) *
-                (midYvert.getPosition().getX() - maxYvert.getPosition().getX()))) *
-                oneOverdY;
-    }
+package RenderingEngine.Constructs;
+
+/**
+ * Gradients represents a Triangle made of three vertices, and is used to interpolate values on the surface of this triangle based on these three vertices,
+ * 
+ * modified from <a href="https://github.com/BennyQBD/3DSoftwareRenderer/">BennyQBD's 3DSoftwareRenderer</a>
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+public class Gradients {
+    /*depth, oneOverZ, UVX, UVY, NormalX, NormalY, NormalZ, W, three floats each, one per vertex*/
+    private final float[] m_values;
+
+    /*depthX, depthY, oneOverZX, oneOverZY, UVXX, UVXY, UVYX, UVYY,
+    NormalXX, NormalXY, NormalYX, NormalYY, NormalZX, NormalZY, WX, WY*/    
+    private final float[] m_steps;
+
+    /**
+    * Creates a new Gradients object, representing a triangle made of vertices Vertex minYvert, Vertex midYvert, Vertex maxYvert
+    */
+    public Gradients(Vertex minYvert, Vertex midYvert, Vertex maxYvert) {
+        this(new VertexBuffer(minYvert, midYvert, maxYvert), 0, 1, 2);
+    }
+    
+    /**
+    * Creates a new Gradients object, representing a triangle made of vertices int minYvert, int midYvert, int maxYvert of VertexBuffer vertices
+    */
+    public Gradients(VertexBuffer vertices, int minYvert, int midYvert, int maxYvert) {
+        this();
+        set(vertices, minYvert, midYvert, maxYvert);
+    }
+    
+    /**
+    * Creates a new Gradients object with every value and step 0, to be set to a triangle with set
+    */
+    public Gradients() {
+        m_values = new float[8 * 3];
+        m_steps = new float[8 * 2];
+    }
+    
+    /**
+    * Sets this Gradients object to represent the triangle made of vertices int minYvert, int midYvert, int maxYvert of VertexBuffer vertices,
+    * so that a single Gradients object can be reused for every triangle whose Edges are calculated on a thread
+    */
+    public void set(VertexBuffer vertices, int minYvert, int midYvert, int maxYvert) {
+        float[] positions = vertices.getPositions();
+        float[] UVcoords = vertices.getUVcoords();
+        float[] normals = vertices.getNormals();
+        float minX = vertices.get(minYvert, 0), minY = vertices.get(minYvert, 1);
+        float midX = vertices.get(midYvert, 0), midY = vertices.get(midYvert, 1);
+        float maxX = vertices.get(maxYvert, 0), maxY = vertices.get(maxYvert, 1);
+        float oneOverdX = 1f / 
+                (((midX - maxX) *
+                (minY - maxY)) -
+                ((minX - maxX) *
+                (midY - maxY)));
+        
+        for(int j = 0; j < 3; j++){
+            int vertex = j == 0 ? minYvert : j == 1 ? midYvert : maxYvert;
+            int p = vertex * VertexBuffer.POSITION_SIZE;
+            int t = vertex * VertexBuffer.UVCOORD_SIZE;
+            int n = vertex * VertexBuffer.NORMAL_SIZE;
+            float oneOverZ = 1f/positions[p + 3];
+            m_values[j] = positions[p + 2];
+            m_values[3 + j] = oneOverZ;
+            m_values[6 + j] = UVcoords[t] * oneOverZ;
+            m_values[9 + j] = UVcoords[t + 1] * oneOverZ;
+            m_values[12 + j] = normals[n];
+            m_values[15 + j] = normals[n + 1];
+            m_values[18 + j] = normals[n + 2];
+            m_values[21 + j] = positions[p + 3];
+        }
+        for(int i = 0; i < 8; i++){
+            m_steps[i * 2] = calcXStep(i * 3, minY, midY, maxY, oneOverdX);
+            m_steps[i * 2 + 1] = calcYStep(i * 3, minX, midX, maxX, -oneOverdX);
+        }
+    }    
+    
+    /**
+    * Returns a value representing either Depth, oneOverZ, UVX, UVY, NormalX, NormalY, NormalZ or W of based on int i of Vertex j, 
+    * in order Vertex minYvert, Vertex midYvert, Vertex maxYvert
+    */
+    public float getValue(int i, int j){return m_values[i * 3 + j];}
+    
+    /**
+    * Returns a value representing how much to step either Depth, oneOverZ, UVX, UVY, NormalX, NormalY, NormalZ or W and in which direction, X or Y, based on int i.
+    * Steps are depthX, depthY, oneOverZX, oneOverZY, UVXX, UVXY, UVYX, UVYY, NormalXX, NormalXY, NormalYX, NormalYY, NormalZX, NormalZY, WX, WY
+    */
+    public float getStep(int i){return m_steps[i];}
+    
+    /**
+    * Calculates the X step of the three values starting from int offset, based on the Y coordinates float minY, float midY, float maxY of the triangles vertices and float oneOverdX
+    */
+    private float calcXStep(int offset, float minY, float midY, float maxY, float oneOverdX){
+        return (((m_values[offset + 1] - (m_values[offset + 2])) *
+                (minY - maxY)) -
+                ((m_values[offset] - (m_values[offset + 2])) *
+                (midY - maxY))) *
+                oneOverdX;
+    }
+    
+    /**
+    * Calculates the Y step of the three values starting from int offset, based on the X coordinates float minX, float midX, float maxX of the triangles vertices and float oneOverdY
+    */
+    private float calcYStep(int offset, float minX, float midX, float maxX, float oneOverdY){
+        return (((m_values[offset + 1] - (m_values[offset + 2])) *
+                (minX - maxX)) -
+                ((m_values[offset] - (m_values[offset + 2])) *
+                (midX - maxX))) *
+                oneOverdY;
+    }
 }
\ No newline at end of file
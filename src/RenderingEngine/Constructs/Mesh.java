@@ -1,32 +1,251 @@
-package RenderingEngine.Constructs;
-
-import RenderingEngine.CoreComponents.Matrix4;
-import java.util.List;
-
-/**
- * Mesh is a 3D model with its geometry represented by a List of Vertex vertices
- * 
- * @author Eero Lempiö el415524@student.uta.fi
- */
-public class Mesh {
-    private final List<Vertex> m_vertices;
-    private final List<Integer> m_indices;
-
-    /**
-    * Creates a new Mesh with its vertices set to List vertices and indices to List indices. Indices are Integers, representing which 3 vertices form a triangle
-    */
-    public Mesh(List<Vertex> vertices, List<Integer> indices) {
-        m_vertices = vertices;
-        m_indices = indices;
-    }
-
-    /**
-    * Returns an array of vertices, representing the triangles making up this Mesh, transformed by Matrix4 transform and Matrix4 normalTransform
-    */
-    public Vertex[] getTriangleVertices(Matrix4 transform, Matrix4 normalTransform){
-        Vertex[] vertices = new Vertex[m_indices.size()];
-        for(int i = 0; i < m_indices.size(); i++)
-            vertices[i] = m_vertices.get(m_indices.get(i)).transform(transform, normalTransform);
-        return vertices;
-    }
-}
+package RenderingEngine.Constructs;
+
+import RenderingEngine.CoreComponents.Matrix4;
+import RenderingEngine.CoreComponents.Vector4;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.List;
+
+/**
+ * Mesh is a 3D model with its geometry stored as contiguous primitive attributes indexed by an int array.
+ * Positions and normals are stored as three floats (x, y, z) per vertex and texture coordinates as two floats (x, y) per vertex.
+ * Positions are points with an implied w of 1 and normals directions with an implied w of 0.
+ * The attributes are kept either in float arrays on the heap or in direct memory outside of the heap, see toOffHeap.
+ * The axis aligned box and the sphere bounding the positions are calculated when the Mesh is created, for culling it without touching its vertices.
+ *
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+public class Mesh {
+    public static final int POSITION_SIZE = 3;
+    public static final int UVCOORD_SIZE = 2;
+    public static final int NORMAL_SIZE = 3;
+
+    private final FloatBuffer m_positions, m_UVcoords, m_normals;
+    private final int m_vertexCount;
+    private final int[] m_indices;
+    private final Vector4 m_boundsMin, m_boundsMax, m_boundingSphereCenter;
+    private final float m_boundingSphereRadius;
+
+    /**
+    * Creates a new Mesh with its vertices set to List vertices and indices to List indices. Indices are Integers, representing which 3 vertices form a triangle
+    */
+    public Mesh(List<Vertex> vertices, List<Integer> indices) {
+        this(pack(vertices, POSITION_SIZE, 0), pack(vertices, UVCOORD_SIZE, 1), pack(vertices, NORMAL_SIZE, 2), new int[indices.size()]);
+        for(int i = 0; i < m_indices.length; i++)
+            m_indices[i] = indices.get(i);
+    }
+
+    /**
+    * Creates a new Mesh with its attributes set to float[] positions, float[] UVcoords and float[] normals, laid out as POSITION_SIZE, UVCOORD_SIZE
+    * and NORMAL_SIZE floats per vertex, and its indices to int[] indices. The arrays are used without copying them
+    */
+    public Mesh(float[] positions, float[] UVcoords, float[] normals, int[] indices) {
+        this(FloatBuffer.wrap(positions), FloatBuffer.wrap(UVcoords), FloatBuffer.wrap(normals), indices);
+    }
+
+    private Mesh(FloatBuffer positions, FloatBuffer UVcoords, FloatBuffer normals, int[] indices) {
+        m_vertexCount = positions.capacity() / POSITION_SIZE;
+        if(positions.capacity() != m_vertexCount * POSITION_SIZE || UVcoords.capacity() != m_vertexCount * UVCOORD_SIZE || normals.capacity() != m_vertexCount * NORMAL_SIZE)
+            throw new IllegalArgumentException("The attributes don't hold the same amount of vertices");
+        m_positions = positions;
+        m_UVcoords = UVcoords;
+        m_normals = normals;
+        m_indices = indices;
+        
+        float[] min = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+        float[] max = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        for(int i = 0; i < m_vertexCount * POSITION_SIZE; i++){
+            min[i % 3] = Math.min(min[i % 3], positions.get(i));
+            max[i % 3] = Math.max(max[i % 3], positions.get(i));
+        }
+        if(m_vertexCount == 0){
+            min = new float[3];
+            max = new float[3];
+        }
+        m_boundsMin = new Vector4(min[0], min[1], min[2]);
+        m_boundsMax = new Vector4(max[0], max[1], max[2]);
+        m_boundingSphereCenter = m_boundsMin.add(m_boundsMax).mul(0.5f);
+        float radiusSquared = 0;
+        for(int i = 0; i < m_vertexCount; i++){
+            float x = positions.get(i * 3) - m_boundingSphereCenter.getX();
+            float y = positions.get(i * 3 + 1) - m_boundingSphereCenter.getY();
+            float z = positions.get(i * 3 + 2) - m_boundingSphereCenter.getZ();
+            radiusSquared = Math.max(radiusSquared, x*x + y*y + z*z);
+        }
+        m_boundingSphereRadius = (float)Math.sqrt(radiusSquared);
+    }
+
+    /**
+    * Returns a copy of this Mesh with its attributes stored in direct memory outside of the heap, where they don't add to garbage collection work.
+    * The indices are shared with this Mesh
+    */
+    public Mesh toOffHeap() {
+        return new Mesh(copyOffHeap(m_positions), copyOffHeap(m_UVcoords), copyOffHeap(m_normals), m_indices);
+    }
+
+    /**
+    * Returns true if the attributes of this Mesh are stored outside of the heap
+    */
+    public boolean isOffHeap() {return m_positions.isDirect();}
+
+    /**
+    * Returns the amount of bytes the attributes and indices of this Mesh take, excluding object headers
+    */
+    public long getMemoryFootprint() {
+        return ((long)m_positions.capacity() + m_UVcoords.capacity() + m_normals.capacity()) * Float.BYTES + (long)m_indices.length * Integer.BYTES;
+    }
+
+    /**
+    * Returns the minimum corner of the axis aligned box containing the positions of this Mesh in model space
+    */
+    public Vector4 getBoundsMin() {return m_boundsMin;}
+    
+    /**
+    * Returns the maximum corner of the axis aligned box containing the positions of this Mesh in model space
+    */
+    public Vector4 getBoundsMax() {return m_boundsMax;}
+    
+    /**
+    * Returns the center of the sphere containing the positions of this Mesh in model space, which is the center of its axis aligned box
+    */
+    public Vector4 getBoundingSphereCenter() {return m_boundingSphereCenter;}
+    
+    /**
+    * Returns the radius of the sphere containing the positions of this Mesh in model space
+    */
+    public float getBoundingSphereRadius() {return m_boundingSphereRadius;}
+
+    /**
+    * Returns the amount of unique vertices in this Mesh
+    */
+    public int getVertexCount() {return m_vertexCount;}
+
+    /**
+    * Returns the indices of this Mesh, where every 3 indices denote the vertices forming a triangle
+    */
+    public int[] getIndices(){return m_indices;}
+
+    /**
+    * Returns a read only view of the positions of this Mesh, POSITION_SIZE floats per vertex
+    */
+    public FloatBuffer getPositions(){return m_positions.asReadOnlyBuffer();}
+
+    /**
+    * Returns a read only view of the texture coordinates of this Mesh, UVCOORD_SIZE floats per vertex
+    */
+    public FloatBuffer getUVcoords(){return m_UVcoords.asReadOnlyBuffer();}
+
+    /**
+    * Returns a read only view of the normals of this Mesh, NORMAL_SIZE floats per vertex
+    */
+    public FloatBuffer getNormals(){return m_normals.asReadOnlyBuffer();}
+
+    /**
+    * Returns a VertexBuffer of the unique vertices of this Mesh in model space, indexed by this Mesh's indices
+    */
+    public VertexBuffer getVertexBuffer(){
+        VertexBuffer vertices = new VertexBuffer(m_vertexCount);
+        for(int i = 0; i < m_vertexCount; i++)
+            addVertex(vertices, i);
+        return vertices;
+    }
+    
+    /**
+    * Returns a VertexBuffer of the unique vertices of this Mesh, transformed by Matrix4 transform and Matrix4 normalTransform and indexed by this Mesh's indices
+    */
+    public VertexBuffer getVertexBuffer(Matrix4 transform, Matrix4 normalTransform){
+        VertexBuffer vertices = new VertexBuffer(m_vertexCount);
+        getVertexBuffer(vertices, transform, normalTransform);
+        return vertices;
+    }
+    
+    /**
+    * Refills VertexBuffer vertices in place with the unique vertices of this Mesh, transformed by Matrix4 transform and Matrix4 normalTransform and indexed by this Mesh's indices.
+    * The arrays of the VertexBuffer only grow if they are too small for this Mesh
+    */
+    public void getVertexBuffer(VertexBuffer vertices, Matrix4 transform, Matrix4 normalTransform){
+        vertices.setSize(m_vertexCount);
+        getVertexBuffer(vertices, transform, normalTransform, 0, m_vertexCount);
+    }
+    
+    /**
+    * Stores the vertices of this Mesh from int start up to but not including int end, transformed by Matrix4 transform and Matrix4 normalTransform,
+    * to the same indices of VertexBuffer vertices, which must already be large enough. Separate ranges can be stored from different threads at the same time
+    */
+    public void getVertexBuffer(VertexBuffer vertices, Matrix4 transform, Matrix4 normalTransform, int start, int end){
+        for(int i = start; i < end; i++){
+            setVertex(vertices, i);
+            vertices.transform(i, transform, normalTransform);
+        }
+    }
+
+    /**
+    * Returns an array of vertices, representing the triangles making up this Mesh, transformed by Matrix4 transform and Matrix4 normalTransform
+    */
+    public Vertex[] getTriangleVertices(Matrix4 transform, Matrix4 normalTransform){
+        VertexBuffer triangleVertices = getTriangleVertexBuffer(transform, normalTransform);
+        Vertex[] vertices = new Vertex[triangleVertices.size()];
+        for(int i = 0; i < vertices.length; i++)
+            vertices[i] = triangleVertices.getVertex(i);
+        return vertices;
+    }
+
+    /**
+    * Returns a VertexBuffer, representing the triangles making up this Mesh, transformed by Matrix4 transform and Matrix4 normalTransform
+    */
+    public VertexBuffer getTriangleVertexBuffer(Matrix4 transform, Matrix4 normalTransform){
+        VertexBuffer vertices = new VertexBuffer(m_indices.length);
+        for(int i = 0; i < m_indices.length; i++)
+            vertices.transform(addVertex(vertices, m_indices[i]), transform, normalTransform);
+        return vertices;
+    }
+
+    /**
+    * Adds vertex int index of this Mesh to the end of VertexBuffer vertices with the w components of its position and normal restored, and returns its index there
+    */
+    private int addVertex(VertexBuffer vertices, int index){
+        int p = index * POSITION_SIZE;
+        int t = index * UVCOORD_SIZE;
+        int n = index * NORMAL_SIZE;
+        return vertices.add(
+                m_positions.get(p), m_positions.get(p + 1), m_positions.get(p + 2), 1,
+                m_UVcoords.get(t), m_UVcoords.get(t + 1),
+                m_normals.get(n), m_normals.get(n + 1), m_normals.get(n + 2), 0);
+    }
+
+    /**
+    * Replaces vertex int index of VertexBuffer vertices with vertex int index of this Mesh, with the w components of its position and normal restored
+    */
+    private void setVertex(VertexBuffer vertices, int index){
+        int p = index * POSITION_SIZE;
+        int t = index * UVCOORD_SIZE;
+        int n = index * NORMAL_SIZE;
+        vertices.set(index,
+                m_positions.get(p), m_positions.get(p + 1), m_positions.get(p + 2), 1,
+                m_UVcoords.get(t), m_UVcoords.get(t + 1),
+                m_normals.get(n), m_normals.get(n + 1), m_normals.get(n + 2), 0);
+    }
+
+    /**
+    * Returns int size components per vertex of attribute int attribute of List vertices, 0 being the position, 1 the texture coordinate and 2 the normal
+    */
+    private static float[] pack(List<Vertex> vertices, int size, int attribute){
+        float[] values = new float[vertices.size() * size];
+        for(int i = 0; i < vertices.size(); i++){
+            Vertex v = vertices.get(i);
+            Vector4 value = attribute == 0 ? v.getPosition() : attribute == 1 ? v.getUVcoord() : v.getNormal();
+            values[i * size] = value.getX();
+            values[i * size + 1] = value.getY();
+            if(size == 3)
+                values[i * size + 2] = value.getZ();
+        }
+        return values;
+    }
+
+    private static FloatBuffer copyOffHeap(FloatBuffer source){
+        FloatBuffer copy = ByteBuffer.allocateDirect(source.capacity() * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        copy.put(source.duplicate().clear());
+        return copy.clear();
+    }
+}
@@ -0,0 +1,264 @@
+package RenderingEngine.Constructs;
+
+import RenderingEngine.CoreComponents.Matrix4;
+import RenderingEngine.CoreComponents.Vector4;
+import java.util.Arrays;
+
+/**
+ * VertexBuffer stores vertices as primitive float arrays, one array per attribute, so that they can be transformed and clipped in place without creating new objects.
+ * Positions and normals are stored as four floats (x, y, z, w) per vertex and texture coordinates as two floats (x, y) per vertex.
+ * 
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+public class VertexBuffer {
+    public static final int POSITION_SIZE = 4;
+    public static final int UVCOORD_SIZE = 2;
+    public static final int NORMAL_SIZE = 4;
+    
+    private float[] m_positions, m_UVcoords, m_normals;
+    private int m_size;
+    
+    /**
+    * Creates an empty VertexBuffer with room for int capacity vertices before it has to grow
+    */
+    public VertexBuffer(int capacity) {
+        m_positions = new float[capacity * POSITION_SIZE];
+        m_UVcoords = new float[capacity * UVCOORD_SIZE];
+        m_normals = new float[capacity * NORMAL_SIZE];
+        m_size = 0;
+    }
+    
+    /**
+    * Creates a VertexBuffer containing Vertex[] vertices in order
+    */
+    public VertexBuffer(Vertex... vertices) {
+        this(vertices.length);
+        for(Vertex v : vertices)
+            add(v);
+    }
+    
+    /**
+    * Creates a VertexBuffer containing a copy of every vertex of VertexBuffer source
+    */
+    public VertexBuffer(VertexBuffer source) {
+        m_positions = Arrays.copyOf(source.m_positions, source.m_size * POSITION_SIZE);
+        m_UVcoords = Arrays.copyOf(source.m_UVcoords, source.m_size * UVCOORD_SIZE);
+        m_normals = Arrays.copyOf(source.m_normals, source.m_size * NORMAL_SIZE);
+        m_size = source.m_size;
+    }
+    
+    /**
+    * Returns the amount of vertices in this VertexBuffer
+    */
+    public int size() {return m_size;}
+    
+    /**
+    * Returns the positions of this VertexBuffer, four floats per vertex
+    */
+    public float[] getPositions() {return m_positions;}
+    
+    /**
+    * Returns the texture coordinates of this VertexBuffer, two floats per vertex
+    */
+    public float[] getUVcoords() {return m_UVcoords;}
+    
+    /**
+    * Returns the normals of this VertexBuffer, four floats per vertex
+    */
+    public float[] getNormals() {return m_normals;}
+    
+    /**
+    * Returns a component from the position of vertex int index. Component 0 gets X, 1 Y, 2 Z and 3 W
+    */
+    public float get(int index, int component) {return m_positions[index * POSITION_SIZE + component];}
+    
+    /**
+    * Returns a new Vertex representing vertex int index of this VertexBuffer
+    */
+    public Vertex getVertex(int index) {
+        int p = index * POSITION_SIZE;
+        int t = index * UVCOORD_SIZE;
+        int n = index * NORMAL_SIZE;
+        return new Vertex(
+                new Vector4(m_positions[p], m_positions[p + 1], m_positions[p + 2], m_positions[p + 3]),
+                new Vector4(m_UVcoords[t], m_UVcoords[t + 1], 0, 0),
+                new Vector4(m_normals[n], m_normals[n + 1], m_normals[n + 2], m_normals[n + 3]));
+    }
+    
+    /**
+    * Removes all vertices from this VertexBuffer, keeping its capacity
+    */
+    public void clear() {m_size = 0;}
+    
+    /**
+    * Sets the amount of vertices in this VertexBuffer to int size, growing the arrays only if they don't have room for them.
+    * The vertices past the old size are left as they were, and have to be set before they are used
+    */
+    public void setSize(int size) {
+        if(size * POSITION_SIZE > m_positions.length){
+            m_positions = Arrays.copyOf(m_positions, size * POSITION_SIZE);
+            m_UVcoords = Arrays.copyOf(m_UVcoords, size * UVCOORD_SIZE);
+            m_normals = Arrays.copyOf(m_normals, size * NORMAL_SIZE);
+        }
+        m_size = size;
+    }
+    
+    /**
+    * Adds Vertex v to the end of this VertexBuffer and returns its index
+    */
+    public int add(Vertex v) {
+        int index = grow();
+        int p = index * POSITION_SIZE;
+        int t = index * UVCOORD_SIZE;
+        int n = index * NORMAL_SIZE;
+        m_positions[p] = v.getPosition().getX();
+        m_positions[p + 1] = v.getPosition().getY();
+        m_positions[p + 2] = v.getPosition().getZ();
+        m_positions[p + 3] = v.getPosition().getW();
+        m_UVcoords[t] = v.getUVcoord().getX();
+        m_UVcoords[t + 1] = v.getUVcoord().getY();
+        m_normals[n] = v.getNormal().getX();
+        m_normals[n + 1] = v.getNormal().getY();
+        m_normals[n + 2] = v.getNormal().getZ();
+        m_normals[n + 3] = v.getNormal().getW();
+        return index;
+    }
+    
+    /**
+    * Adds the vertex with the position (float x, float y, float z, float w), the texture coordinate (float u, float v)
+    * and the normal (float nx, float ny, float nz, float nw) to the end of this VertexBuffer and returns its index
+    */
+    public int add(float x, float y, float z, float w, float u, float v, float nx, float ny, float nz, float nw) {
+        int index = grow();
+        set(index, x, y, z, w, u, v, nx, ny, nz, nw);
+        return index;
+    }
+    
+    /**
+    * Replaces vertex int index of this VertexBuffer with the vertex with the position (float x, float y, float z, float w), the texture coordinate (float u, float v)
+    * and the normal (float nx, float ny, float nz, float nw)
+    */
+    public void set(int index, float x, float y, float z, float w, float u, float v, float nx, float ny, float nz, float nw) {
+        int p = index * POSITION_SIZE;
+        int t = index * UVCOORD_SIZE;
+        int n = index * NORMAL_SIZE;
+        m_positions[p] = x;
+        m_positions[p + 1] = y;
+        m_positions[p + 2] = z;
+        m_positions[p + 3] = w;
+        m_UVcoords[t] = u;
+        m_UVcoords[t + 1] = v;
+        m_normals[n] = nx;
+        m_normals[n + 1] = ny;
+        m_normals[n + 2] = nz;
+        m_normals[n + 3] = nw;
+    }
+    
+    /**
+    * Adds a copy of vertex int index of VertexBuffer source to the end of this VertexBuffer and returns its index
+    */
+    public int add(VertexBuffer source, int index) {
+        int result = grow();
+        System.arraycopy(source.m_positions, index * POSITION_SIZE, m_positions, result * POSITION_SIZE, POSITION_SIZE);
+        System.arraycopy(source.m_UVcoords, index * UVCOORD_SIZE, m_UVcoords, result * UVCOORD_SIZE, UVCOORD_SIZE);
+        System.arraycopy(source.m_normals, index * NORMAL_SIZE, m_normals, result * NORMAL_SIZE, NORMAL_SIZE);
+        return result;
+    }
+    
+    /**
+    * Adds the interpolation between vertex int from and vertex int to of VertexBuffer source by float lerpAmount to the end of this VertexBuffer and returns its index
+    */
+    public int addLerp(VertexBuffer source, int from, int to, float lerpAmount) {
+        int result = grow();
+        lerp(source.m_positions, from, to, m_positions, result, POSITION_SIZE, lerpAmount);
+        lerp(source.m_UVcoords, from, to, m_UVcoords, result, UVCOORD_SIZE, lerpAmount);
+        lerp(source.m_normals, from, to, m_normals, result, NORMAL_SIZE, lerpAmount);
+        return result;
+    }
+    
+    /**
+    * Transforms the position of vertex int index by Matrix4 transform and its normal by Matrix4 normalTransform, normalizing the normal
+    */
+    public void transform(int index, Matrix4 transform, Matrix4 normalTransform) {
+        int p = index * POSITION_SIZE;
+        int n = index * NORMAL_SIZE;
+        transform.transform(m_positions, p, m_positions, p);
+        normalTransform.transform(m_normals, n, m_normals, n);
+        float x = m_normals[n];
+        float y = m_normals[n + 1];
+        float z = m_normals[n + 2];
+        float w = m_normals[n + 3];
+        float length = (float)Math.sqrt(x*x + y*y + z*z + w*w);
+        m_normals[n] = x/length;
+        m_normals[n + 1] = y/length;
+        m_normals[n + 2] = z/length;
+        m_normals[n + 3] = w/length;
+    }
+    
+    /**
+    * Negates the x, y and z components of the normal of vertex int index, turning it to face the other side of its triangle
+    */
+    public void flipNormal(int index) {
+        int n = index * NORMAL_SIZE;
+        m_normals[n] = -m_normals[n];
+        m_normals[n + 1] = -m_normals[n + 1];
+        m_normals[n + 2] = -m_normals[n + 2];
+    }
+    
+    /**
+    * Divides the position components except w of vertex int index by its w component
+    */
+    public void perspectiveDivide(int index) {
+        int p = index * POSITION_SIZE;
+        float w = m_positions[p + 3];
+        m_positions[p] = m_positions[p]/w;
+        m_positions[p + 1] = m_positions[p + 1]/w;
+        m_positions[p + 2] = m_positions[p + 2]/w;
+    }
+    
+    /**
+    * Returns the area denoted by vertex int a, vertex int b and vertex int c
+    */
+    public float triangleArea(int a, int b, int c) {
+        float x = m_positions[a * POSITION_SIZE];
+        float y = m_positions[a * POSITION_SIZE + 1];
+        return
+            ((m_positions[b * POSITION_SIZE] - x) * (m_positions[c * POSITION_SIZE + 1] - y) - 
+            (m_positions[c * POSITION_SIZE] - x) * (m_positions[b * POSITION_SIZE + 1] - y))/2;
+    }
+    
+    /**
+    * Returns true if the position of vertex int index is inside the view frustum denoted by its w component
+    */
+    public boolean isInsideViewFrustum(int index) {
+        int p = index * POSITION_SIZE;
+        float w = Math.abs(m_positions[p + 3]);
+        return
+            Math.abs(m_positions[p]) <= w &&
+            Math.abs(m_positions[p + 1]) <= w &&
+            Math.abs(m_positions[p + 2]) <= w;
+    }
+    
+    /**
+    * Reserves room for one more vertex and returns its index, growing the arrays if this VertexBuffer is full
+    */
+    private int grow() {
+        if(m_size * POSITION_SIZE == m_positions.length){
+            int capacity = Math.max(m_size * 2, 1);
+            m_positions = Arrays.copyOf(m_positions, capacity * POSITION_SIZE);
+            m_UVcoords = Arrays.copyOf(m_UVcoords, capacity * UVCOORD_SIZE);
+            m_normals = Arrays.copyOf(m_normals, capacity * NORMAL_SIZE);
+        }
+        return m_size++;
+    }
+    
+    /**
+    * Interpolates int size components of float[] source between vertex int from and vertex int to by float lerpAmount, storing them to vertex int result of float[] destination
+    */
+    private static void lerp(float[] source, int from, int to, float[] destination, int result, int size, float lerpAmount) {
+        for(int i = 0; i < size; i++){
+            float start = source[from * size + i];
+            destination[result * size + i] = (source[to * size + i] - start) * lerpAmount + start;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package RenderingEngine.CoreComponents;
+
+/**
+ * OctahedralNormal encodes normals to a single int and decodes them back.
+ * The normal is projected onto an octahedron, the lower half of the octahedron is folded over the upper half,
+ * and the two remaining coordinates are stored as 16 bit fixed point values
+ *
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+public final class OctahedralNormal {
+    private OctahedralNormal() {}
+
+    /**
+    * Returns the normal (float x, float y, float z) encoded to a single int
+    */
+    public static int encode(float x, float y, float z) {
+        float length = Math.abs(x) + Math.abs(y) + Math.abs(z);
+        if(length == 0)
+            return encodeOctahedron(0, 0);
+        float u = x / length;
+        float v = y / length;
+        if(z < 0){
+            float foldedU = (1 - Math.abs(v)) * signum(u);
+            v = (1 - Math.abs(u)) * signum(v);
+            u = foldedU;
+        }
+        return encodeOctahedron(u, v);
+    }
+
+    /**
+    * Decodes the normal int encoded, encoded by encode, to float[] result as a normalized (x, y, z)
+    */
+    public static void decode(int encoded, float[] result) {
+        float u = (encoded >>> 16) / 65535f * 2 - 1;
+        float v = (encoded & 0xFFFF) / 65535f * 2 - 1;
+        float z = 1 - Math.abs(u) - Math.abs(v);
+        if(z < 0){
+            float unfoldedU = (1 - Math.abs(v)) * signum(u);
+            v = (1 - Math.abs(u)) * signum(v);
+            u = unfoldedU;
+        }
+        float length = (float)Math.sqrt(u*u + v*v + z*z);
+        result[0] = u / length;
+        result[1] = v / length;
+        result[2] = z / length;
+    }
+
+    private static int encodeOctahedron(float u, float v) {
+        int encodedU = (int)((u * 0.5f + 0.5f) * 65535 + 0.5f);
+        int encodedV = (int)((v * 0.5f + 0.5f) * 65535 + 0.5f);
+        return encodedU << 16 | encodedV;
+    }
+
+    private static float signum(float value) {
+        return value < 0 ? -1 : 1;
+    }
+}
@@ -0,0 +1,431 @@
+package RenderingEngine.Rendering;
+
+import RenderingEngine.Constructs.EngineObject;
+import RenderingEngine.CoreComponents.Matrix4;
+import RenderingEngine.CoreComponents.Vector4;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * BVH is a bounding volume hierarchy over the world space bounds of a List of EngineObjects, used for culling them against a view frustum
+ * and for finding the EngineObject a ray hits first without testing every EngineObject.
+ * The tree is built with the surface area heuristic over binned object centroids, and stored in flat arrays where the children of a node
+ * are next to each other and after their parent. When EngineObjects are transformed the bounds are refitted bottom up, and the tree is rebuilt
+ * only when refitting has made it considerably worse than a new tree would be.
+ * The methods are synchronized, so the same BVH can be queried from the thread handling the input while another thread is rendering,
+ * and the scratch arrays of the queries are reused from one query to the next.
+ *
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+public class BVH {
+    /**
+    * The most EngineObjects a leaf holds when splitting it would make the tree worse by the surface area heuristic
+    */
+    public static final int MAX_LEAF_SIZE = 4;
+
+    /**
+    * The amount of bins the centroids are sorted to along every axis when looking for the best split
+    */
+    private static final int BIN_COUNT = 16;
+
+    /**
+    * How many times larger than right after building the summed surface area of the nodes may grow through refitting before the tree is rebuilt
+    */
+    private static final float REBUILD_THRESHOLD = 2;
+
+    private final EngineObject[] m_objects;
+    private final int[] m_geometryVersions;
+    private final float[] m_objectBounds;
+    private final int[] m_order;
+    private float[] m_bounds;
+    private int[] m_first, m_count;
+    private int[] m_stack;
+    private final float[] m_planes, m_insidePlanes;
+    private final int[] m_visible;
+    private final boolean[] m_inside;
+    private int m_nodeCount;
+    private float m_builtArea;
+
+    /**
+    * Creates a new BVH over the EngineObjects in List objects, as they are at the moment
+    */
+    public BVH(List<EngineObject> objects) {
+        m_objects = objects.toArray(new EngineObject[objects.size()]);
+        m_geometryVersions = new int[m_objects.length];
+        m_objectBounds = new float[m_objects.length * 6];
+        m_order = new int[m_objects.length];
+        m_planes = new float[24];
+        m_insidePlanes = new float[24];
+        m_visible = new int[m_objects.length];
+        m_inside = new boolean[m_objects.length];
+        for(int i = 0; i < m_objects.length; i++)
+            updateObjectBounds(i);
+        build();
+    }
+
+    /**
+    * Returns the amount of EngineObjects in this BVH
+    */
+    public int size() {return m_objects.length;}
+
+    /**
+    * Returns true if List objects holds the same EngineObjects in the same order as this BVH was built over
+    */
+    public synchronized boolean contains(List<EngineObject> objects){
+        if(objects.size() != m_objects.length)
+            return false;
+        for(int i = 0; i < m_objects.length; i++)
+            if(objects.get(i) != m_objects[i])
+                return false;
+        return true;
+    }
+
+    /**
+    * Refits the bounds of this BVH to the EngineObjects whose geometry has changed since the last refit,
+    * or rebuilds the tree if refitting has made it considerably worse, see REBUILD_THRESHOLD
+    */
+    public synchronized void refit(){
+        boolean changed = false;
+        for(int i = 0; i < m_objects.length; i++)
+            if(m_objects[i].getGeometryVersion() != m_geometryVersions[i]){
+                updateObjectBounds(i);
+                changed = true;
+            }
+        if(!changed)
+            return;
+        for(int node = m_nodeCount - 1; node >= 0; node--){
+            if(m_count[node] > 0)
+                setLeafBounds(node);
+            else
+                setUnionBounds(node, m_first[node], m_first[node] + 1);
+        }
+        if(getTotalArea() > m_builtArea * REBUILD_THRESHOLD)
+            build();
+    }
+
+    /**
+    * Sets List visible to the EngineObjects whose world space bounds intersect the view frustum of Matrix4 viewProjection, in the order of the List this BVH was built over,
+    * and sets the bits of BitSet inside at the indices of visible whose EngineObjects are inside EdgeCalculator.INSIDE_MARGIN of the frustum, so they can be drawn without clipping.
+    * Subtrees completely inside the frustum are added without testing their nodes, subtrees completely outside it are skipped,
+    * and the EngineObjects of the leaves intersecting the frustum are tested by their own bounds.
+    * The EngineObjects in visible may still be outside the frustum, but every EngineObject left out is outside it
+    */
+    public synchronized void cull(Matrix4 viewProjection, List<EngineObject> visible, BitSet inside){
+        visible.clear();
+        inside.clear();
+        for(int axis = 0; axis < 3; axis++)
+            for(int sign = -1; sign <= 1; sign += 2){
+                int plane = (axis * 2 + (sign + 1) / 2) * 4;
+                for(int column = 0; column < 4; column++){
+                    m_planes[plane + column] = viewProjection.get(3, column) - viewProjection.get(axis, column) * sign;
+                    m_insidePlanes[plane + column] = viewProjection.get(3, column) * EdgeCalculator.INSIDE_MARGIN - viewProjection.get(axis, column) * sign;
+                }
+            }
+        int visibleCount = 0;
+        int stackSize = 0;
+        if(m_nodeCount > 0)
+            m_stack[stackSize++] = 0;
+        while(stackSize > 0){
+            int node = m_stack[--stackSize];
+            int visibility = getVisibility(m_bounds, node * 6);
+            if(visibility == 0)
+                continue;
+            if(visibility == 2)
+                visibleCount = addObjects(node, visibleCount);
+            else if(m_count[node] > 0){
+                for(int i = m_first[node]; i < m_first[node] + m_count[node]; i++){
+                    int object = m_order[i];
+                    int objectVisibility = getVisibility(m_objectBounds, object * 6);
+                    if(objectVisibility == 0)
+                        continue;
+                    m_inside[object] = objectVisibility == 2;
+                    m_visible[visibleCount++] = object;
+                }
+            }
+            else{
+                m_stack[stackSize++] = m_first[node];
+                m_stack[stackSize++] = m_first[node] + 1;
+            }
+        }
+        Arrays.sort(m_visible, 0, visibleCount);
+        for(int i = 0; i < visibleCount; i++){
+            visible.add(m_objects[m_visible[i]]);
+            if(m_inside[m_visible[i]])
+                inside.set(i);
+        }
+    }
+
+    /**
+    * Returns the EngineObject whose triangles the ray starting from Vector4 origin in the direction of Vector4 direction hits first,
+    * no further than the length of direction from origin, or null if the ray doesn't hit any EngineObject.
+    * The nearer child of every node is visited first, and nodes further than the nearest hit so far are skipped
+    */
+    public synchronized EngineObject intersectRay(Vector4 origin, Vector4 direction){
+        float[] rayOrigin = {origin.getX(), origin.getY(), origin.getZ()};
+        float[] inverseDirection = {1 / direction.getX(), 1 / direction.getY(), 1 / direction.getZ()};
+        EngineObject nearest = null;
+        float nearestDistance = 1;
+        int[] stack = m_stack;
+        int stackSize = 0;
+        if(m_nodeCount > 0 && intersectBox(m_bounds, 0, rayOrigin, inverseDirection, nearestDistance) >= 0)
+            stack[stackSize++] = 0;
+        while(stackSize > 0){
+            int node = stack[--stackSize];
+            if(m_count[node] > 0){
+                for(int i = m_first[node]; i < m_first[node] + m_count[node]; i++){
+                    int object = m_order[i];
+                    if(intersectBox(m_objectBounds, object * 6, rayOrigin, inverseDirection, nearestDistance) < 0)
+                        continue;
+                    float distance = m_objects[object].intersectRay(origin, direction);
+                    if(distance < nearestDistance){
+                        nearestDistance = distance;
+                        nearest = m_objects[object];
+                    }
+                }
+                continue;
+            }
+            int left = m_first[node];
+            int right = left + 1;
+            float leftDistance = intersectBox(m_bounds, left * 6, rayOrigin, inverseDirection, nearestDistance);
+            float rightDistance = intersectBox(m_bounds, right * 6, rayOrigin, inverseDirection, nearestDistance);
+            if(leftDistance >= 0 && rightDistance >= 0){
+                boolean leftFirst = leftDistance <= rightDistance;
+                stack[stackSize++] = leftFirst ? right : left;
+                stack[stackSize++] = leftFirst ? left : right;
+            }
+            else if(leftDistance >= 0)
+                stack[stackSize++] = left;
+            else if(rightDistance >= 0)
+                stack[stackSize++] = right;
+        }
+        return nearest;
+    }
+
+    /**
+    * Builds the tree over the current bounds of the EngineObjects
+    */
+    private void build(){
+        int capacity = Math.max(m_objects.length * 2 - 1, 1);
+        m_bounds = new float[capacity * 6];
+        m_first = new int[capacity];
+        m_count = new int[capacity];
+        m_stack = new int[capacity];
+        for(int i = 0; i < m_order.length; i++)
+            m_order[i] = i;
+        m_nodeCount = 0;
+        if(m_objects.length > 0){
+            m_nodeCount = 1;
+            build(0, 0, m_objects.length);
+        }
+        m_builtArea = getTotalArea();
+    }
+
+    /**
+    * Makes node int node out of the EngineObjects from index int start up to but not including int end of the order,
+    * and splits it where the surface area heuristic finds the split cheaper than a leaf
+    */
+    private void build(int node, int start, int end){
+        m_first[node] = start;
+        m_count[node] = end - start;
+        setLeafBounds(node);
+        if(end - start <= 1)
+            return;
+
+        float[] centroidMin = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+        float[] centroidMax = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        for(int i = start; i < end; i++)
+            for(int axis = 0; axis < 3; axis++){
+                float centroid = getCentroid(m_order[i], axis);
+                centroidMin[axis] = Math.min(centroidMin[axis], centroid);
+                centroidMax[axis] = Math.max(centroidMax[axis], centroid);
+            }
+
+        int bestAxis = -1, bestSplit = 0;
+        float bestCost = Float.MAX_VALUE;
+        int[] binCounts = new int[BIN_COUNT];
+        float[] binBounds = new float[BIN_COUNT * 6];
+        float[] rightAreas = new float[BIN_COUNT];
+        float[] bounds = new float[6];
+        for(int axis = 0; axis < 3; axis++){
+            float extent = centroidMax[axis] - centroidMin[axis];
+            if(extent <= 0)
+                continue;
+            Arrays.fill(binCounts, 0);
+            for(int bin = 0; bin < BIN_COUNT; bin++)
+                resetBounds(binBounds, bin * 6);
+            for(int i = start; i < end; i++){
+                int bin = getBin(m_order[i], axis, centroidMin[axis], extent);
+                binCounts[bin]++;
+                addBounds(binBounds, bin * 6, m_objectBounds, m_order[i] * 6);
+            }
+            resetBounds(bounds, 0);
+            for(int bin = BIN_COUNT - 1; bin > 0; bin--){
+                addBounds(bounds, 0, binBounds, bin * 6);
+                rightAreas[bin] = getArea(bounds, 0);
+            }
+            resetBounds(bounds, 0);
+            int leftCount = 0;
+            for(int split = 1; split < BIN_COUNT; split++){
+                addBounds(bounds, 0, binBounds, (split - 1) * 6);
+                leftCount += binCounts[split - 1];
+                int rightCount = end - start - leftCount;
+                if(leftCount == 0 || rightCount == 0)
+                    continue;
+                float cost = getArea(bounds, 0) * leftCount + rightAreas[split] * rightCount;
+                if(cost < bestCost){
+                    bestCost = cost;
+                    bestAxis = axis;
+                    bestSplit = split;
+                }
+            }
+        }
+
+        int middle;
+        if(bestAxis == -1){
+            if(end - start <= MAX_LEAF_SIZE)
+                return;
+            middle = (start + end) / 2;
+        }
+        else{
+            if(end - start <= MAX_LEAF_SIZE && bestCost >= getArea(m_bounds, node * 6) * (end - start))
+                return;
+            middle = start;
+            float extent = centroidMax[bestAxis] - centroidMin[bestAxis];
+            for(int i = start; i < end; i++)
+                if(getBin(m_order[i], bestAxis, centroidMin[bestAxis], extent) < bestSplit){
+                    int swap = m_order[i];
+                    m_order[i] = m_order[middle];
+                    m_order[middle++] = swap;
+                }
+        }
+        int left = m_nodeCount;
+        m_nodeCount += 2;
+        m_first[node] = left;
+        m_count[node] = 0;
+        build(left, start, middle);
+        build(left + 1, middle, end);
+    }
+
+    /**
+    * Returns 0 if the box at int offset of float[] bounds is outside one of the six planes of the frustum being culled against,
+    * 2 if it is inside all of the six planes moved inwards by EdgeCalculator.INSIDE_MARGIN and 1 otherwise
+    */
+    private int getVisibility(float[] bounds, int offset){
+        boolean inside = true;
+        for(int plane = 0; plane < 24; plane += 4){
+            float a = m_planes[plane], b = m_planes[plane + 1], c = m_planes[plane + 2], d = m_planes[plane + 3];
+            float nearest = a * bounds[offset + (a >= 0 ? 3 : 0)] + b * bounds[offset + (b >= 0 ? 4 : 1)] + c * bounds[offset + (c >= 0 ? 5 : 2)] + d;
+            if(nearest < 0)
+                return 0;
+            a = m_insidePlanes[plane];
+            b = m_insidePlanes[plane + 1];
+            c = m_insidePlanes[plane + 2];
+            d = m_insidePlanes[plane + 3];
+            float furthest = a * bounds[offset + (a >= 0 ? 0 : 3)] + b * bounds[offset + (b >= 0 ? 1 : 4)] + c * bounds[offset + (c >= 0 ? 2 : 5)] + d;
+            inside &= furthest >= 0;
+        }
+        return inside ? 2 : 1;
+    }
+
+    /**
+    * Returns the distance along the ray at which it enters the box at int offset of float[] bounds, in lengths of the ray direction,
+    * or -1 if the ray misses the box before float maxDistance
+    */
+    private static float intersectBox(float[] bounds, int offset, float[] origin, float[] inverseDirection, float maxDistance){
+        float near = 0, far = maxDistance;
+        for(int axis = 0; axis < 3; axis++){
+            float t0 = (bounds[offset + axis] - origin[axis]) * inverseDirection[axis];
+            float t1 = (bounds[offset + axis + 3] - origin[axis]) * inverseDirection[axis];
+            if(t0 > t1){
+                float swap = t0;
+                t0 = t1;
+                t1 = swap;
+            }
+            if(!(t0 <= far && t1 >= near))
+                return -1;
+            near = Math.max(near, t0);
+            far = Math.min(far, t1);
+        }
+        return near;
+    }
+
+    /**
+    * Adds the EngineObjects under node int node, which is inside the frustum being culled against, to the visible EngineObjects from index int count on,
+    * and returns the new count
+    */
+    private int addObjects(int node, int count){
+        if(m_count[node] > 0){
+            for(int i = m_first[node]; i < m_first[node] + m_count[node]; i++){
+                m_inside[m_order[i]] = true;
+                m_visible[count++] = m_order[i];
+            }
+            return count;
+        }
+        count = addObjects(m_first[node], count);
+        return addObjects(m_first[node] + 1, count);
+    }
+
+    private void updateObjectBounds(int object){
+        EngineObject o = m_objects[object];
+        m_geometryVersions[object] = o.getGeometryVersion();
+        Vector4 min = o.getWorldBoundsMin();
+        Vector4 max = o.getWorldBoundsMax();
+        m_objectBounds[object * 6] = min.getX();
+        m_objectBounds[object * 6 + 1] = min.getY();
+        m_objectBounds[object * 6 + 2] = min.getZ();
+        m_objectBounds[object * 6 + 3] = max.getX();
+        m_objectBounds[object * 6 + 4] = max.getY();
+        m_objectBounds[object * 6 + 5] = max.getZ();
+    }
+
+    private void setLeafBounds(int node){
+        resetBounds(m_bounds, node * 6);
+        for(int i = m_first[node]; i < m_first[node] + m_count[node]; i++)
+            addBounds(m_bounds, node * 6, m_objectBounds, m_order[i] * 6);
+    }
+
+    private void setUnionBounds(int node, int left, int right){
+        resetBounds(m_bounds, node * 6);
+        addBounds(m_bounds, node * 6, m_bounds, left * 6);
+        addBounds(m_bounds, node * 6, m_bounds, right * 6);
+    }
+
+    private float getTotalArea(){
+        float area = 0;
+        for(int node = 0; node < m_nodeCount; node++)
+            area += getArea(m_bounds, node * 6);
+        return area;
+    }
+
+    private float getCentroid(int object, int axis){
+        return (m_objectBounds[object * 6 + axis] + m_objectBounds[object * 6 + axis + 3]) * 0.5f;
+    }
+
+    private int getBin(int object, int axis, float min, float extent){
+        return Math.min((int)((getCentroid(object, axis) - min) / extent * BIN_COUNT), BIN_COUNT - 1);
+    }
+
+    private static void resetBounds(float[] bounds, int offset){
+        for(int axis = 0; axis < 3; axis++){
+            bounds[offset + axis] = Float.MAX_VALUE;
+            bounds[offset + axis + 3] = -Float.MAX_VALUE;
+        }
+    }
+
+    private static void addBounds(float[] bounds, int offset, float[] source, int sourceOffset){
+        for(int axis = 0; axis < 3; axis++){
+            bounds[offset + axis] = Math.min(bounds[offset + axis], source[sourceOffset + axis]);
+            bounds[offset + axis + 3] = Math.max(bounds[offset + axis + 3], source[sourceOffset + axis + 3]);
+        }
+    }
+
+    private static float getArea(float[] bounds, int offset){
+        float x = bounds[offset + 3] - bounds[offset];
+        float y = bounds[offset + 4] - bounds[offset + 1];
+        float z = bounds[offset + 5] - bounds[offset + 2];
+        if(x < 0 || y < 0 || z < 0)
+            return 0;
+        return 2 * (x*y + y*z + z*x);
+    }
+}
@@ -1,131 +1,530 @@
-package RenderingEngine.Rendering;
-
-import RenderingEngine.Constructs.Edge;
-import RenderingEngine.Constructs.EngineObject;
-import RenderingEngine.Constructs.Gradients;
-import RenderingEngine.Constructs.Vertex;
-import RenderingEngine.CoreComponents.Bitmap;
-import RenderingEngine.CoreComponents.Matrix4;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-
-/**
- * EdgeCalculator
- * 
- * @author Eero Lempiö el415524@student.uta.fi
- */
-public class EdgeCalculator {
-    /**
-    * Returns the Edges made up of EngineObjects o's Mesh's vertices transformed by Matrix4 viewProjection, Matrix4 screenSpaceTransform and Matrix4 normalTransform,
-    * if they can be drawn
-    */
-    public static List<Edge> getEdges(Matrix4 viewProjection, Matrix4 screenSpaceTransform, Matrix4 normalTransform, EngineObject o){
-        Vertex[] triangleVertices = o.getWorldVertices();
-        List<Edge> edges = new ArrayList<>();
-        Bitmap texture = o.getTexture();
-        for(int i = 0; i < triangleVertices.length; i +=3){
-            Vertex v1 = triangleVertices[i].transform(viewProjection, normalTransform);
-            Vertex v2 = triangleVertices[i + 1].transform(viewProjection, normalTransform);
-            Vertex v3 = triangleVertices[i + 2].transform(viewProjection, normalTransform);
-            List<Vertex> vertices = EdgeCalculator.clip(v1, v2, v3);
-            for(int j = 1; j < vertices.size()- 1; j++)
-                edgesFromVertices(vertices.get(0),vertices.get(j),vertices.get(j + 1), screenSpaceTransform, normalTransform, edges, texture);
-        }
-        return edges;
-    }
-    
-    private static void edgesFromVertices(Vertex v1, Vertex v2, Vertex v3, Matrix4 screenSpaceTransform, Matrix4 normalTransform, List<Edge> edges, Bitmap texture){
-        Vertex minYvert = v1.transform(screenSpaceTransform, normalTransform).perspectiveDivide();
-        Vertex midYvert = v2.transform(screenSpaceTransform, normalTransform).perspectiveDivide();
-        Vertex maxYvert = v3.transform(screenSpaceTransform, normalTransform).perspectiveDivide();
-        
-        if(minYvert.triangleArea(maxYvert, midYvert) >= 0)
-            return;
-        if(maxYvert.getPosition().getY() < midYvert.getPosition().getY()){
-            Vertex temp = maxYvert;
-            maxYvert = midYvert;
-            midYvert = temp;
-        }
-        if(midYvert.getPosition().getY() < minYvert.getPosition().getY()){
-            Vertex temp = midYvert;
-            midYvert = minYvert;
-            minYvert = temp;
-        }
-        if(maxYvert.getPosition().getY() < midYvert.getPosition().getY()){
-            Vertex temp = maxYvert;
-            maxYvert = midYvert;
-            midYvert = temp;
-        }
-        Gradients gradients = new Gradients(minYvert, midYvert, maxYvert);
-        Edge topToBottom = new Edge(texture, gradients, minYvert, maxYvert, 0);
-        Edge topToMiddle = new Edge(texture, gradients, minYvert, midYvert, 0);
-        Edge middleToBottom = new Edge(texture, gradients, midYvert, maxYvert, 1);
-        if(minYvert.triangleArea(maxYvert, midYvert) >= 0){
-            edges.add(topToMiddle);
-            edges.add(topToBottom);
-            edges.add(topToMiddle);
-            edges.add(middleToBottom);
-            edges.add(topToBottom);
-            edges.add(middleToBottom);
-        }
-        else{
-            edges.add(topToBottom);
-            edges.add(topToMiddle);
-            edges.add(topToMiddle);
-            edges.add(topToBottom);
-            edges.add(middleToBottom);
-            edges.add(middleToBottom);
-        }
-    }
-    
-    private static List<Vertex> clip (Vertex v1, Vertex v2, Vertex v3) {
-        List<Vertex> vertices = new ArrayList<>();
-        vertices.add(v1);
-        vertices.add(v2);
-        vertices.add(v3);
-        if(v1.isInsideViewFrustum() && v2.isInsideViewFrustum() && v3.isInsideViewFrustum())
-            return vertices;
-
-        List<Vertex> auxilliary = new ArrayList<>();
-        if(clipPolygonAxis(vertices, auxilliary, 0) && clipPolygonAxis(vertices, auxilliary, 1) && clipPolygonAxis(vertices, auxilliary, 2))
-            return vertices;
-        
-        return new ArrayList<>();
-    } 
-    
-    private static boolean clipPolygonAxis(List<Vertex> vertices, List<Vertex> auxilliary, int componentIndex){
-        clipPolygonComponent(vertices, componentIndex, 1f, auxilliary);
-        vertices.clear();
-        if(auxilliary.isEmpty())
-            return false;
-        clipPolygonComponent(auxilliary, componentIndex, -1f, vertices);
-        auxilliary.clear();
-        return !vertices.isEmpty();
-    }
-    
-    private static void clipPolygonComponent(List<Vertex> vertices, int componentIndex, float componentFactor, List<Vertex> result){
-        Vertex previousVertex = vertices.get(vertices.size() - 1);
-        float previousComponent = previousVertex.get(componentIndex) * componentFactor;
-        boolean previousInside = previousComponent <= previousVertex.getPosition().getW();
-        Iterator<Vertex> it = vertices.iterator();
-        while(it.hasNext()){
-            Vertex currentVertex = it.next();
-            float currentComponent = currentVertex.get(componentIndex) * componentFactor;
-            boolean currentInside = currentComponent <= currentVertex.getPosition().getW();
-            if(currentInside ^ previousInside){
-                float lerpAmount = (previousVertex.getPosition().getW() - previousComponent) /
-                        ((previousVertex.getPosition().getW() - previousComponent) -
-                        (currentVertex.getPosition().getW() - currentComponent));
-                result.add(previousVertex.lerp(currentVertex, lerpAmount));
-            }
-            
-            if(currentInside)
-                result.add(currentVertex);
-            
-            previousVertex = currentVertex;
-            previousComponent = currentComponent;
-            previousInside = currentInside;
-        }
-    }
-}
+package RenderingEngine.Rendering;
+
+import RenderingEngine.Constructs.Edge;
+import RenderingEngine.Constructs.EngineObject;
+import RenderingEngine.Constructs.Gradients;
+import RenderingEngine.Constructs.Mesh;
+import RenderingEngine.Constructs.VertexBuffer;
+import RenderingEngine.CoreComponents.Bitmap;
+import RenderingEngine.CoreComponents.Matrix4;
+import RenderingEngine.CoreComponents.Vector4;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * EdgeCalculator
+ * 
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+public class EdgeCalculator {
+    /**
+    * The amount of triangles in a single chunk of work when calculating Edges in parallel
+    */
+    public static final int CHUNK_SIZE = 1024;
+    
+    /**
+    * The amount of vertices a triangle can have after being clipped against the six planes of the view frustum
+    */
+    static final int MAX_CLIPPED_VERTICES = 9;
+    
+    /**
+    * The visibility of a Mesh completely outside the view frustum, partly inside it, or completely inside it, see getVisibility
+    */
+    private static final int OUTSIDE = 0, INTERSECTING = 1, INSIDE = 2;
+    
+    /**
+    * The fraction of the view frustum a Mesh has to be inside of to be drawn without clipping,
+    * leaving room for rounding errors in transforming the vertices so that none of them ends up outside the frustum. BVH culls with the same margin
+    */
+    static final float INSIDE_MARGIN = 0.999f;
+    
+    /**
+    * How many times wider and taller than the view frustum the guard band is. Triangles inside the guard band are drawn without clipping them
+    * against the x and y planes, and the rasterizer leaves out the pixels outside the frame
+    */
+    public static final float GUARD_BAND = 4;
+    
+    /**
+    * The scratch VertexBuffers of the calling thread for copying, clipping and transforming a single triangle, reused for every triangle the thread calculates
+    */
+    private static final ThreadLocal<ClipBuffers> CLIP_BUFFERS = new ThreadLocal<ClipBuffers>(){
+        @Override
+        protected ClipBuffers initialValue() {return new ClipBuffers();}
+    };
+    
+    /**
+    * Returns the Edges made up of EngineObjects o's Mesh's vertices transformed by Matrix4 viewProjection, Matrix4 screenSpaceTransform and Matrix4 normalTransform,
+    * if they can be drawn. The model space vertices are transformed straight to clip space by the transformation of o folded into viewProjection and normalTransform.
+    * Nothing is transformed if the bounds of o's Mesh are outside the view frustum, and no triangle is clipped if they are inside it.
+    * The clip space vertices are kept with o and only transformed again after the view or o's geometry version changes, see EngineObject.acquireClipSpaceVertices.
+    * If boolean guardBand is true, triangles inside the GUARD_BAND are only clipped against the near and far planes.
+    * The triangles are counted to FrameProfiler profiler, unless it is null
+    */
+    public static List<Edge> getEdges(
+            Matrix4 viewProjection, Matrix4 screenSpaceTransform, Matrix4 normalTransform, EngineObject o, boolean guardBand, FrameProfiler profiler){
+        return getEdges(viewProjection, screenSpaceTransform, normalTransform, o, false, guardBand, profiler);
+    }
+    
+    /**
+    * Returns the Edges of EngineObject o like getEdges above. If boolean inside is true, o is already known to be inside INSIDE_MARGIN of the view frustum,
+    * for example from BVH.cull, so its bounds are not tested again and no triangle is clipped
+    */
+    public static List<Edge> getEdges(
+            Matrix4 viewProjection, Matrix4 screenSpaceTransform, Matrix4 normalTransform, EngineObject o, boolean inside, boolean guardBand, FrameProfiler profiler){
+        int geometryVersion = o.getGeometryVersion();
+        Matrix4 model = o.getTransform().getTransformation();
+        Matrix4 modelViewProjection = viewProjection.mul(model);
+        List<Edge> edges = new ArrayList<>();
+        int visibility = inside ? INSIDE : getVisibility(modelViewProjection, o.getMesh());
+        if(visibility == OUTSIDE){
+            if(profiler != null)
+                profiler.add(FrameProfiler.Counter.OBJECTS_CULLED, 1);
+            return edges;
+        }
+        Matrix4 modelNormalTransform = normalTransform.mul(model);
+        EngineObject.ClipSpaceVertices clipSpaceVertices = o.acquireClipSpaceVertices(modelViewProjection, modelNormalTransform);
+        try{
+            VertexBuffer vertexCache = clipSpaceVertices.getVertices();
+            if(!clipSpaceVertices.isValid(modelViewProjection, modelNormalTransform, geometryVersion)){
+                clipSpaceVertices.invalidate();
+                o.getMesh().getVertexBuffer(vertexCache, modelViewProjection, modelNormalTransform);
+                clipSpaceVertices.validate(modelViewProjection, modelNormalTransform, geometryVersion);
+            }
+            int[] indices = o.getMesh().getIndices();
+            getEdges(screenSpaceTransform, normalTransform, vertexCache, indices, o.getTexture(), o.getCullMode(), visibility == INTERSECTING, guardBand, 0, indices.length, edges, profiler);
+        }
+        finally{
+            o.releaseClipSpaceVertices(clipSpaceVertices);
+        }
+        return edges;
+    }
+    
+    /**
+    * Returns the Edges made up of the Mesh vertices of every EngineObject in List objects, transformed by Matrix4 viewProjection, Matrix4 screenSpaceTransform and Matrix4 normalTransform,
+    * if they can be drawn. The vertices and then the triangles are split into chunks of CHUNK_SIZE that are calculated in parallel on ForkJoinPool pool,
+    * and the Edges are returned in the same order as calculating every EngineObject one after another would return them.
+    * The clip space vertices of each EngineObject are reused like in getEdges for a single EngineObject.
+    * EngineObjects are culled and drawn without clipping by their bounds, and triangles inside the GUARD_BAND are clipped if boolean guardBand is true,
+    * like in getEdges for a single EngineObject. The triangles are counted to FrameProfiler profiler, unless it is null
+    */
+    public static List<Edge> getEdges(
+            ForkJoinPool pool, Matrix4 viewProjection, Matrix4 screenSpaceTransform, Matrix4 normalTransform, List<EngineObject> objects,
+            boolean guardBand, FrameProfiler profiler){
+        return getEdges(pool, viewProjection, screenSpaceTransform, normalTransform, objects, null, guardBand, profiler);
+    }
+    
+    /**
+    * Returns the Edges of the EngineObjects in List objects like getEdges above. The EngineObjects at the indices of the set bits of BitSet inside
+    * are already known to be inside INSIDE_MARGIN of the view frustum, for example from BVH.cull, so their bounds are not tested again and none of their triangles is clipped.
+    * If inside is null, the bounds of every EngineObject are tested
+    */
+    public static List<Edge> getEdges(
+            ForkJoinPool pool, Matrix4 viewProjection, Matrix4 screenSpaceTransform, Matrix4 normalTransform, List<EngineObject> objects,
+            BitSet inside, boolean guardBand, FrameProfiler profiler){
+        List<EdgeChunk> chunks = new ArrayList<>();
+        List<EngineObject> acquired = new ArrayList<>();
+        List<EngineObject.ClipSpaceVertices> acquiredVertices = new ArrayList<>();
+        try{
+            for(int i = 0; i < objects.size(); i++){
+                EngineObject o = objects.get(i);
+                int geometryVersion = o.getGeometryVersion();
+                Matrix4 model = o.getTransform().getTransformation();
+                Matrix4 modelViewProjection = viewProjection.mul(model);
+                int visibility = inside != null && inside.get(i) ? INSIDE : getVisibility(modelViewProjection, o.getMesh());
+                if(visibility == OUTSIDE){
+                    if(profiler != null)
+                        profiler.add(FrameProfiler.Counter.OBJECTS_CULLED, 1);
+                    continue;
+                }
+                Matrix4 modelNormalTransform = normalTransform.mul(model);
+                EngineObject.ClipSpaceVertices clipSpaceVertices = o.acquireClipSpaceVertices(modelViewProjection, modelNormalTransform);
+                acquired.add(o);
+                acquiredVertices.add(clipSpaceVertices);
+                VertexBuffer vertexCache = clipSpaceVertices.getVertices();
+                if(!clipSpaceVertices.isValid(modelViewProjection, modelNormalTransform, geometryVersion)){
+                    clipSpaceVertices.invalidate();
+                    vertexCache.setSize(o.getMesh().getVertexCount());
+                    pool.invoke(new TransformTask(o.getMesh(), modelViewProjection, modelNormalTransform, vertexCache, 0, vertexCache.size()));
+                    clipSpaceVertices.validate(modelViewProjection, modelNormalTransform, geometryVersion);
+                }
+                int[] indices = o.getMesh().getIndices();
+                Bitmap texture = o.getTexture();
+                for(int start = 0; start < indices.length; start += CHUNK_SIZE * 3)
+                    chunks.add(new EdgeChunk(
+                            vertexCache, indices, texture, o.getCullMode(), visibility == INTERSECTING, start, Math.min(start + CHUNK_SIZE * 3, indices.length)));
+            }
+            if(chunks.isEmpty())
+                return new ArrayList<>();
+            return pool.invoke(new EdgeTask(screenSpaceTransform, normalTransform, chunks, guardBand, 0, chunks.size(), profiler));
+        }
+        finally{
+            for(int i = 0; i < acquired.size(); i++)
+                acquired.get(i).releaseClipSpaceVertices(acquiredVertices.get(i));
+        }
+    }
+    
+    /**
+    * Returns OUTSIDE if the positions of Mesh mesh transformed by Matrix4 modelViewProjection are completely outside the view frustum,
+    * INSIDE if they are inside INSIDE_MARGIN of the view frustum, and INTERSECTING otherwise.
+    * The bounding sphere of the Mesh is tested first against the planes of the frustum in model space, and if that is not conclusive,
+    * the corners of the bounding box are tested in clip space. The positions are inside the convex hull of the corners, so they are inside every plane the corners are inside
+    */
+    private static int getVisibility(Matrix4 modelViewProjection, Mesh mesh){
+        Vector4 center = mesh.getBoundingSphereCenter();
+        float radius = mesh.getBoundingSphereRadius();
+        boolean inside = true;
+        for(int axis = 0; axis < 3; axis++)
+            for(int sign = -1; sign <= 1; sign += 2){
+                if(getPlaneDistance(modelViewProjection, axis, sign, 1, center) < -radius)
+                    return OUTSIDE;
+                inside &= getPlaneDistance(modelViewProjection, axis, sign, INSIDE_MARGIN, center) >= radius;
+            }
+        if(inside)
+            return INSIDE;
+        
+        Vector4 min = mesh.getBoundsMin();
+        Vector4 max = mesh.getBoundsMax();
+        boolean[] outside = {true, true, true, true, true, true};
+        inside = true;
+        for(int i = 0; i < 8; i++){
+            Vector4 corner = modelViewProjection.transform(new Vector4(
+                    (i & 1) == 0 ? min.getX() : max.getX(),
+                    (i & 2) == 0 ? min.getY() : max.getY(),
+                    (i & 4) == 0 ? min.getZ() : max.getZ()));
+            float[] components = {corner.getX(), corner.getY(), corner.getZ()};
+            for(int axis = 0; axis < 3; axis++){
+                outside[axis * 2] &= components[axis] > corner.getW();
+                outside[axis * 2 + 1] &= -components[axis] > corner.getW();
+                inside &= Math.abs(components[axis]) <= corner.getW() * INSIDE_MARGIN;
+            }
+        }
+        for(boolean planeOutside : outside)
+            if(planeOutside)
+                return OUTSIDE;
+        return inside ? INSIDE : INTERSECTING;
+    }
+    
+    /**
+    * Returns the signed model space distance of Vector4 point from the plane where component int axis of positions transformed by Matrix4 modelViewProjection,
+    * multiplied by int sign, equals w multiplied by float scale. The distance is positive on the side of the view frustum
+    */
+    private static float getPlaneDistance(Matrix4 modelViewProjection, int axis, int sign, float scale, Vector4 point){
+        float a = modelViewProjection.get(3, 0) * scale - modelViewProjection.get(axis, 0) * sign;
+        float b = modelViewProjection.get(3, 1) * scale - modelViewProjection.get(axis, 1) * sign;
+        float c = modelViewProjection.get(3, 2) * scale - modelViewProjection.get(axis, 2) * sign;
+        float d = modelViewProjection.get(3, 3) * scale - modelViewProjection.get(axis, 3) * sign;
+        return (a * point.getX() + b * point.getY() + c * point.getZ() + d) / (float)Math.sqrt(a*a + b*b + c*c);
+    }
+    
+    /**
+    * Adds the Edges made up of the triangles of int[] indices from index int start up to but not including int end to List edges,
+    * if they can be drawn. VertexBuffer vertexCache contains the vertices the indices refer to, already transformed by the view projection,
+    * and the triangles are transformed by Matrix4 screenSpaceTransform and Matrix4 normalTransform.
+    * The triangles culled by EngineObject.CullMode cullMode are rejected by their winding in clip space before they are copied or clipped, see isCulled.
+    * If boolean clip is true, the vertices are clipped in place in the scratch VertexBuffers of the calling thread, which are reused for every triangle,
+    * otherwise the triangles are known to be inside the view frustum and are not tested. If boolean guardBand is true as well, triangles inside the GUARD_BAND
+    * are not clipped, and triangles completely outside one of the x and y planes of the view frustum are left out without clipping them.
+    * The triangles are counted locally and added to FrameProfiler profiler once at the end, unless it is null
+    */
+    private static void getEdges(
+            Matrix4 screenSpaceTransform, Matrix4 normalTransform,
+            VertexBuffer vertexCache, int[] indices, Bitmap texture, EngineObject.CullMode cullMode, boolean clip, boolean guardBand,
+            int start, int end, List<Edge> edges, FrameProfiler profiler){
+        ClipBuffers buffers = CLIP_BUFFERS.get();
+        VertexBuffer polygon = buffers.m_polygon;
+        VertexBuffer auxilliary = buffers.m_auxilliary;
+        VertexBuffer triangle = buffers.m_triangle;
+        int clipped = 0;
+        int culled = 0;
+        float[] positions = vertexCache.getPositions();
+        for(int i = start; i < end; i +=3){
+            if(cullMode != EngineObject.CullMode.NONE && isCulled(positions, indices[i], indices[i + 1], indices[i + 2], cullMode)){
+                culled++;
+                continue;
+            }
+            polygon.clear();
+            for(int j = i; j < i + 3; j++)
+                polygon.add(vertexCache, indices[j]);
+            if(clip && !isInsideViewFrustum(polygon)){
+                int guardBandVisibility = guardBand ? getGuardBandVisibility(polygon) : INTERSECTING;
+                if(guardBandVisibility == OUTSIDE)
+                    continue;
+                if(guardBandVisibility == INTERSECTING){
+                    clipped++;
+                    if(!clip(polygon, auxilliary))
+                        continue;
+                }
+            }
+            for(int j = 1; j < polygon.size()- 1; j++)
+                if(!edgesFromVertices(polygon, 0, j, j + 1, screenSpaceTransform, normalTransform, edges, texture, cullMode, triangle, buffers.m_gradients))
+                    culled++;
+        }
+        if(profiler != null){
+            profiler.add(FrameProfiler.Counter.TRIANGLES_IN, (end - start) / 3);
+            profiler.add(FrameProfiler.Counter.TRIANGLES_CLIPPED, clipped);
+            profiler.add(FrameProfiler.Counter.BACK_FACES_CULLED, culled);
+        }
+    }
+    
+    /**
+    * Returns true if the triangle (int v1, int v2, int v3) of float[] positions, given in clip space, is culled by EngineObject.CullMode cullMode.
+    * The sign of the determinant of the x, y and w components of the vertices is the winding the triangle has on screen after the perspective divide,
+    * and unlike the screen space area it is valid for triangles crossing the camera plane as well, so the triangle can be tested before clipping
+    */
+    private static boolean isCulled(float[] positions, int v1, int v2, int v3, EngineObject.CullMode cullMode){
+        int a = v1 * VertexBuffer.POSITION_SIZE;
+        int b = v2 * VertexBuffer.POSITION_SIZE;
+        int c = v3 * VertexBuffer.POSITION_SIZE;
+        float determinant =
+                positions[a] * (positions[b + 1] * positions[c + 3] - positions[b + 3] * positions[c + 1]) -
+                positions[a + 1] * (positions[b] * positions[c + 3] - positions[b + 3] * positions[c]) +
+                positions[a + 3] * (positions[b] * positions[c + 1] - positions[b + 1] * positions[c]);
+        return cullMode == EngineObject.CullMode.BACK ? determinant >= 0 : determinant <= 0;
+    }
+    
+    /**
+    * Adds the Edges of the triangle (int v1, int v2, int v3) of VertexBuffer polygon to List edges.
+    * Returns false if the triangle was culled by EngineObject.CullMode cullMode or has no area.
+    * The triangle is transformed in VertexBuffer triangle and its Gradients calculated in Gradients gradients, which are scratch space of the calling thread.
+    * The normals of a triangle facing away are flipped, so that double-sided triangles are shaded by the side that is seen
+    */
+    private static boolean edgesFromVertices(
+            VertexBuffer polygon, int v1, int v2, int v3, Matrix4 screenSpaceTransform, Matrix4 normalTransform,
+            List<Edge> edges, Bitmap texture, EngineObject.CullMode cullMode, VertexBuffer triangle, Gradients gradients){
+        triangle.clear();
+        int minYvert = triangle.add(polygon, v1);
+        int midYvert = triangle.add(polygon, v2);
+        int maxYvert = triangle.add(polygon, v3);
+        for(int i = 0; i < 3; i++){
+            triangle.transform(i, screenSpaceTransform, normalTransform);
+            triangle.perspectiveDivide(i);
+        }
+        
+        float area = triangle.triangleArea(minYvert, maxYvert, midYvert);
+        if(area == 0 || (area > 0 && cullMode == EngineObject.CullMode.BACK) || (area < 0 && cullMode == EngineObject.CullMode.FRONT))
+            return false;
+        if(area > 0)
+            for(int i = 0; i < 3; i++)
+                triangle.flipNormal(i);
+        if(triangle.get(maxYvert, 1) < triangle.get(midYvert, 1)){
+            int temp = maxYvert;
+            maxYvert = midYvert;
+            midYvert = temp;
+        }
+        if(triangle.get(midYvert, 1) < triangle.get(minYvert, 1)){
+            int temp = midYvert;
+            midYvert = minYvert;
+            minYvert = temp;
+        }
+        if(triangle.get(maxYvert, 1) < triangle.get(midYvert, 1)){
+            int temp = maxYvert;
+            maxYvert = midYvert;
+            midYvert = temp;
+        }
+        gradients.set(triangle, minYvert, midYvert, maxYvert);
+        Edge topToBottom = new Edge(texture, gradients, triangle, minYvert, maxYvert, 0);
+        Edge topToMiddle = new Edge(texture, gradients, triangle, minYvert, midYvert, 0);
+        Edge middleToBottom = new Edge(texture, gradients, triangle, midYvert, maxYvert, 1);
+        if(triangle.triangleArea(minYvert, maxYvert, midYvert) >= 0){
+            edges.add(topToMiddle);
+            edges.add(topToBottom);
+            edges.add(topToMiddle);
+            edges.add(middleToBottom);
+            edges.add(topToBottom);
+            edges.add(middleToBottom);
+        }
+        else{
+            edges.add(topToBottom);
+            edges.add(topToMiddle);
+            edges.add(topToMiddle);
+            edges.add(topToBottom);
+            edges.add(middleToBottom);
+            edges.add(middleToBottom);
+        }
+        return true;
+    }
+    
+    /**
+    * Clips the triangle in VertexBuffer vertices in place against the view frustum, using VertexBuffer auxilliary as scratch space.
+    * Returns false if nothing of the triangle is left
+    */
+    static boolean clip(VertexBuffer vertices, VertexBuffer auxilliary) {
+        auxilliary.clear();
+        return clipPolygonAxis(vertices, auxilliary, 0) && clipPolygonAxis(vertices, auxilliary, 1) && clipPolygonAxis(vertices, auxilliary, 2);
+    } 
+    
+    private static boolean isInsideViewFrustum(VertexBuffer triangle) {
+        return triangle.isInsideViewFrustum(0) && triangle.isInsideViewFrustum(1) && triangle.isInsideViewFrustum(2);
+    }
+    
+    /**
+    * Returns OUTSIDE if the triangle in VertexBuffer triangle is completely outside one of the x and y planes of the view frustum,
+    * INSIDE if it is between the near and far planes and inside the GUARD_BAND, so that it can be drawn without clipping, and INTERSECTING otherwise
+    */
+    private static int getGuardBandVisibility(VertexBuffer triangle) {
+        float[] positions = triangle.getPositions();
+        boolean inside = true;
+        int outside = 0xF;
+        for(int i = 0; i < 3; i++){
+            int p = i * VertexBuffer.POSITION_SIZE;
+            float x = positions[p], y = positions[p + 1], z = positions[p + 2], w = positions[p + 3];
+            int planes = 0;
+            if(x > w) planes |= 1;
+            if(-x > w) planes |= 2;
+            if(y > w) planes |= 4;
+            if(-y > w) planes |= 8;
+            outside &= planes;
+            inside &= w > 0 && Math.abs(z) <= w && Math.abs(x) <= w * GUARD_BAND && Math.abs(y) <= w * GUARD_BAND;
+        }
+        if(outside != 0)
+            return OUTSIDE;
+        return inside ? INSIDE : INTERSECTING;
+    }
+    
+    private static boolean clipPolygonAxis(VertexBuffer vertices, VertexBuffer auxilliary, int componentIndex){
+        clipPolygonComponent(vertices, componentIndex, 1f, auxilliary);
+        vertices.clear();
+        if(auxilliary.size() == 0)
+            return false;
+        clipPolygonComponent(auxilliary, componentIndex, -1f, vertices);
+        auxilliary.clear();
+        return vertices.size() != 0;
+    }
+    
+    private static void clipPolygonComponent(VertexBuffer vertices, int componentIndex, float componentFactor, VertexBuffer result){
+        int previousVertex = vertices.size() - 1;
+        float previousComponent = vertices.get(previousVertex, componentIndex) * componentFactor;
+        boolean previousInside = previousComponent <= vertices.get(previousVertex, 3);
+        for(int currentVertex = 0; currentVertex < vertices.size(); currentVertex++){
+            float currentComponent = vertices.get(currentVertex, componentIndex) * componentFactor;
+            boolean currentInside = currentComponent <= vertices.get(currentVertex, 3);
+            if(currentInside ^ previousInside){
+                float lerpAmount = (vertices.get(previousVertex, 3) - previousComponent) /
+                        ((vertices.get(previousVertex, 3) - previousComponent) -
+                        (vertices.get(currentVertex, 3) - currentComponent));
+                result.addLerp(vertices, previousVertex, currentVertex, lerpAmount);
+            }
+            
+            if(currentInside)
+                result.add(vertices, currentVertex);
+            
+            previousVertex = currentVertex;
+            previousComponent = currentComponent;
+            previousInside = currentInside;
+        }
+    }
+    
+    /**
+    * ClipBuffers holds the scratch VertexBuffers a single thread copies, clips and transforms triangles in, and the Gradients it calculates their Edges from.
+    * The polygon and auxilliary buffers have room for the most vertices a clipped triangle can have, so they never grow
+    */
+    private static class ClipBuffers{
+        private final VertexBuffer m_polygon = new VertexBuffer(MAX_CLIPPED_VERTICES);
+        private final VertexBuffer m_auxilliary = new VertexBuffer(MAX_CLIPPED_VERTICES);
+        private final VertexBuffer m_triangle = new VertexBuffer(3);
+        private final Gradients m_gradients = new Gradients();
+    }
+    
+    /**
+    * EdgeChunk is a range of the indices of a single EngineObject, along with the transformed vertices they refer to, the CullMode of the EngineObject and whether they need clipping
+    */
+    private static class EdgeChunk{
+        private final VertexBuffer m_vertexCache;
+        private final int[] m_indices;
+        private final Bitmap m_texture;
+        private final EngineObject.CullMode m_cullMode;
+        private final boolean m_clip;
+        private final int m_start, m_end;
+
+        public EdgeChunk(VertexBuffer vertexCache, int[] indices, Bitmap texture, EngineObject.CullMode cullMode, boolean clip, int start, int end) {
+            m_vertexCache = vertexCache;
+            m_indices = indices;
+            m_texture = texture;
+            m_cullMode = cullMode;
+            m_clip = clip;
+            m_start = start;
+            m_end = end;
+        }
+    }
+    
+    /**
+    * TransformTask stores a range of the vertices of a Mesh to the same indices of a VertexBuffer, transformed to clip space,
+    * splitting itself until the range is at most CHUNK_SIZE * 3 vertices
+    */
+    private static class TransformTask extends RecursiveAction{
+        private static final long serialVersionUID = 1L;
+        
+        private final Mesh m_mesh;
+        private final Matrix4 m_transform, m_normalTransform;
+        private final VertexBuffer m_vertices;
+        private final int m_start, m_end;
+
+        public TransformTask(Mesh mesh, Matrix4 transform, Matrix4 normalTransform, VertexBuffer vertices, int start, int end) {
+            m_mesh = mesh;
+            m_transform = transform;
+            m_normalTransform = normalTransform;
+            m_vertices = vertices;
+            m_start = start;
+            m_end = end;
+        }
+        
+        @Override
+        protected void compute() {
+            if(m_end - m_start > CHUNK_SIZE * 3){
+                int middle = (m_start + m_end) / 2;
+                invokeAll(
+                        new TransformTask(m_mesh, m_transform, m_normalTransform, m_vertices, m_start, middle),
+                        new TransformTask(m_mesh, m_transform, m_normalTransform, m_vertices, middle, m_end));
+                return;
+            }
+            m_mesh.getVertexBuffer(m_vertices, m_transform, m_normalTransform, m_start, m_end);
+        }
+    }
+    
+    /**
+    * EdgeTask calculates the Edges of a range of EdgeChunks, splitting itself until a single EdgeChunk is left and merging the results in order
+    */
+    private static class EdgeTask extends RecursiveTask<List<Edge>>{
+        private static final long serialVersionUID = 1L;
+        
+        private final Matrix4 m_screenSpaceTransform, m_normalTransform;
+        private final List<EdgeChunk> m_chunks;
+        private final boolean m_guardBand;
+        private final int m_start, m_end;
+        private final FrameProfiler m_profiler;
+
+        public EdgeTask(
+                Matrix4 screenSpaceTransform, Matrix4 normalTransform, List<EdgeChunk> chunks, boolean guardBand, int start, int end, FrameProfiler profiler) {
+            m_screenSpaceTransform = screenSpaceTransform;
+            m_normalTransform = normalTransform;
+            m_chunks = chunks;
+            m_guardBand = guardBand;
+            m_start = start;
+            m_end = end;
+            m_profiler = profiler;
+        }
+        
+        @Override
+        protected List<Edge> compute() {
+            if(m_end - m_start > 1){
+                int middle = (m_start + m_end) / 2;
+                EdgeTask first = new EdgeTask(m_screenSpaceTransform, m_normalTransform, m_chunks, m_guardBand, m_start, middle, m_profiler);
+                EdgeTask second = new EdgeTask(m_screenSpaceTransform, m_normalTransform, m_chunks, m_guardBand, middle, m_end, m_profiler);
+                second.fork();
+                List<Edge> edges = first.compute();
+                edges.addAll(second.join());
+                return edges;
+            }
+            EdgeChunk chunk = m_chunks.get(m_start);
+            List<Edge> edges = new ArrayList<>();
+            getEdges(
+                    m_screenSpaceTransform, m_normalTransform,
+                    chunk.m_vertexCache, chunk.m_indices, chunk.m_texture, chunk.m_cullMode, chunk.m_clip, m_guardBand, chunk.m_start, chunk.m_end, edges, m_profiler);
+            return edges;
+        }
+    }
+}
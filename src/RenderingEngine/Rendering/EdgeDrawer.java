@@ -1,302 +1,650 @@
-package RenderingEngine.Rendering;
-
-import RenderingEngine.Constructs.Edge;
-import RenderingEngine.Constructs.LightSource;
-import RenderingEngine.Constructs.Transform;
-import RenderingEngine.Constructs.Vertex;
-import RenderingEngine.CoreComponents.Bitmap;
-import RenderingEngine.CoreComponents.Matrix4;
-import RenderingEngine.CoreComponents.Vector4;
-import java.util.Arrays;
-import java.util.List;
-
-/**
- * EdgeDrawer contains static classes which draw triangles on a Bitmap based on a List of Edges
- * 
- * @author Eero Lempiö el415524@student.uta.fi
- */
-public class EdgeDrawer {
-    public static float[] drawzBuffer(List<Edge> edges, int resolution){
-        float[] zBuffer = getNewzBuffer(resolution, resolution);
-        for(int i = 0; i < edges.size() ; i += 3){
-            for(int j = edges.get(i + 2).getyStart(); j < edges.get(i + 2).getyEnd(); j++){
-                Edge left = edges.get(i);
-                Edge right = edges.get(i + 1);
-                float[] vals = getCoreValuesAndSteps(left, right);
-                for(int k = (int)vals[0]; k < (int)vals[1]; k++){
-                    int index = k + j * resolution;
-                    if(vals[5] < zBuffer[index])
-                        zBuffer[index] = vals[5];
-                    vals[5] += vals[4];
-                }
-                left.step();
-                right.step();
-            }
-        }
-        return zBuffer;
-    }
-    
-    public static void drawDepth(Bitmap frame, List<Edge> edges){
-        int width = frame.getWidth();
-        int height = frame.getHeight();
-        float[] zBuffer = getNewzBuffer(width, height);
-        for(int i = 0; i < edges.size() ; i += 3){
-            for(int j = edges.get(i + 2).getyStart(); j < edges.get(i + 2).getyEnd(); j++){
-                Edge left = edges.get(i);
-                Edge right = edges.get(i + 1);
-                float[] vals = getCoreValuesAndSteps(left, right);
-                for(int k = (int)vals[0]; k < (int)vals[1]; k++){
-                    int index = k + j * width;
-                    if(vals[5] < zBuffer[index]){
-                        zBuffer[index] = vals[5];
-                        int shade = (int)(-vals[5] * 255) +100;
-                        frame.drawPixel(k, j, (byte)shade, (byte)shade, (byte)shade, (byte)shade);
-                    }
-                    vals[5] += vals[4];
-                }
-                left.step();
-                right.step();
-            }
-        }
-    }
-    
-    public static void drawWireFrame(Bitmap frame, List<Edge> edges){
-        int width = frame.getWidth();
-        int height = frame.getHeight();
-        float[] zBuffer = getNewzBuffer(width, height);
-        for(int i = 0; i < edges.size() ; i += 3){
-            for(int j = edges.get(i + 2).getyStart(); j < edges.get(i + 2).getyEnd(); j++){
-                Edge left = edges.get(i);
-                Edge right = edges.get(i + 1);
-                float[] vals = getCoreValuesAndSteps(left, right);
-                for(int k = (int)vals[0]; k < (int)vals[1]; k++){
-                    int index = k + j * width;
-                    if(vals[5] < zBuffer[index] && (k == (int)vals[0] || k == (int)vals[1])){
-                        zBuffer[index] = vals[5];
-                        frame.drawPixel(k, j, (byte)255, (byte)255, (byte)255, (byte)255);
-                    }
-                    vals[5] += vals[4];
-                }
-                left.step();
-                right.step();
-            }
-        }
-    }
-    
-    public static void drawNormal(Bitmap frame, List<Edge> edges){
-        int width = frame.getWidth();
-        int height = frame.getHeight();
-        float[] zBuffer = getNewzBuffer(width, height);
-        for(int i = 0; i < edges.size() ; i += 3){
-            for(int j = edges.get(i + 2).getyStart(); j < edges.get(i + 2).getyEnd(); j++){
-                Edge left = edges.get(i);
-                Edge right = edges.get(i + 1);
-                float[] vals = getCoreValuesAndSteps(left, right);
-                float[] normalVals = getNormalValuesAndSteps(left, right, vals);
-                for(int k = (int)vals[0]; k < (int)vals[1]; k++){
-                    int index = k + j * width;
-                    if(vals[5] < zBuffer[index]){
-                        zBuffer[index] = vals[5];
-                        frame.drawPixel(k, j, (byte)255, (byte)((normalVals[5] + 1) * 127.5f), (byte)((normalVals[3] + 1) * 127.5f), (byte)((normalVals[1] + 1) * 127.5f));
-                    }
-                    vals[5] += vals[4];
-                    normalVals[1] += normalVals[0];
-                    normalVals[3] += normalVals[2];
-                    normalVals[5] += normalVals[4];
-                }
-                left.step();
-                right.step();
-            }
-        }
-    }
-    
-    public static void drawDiffuse(Bitmap frame, List<Edge> edges){
-        int width = frame.getWidth();
-        int height = frame.getHeight();
-        float[] zBuffer = getNewzBuffer(width, height);
-        for(int i = 0; i < edges.size() ; i += 3){
-            for(int j = edges.get(i + 2).getyStart(); j < edges.get(i + 2).getyEnd(); j++){
-                Edge left = edges.get(i);
-                Edge right = edges.get(i + 1);
-                Bitmap texture = left.getTexture();
-                int textureWidth = texture.getWidth();
-                int textureHeight = texture.getHeight();
-                float[] vals = getCoreValuesAndSteps(left, right);
-                float[] UVVals = getUVValuesAndSteps(left, right, vals);
-                for(int k = (int)vals[0]; k < (int)vals[1]; k++){
-                    int index = k + j * width;
-                    if(vals[5] < zBuffer[index]){
-                        zBuffer[index] = vals[5];
-                        float z = 1f / UVVals[5];
-                        int srcX = (int)((UVVals[1] * z) * (textureWidth - 1) + 0.5f);
-                        int srcY = (int)((UVVals[3] * z) * (textureHeight - 1) + 0.5f);
-                        int srcIndex = (srcX + srcY * textureWidth) * 4;
-                        frame.drawPixel(k, j, 
-                                texture.getComponent(srcIndex),
-                                texture.getComponent(srcIndex + 1),
-                                texture.getComponent(srcIndex + 2),
-                                texture.getComponent(srcIndex + 3));
-                    }
-                    vals[5] += vals[4];
-                    UVVals[1] += UVVals[0];
-                    UVVals[3] += UVVals[2];
-                    UVVals[5] += UVVals[4];
-                }
-                left.step();
-                right.step();
-            }
-        }
-    }
-    
-    public static void drawLighted(
-            Bitmap frame, List<Edge> edges, List<LightSource> lightSources,
-            Matrix4 inverseScreenSpaceTransform, Matrix4 lightScreenSpaceTransform, Matrix4 inverseViewProjection,
-            Matrix4 identity, int resolution, float[] ambientColor, float ambientIntensity){
-        int width = frame.getWidth();
-        int height = frame.getHeight();
-        float[] zBuffer = getNewzBuffer(width, height);
-        float[] wBuffer = new float[width * height];
-        Vector4[] normalBuffer = new Vector4[width * height];
-        for(int i = 0; i < edges.size() ; i += 3){
-            for(int j = edges.get(i + 2).getyStart(); j < edges.get(i + 2).getyEnd(); j++){
-                Edge left = edges.get(i);
-                Edge right = edges.get(i + 1);
-                Bitmap texture = left.getTexture();
-                int textureWidth = texture.getWidth();
-                int textureHeight = texture.getHeight();
-                float[] vals = getCoreValuesAndSteps(left, right);
-                float[] normalVals = getNormalValuesAndSteps(left, right, vals);
-                float[] UVVals = getUVValuesAndSteps(left, right, vals);
-                float wXStep = (right.getW() - left.getW())/vals[3];
-                float w = left.getW() + wXStep * vals[2];
-                for(int k = (int)vals[0]; k < (int)vals[1]; k++){
-                    int index = k + j * width;
-                    if(vals[5] < zBuffer[index]){
-                        zBuffer[index] = vals[5];
-                        wBuffer[index] = w;
-                        normalBuffer[index] = new Vector4(normalVals[1], normalVals[3], normalVals[5]);
-                        float z = 1f / UVVals[5];
-                        int srcX = (int)((UVVals[1] * z) * (textureWidth - 1) + 0.5f);
-                        int srcY = (int)((UVVals[3] * z) * (textureHeight - 1) + 0.5f);
-                        int srcIndex = (srcX + srcY * textureWidth) * 4;
-                        frame.drawPixel(k, j, 
-                                texture.getComponent(srcIndex),
-                                texture.getComponent(srcIndex + 1),
-                                texture.getComponent(srcIndex + 2),
-                                texture.getComponent(srcIndex + 3));
-                    }
-                    vals[5] += vals[4];
-                    normalVals[1] += normalVals[0];
-                    normalVals[3] += normalVals[2];
-                    normalVals[5] += normalVals[4];
-                    UVVals[1] += UVVals[0];
-                    UVVals[3] += UVVals[2];
-                    UVVals[5] += UVVals[4];
-                }
-                left.step();
-                right.step();
-            }
-        }
-        
-        int lightSourcesAmnt = lightSources.size();
-        
-        float[][] lightColors = new float[lightSourcesAmnt][3];
-        float[] lightIntensities = new float[lightSourcesAmnt];
-        float[][] lightzBuffers = new float[lightSourcesAmnt][];
-        Matrix4[] lightViewProjections = new Matrix4[lightSourcesAmnt];
-        Transform[] lightTransforms = new Transform[lightSourcesAmnt];
-        
-        for(int i = 0; i < lightSourcesAmnt; i++){
-            lightColors[i] = lightSources.get(i).getColorValues();
-            lightIntensities[i] = lightSources.get(i).getIntensity();
-            lightViewProjections[i] = lightSources.get(i).getViewProjection();
-            lightzBuffers[i] = lightSources.get(i).getzBuffer();
-            lightTransforms[i] = lightSources.get(i).getTransform();
-        }
-
-        for(int i = 0; i < width; i++){
-            for(int j = 0; j < height; j++){
-                if(zBuffer[j*width + i] != Float.MAX_VALUE){
-                    float[] pixelLightIntensity = new float[lightSourcesAmnt];
-                    for(int m = 0; m < lightSourcesAmnt; m++){
-                        Vertex v = new Vertex(new Vector4(i, j, zBuffer[j*width + i], wBuffer[j*width + i]), new Vector4(0f,0f,0f), normalBuffer[j*width + i]);
-                        v = v.perspectiveUnDivide().transform(inverseScreenSpaceTransform, identity).transform(inverseViewProjection, identity);
-                        v = v.transform(lightViewProjections[m], identity);
-                        float intensity = 0;
-                        if(v.isInsideViewFrustum()){
-                            v = v.transform(lightScreenSpaceTransform, identity).perspectiveDivide();
-                            if(lightzBuffers[m][(int)v.getPosition().getY() * resolution + (int)v.getPosition().getX()] > v.getPosition().getZ() - 0.001){
-                                intensity = lightTransforms[m].getRotation().getDown().dot(v.getNormal());
-                                if(intensity < 0)
-                                    intensity = 0;
-                                if(intensity > 1)
-                                    intensity = 1;
-                                intensity *= lightIntensities[m];
-                            }
-                        }
-                        pixelLightIntensity[m] = intensity;
-                    }
-                    float[] pixelLightColors = new float[3];
-                    for(int m = 0; m < lightSourcesAmnt; m++){
-                        for(int k = 0; k < 3; k++)
-                            pixelLightColors[k] += lightColors[m][k] * pixelLightIntensity[m];
-                            
-                    }
-                    for(int k = 0; k < 3; k++){
-                        pixelLightColors[k] += ambientColor[k] * ambientIntensity;
-                        if(pixelLightColors[k] > 1)
-                                pixelLightColors[k] = 1;
-                    }
-                    byte[] pixel = frame.getPixelValues(i, j);
-                    float[] pixelValues = new float[3];
-                    for(int m = 0; m < 3; m++){
-                        pixelValues[m] = (float)(pixel[m + 1] & 0XFF) / 255 * pixelLightColors[m];
-                        if(pixelValues[m] > 1)
-                            pixelValues[m] = 1;
-                    }
-                    frame.drawPixel(i, j, (byte)0, (byte)(int)(pixelValues[0] * 255), (byte)(int)(pixelValues[1] * 255), (byte)(int)(pixelValues[2] * 255));
-                }
-            }
-        }
-    }
-    
-    private static float[] getNewzBuffer(int width, int height){
-        float[] zBuffer = new float[width * height];
-        Arrays.fill(zBuffer, Float.MAX_VALUE);
-        return zBuffer;
-    }
-    
-    private static float[] getCoreValuesAndSteps(Edge left, Edge right){
-        float[] vals = new float[6];
-        vals[0] = (int)Math.ceil(left.getX());
-        vals[1] = (int)Math.ceil(right.getX());
-        vals[2] = vals[0] - left.getX();
-        vals[3] = right.getX() - left.getX();
-        vals[4] = (right.getDepth() - left.getDepth())/vals[3];
-        vals[5] = left.getDepth() + vals[4] * vals[2];
-        
-        return vals;
-    }
-    
-    private static float[] getNormalValuesAndSteps(Edge left, Edge right, float[] vals){
-        float[] normalVals = new float[6];
-        normalVals[0] = (right.getNormalX() - left.getNormalX())/vals[3];
-        normalVals[1] = left.getNormalX() + normalVals[0] * vals[2];
-        normalVals[2] = (right.getNormalY() - left.getNormalY())/vals[3];
-        normalVals[3] = left.getNormalY() + normalVals[2] * vals[2];
-        normalVals[4] = (right.getNormalZ() - left.getNormalZ())/vals[3];
-        normalVals[5] = left.getNormalZ() + normalVals[4] * vals[2];
-        return normalVals;
-    }
-    
-    private static float[] getUVValuesAndSteps(Edge left, Edge right, float[] vals){
-        float[] UVVals = new float[6];
-        UVVals[0] = (right.getUVcoordX() - left.getUVcoordX())/vals[3];
-        UVVals[1] = left.getUVcoordX() + UVVals[0] * vals[2];
-        UVVals[2] = (right.getUVcoordY() - left.getUVcoordY())/vals[3];
-        UVVals[3] = left.getUVcoordY() + UVVals[2] * vals[2];
-        UVVals[4] = (right.getOneOverZ() - left.getOneOverZ())/vals[3];
-        UVVals[5] = left.getOneOverZ() + UVVals[4] * vals[2];
-        return UVVals;
-    }
-}
+package RenderingEngine.Rendering;
+
+import RenderingEngine.Constructs.Edge;
+import RenderingEngine.Constructs.LightSource;
+import RenderingEngine.CoreComponents.Bitmap;
+import RenderingEngine.CoreComponents.Matrix4;
+import RenderingEngine.CoreComponents.Vector4;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * EdgeDrawer contains static classes which draw triangles on a Bitmap based on a List of Edges
+ * 
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+public class EdgeDrawer {
+    /**
+    * The most rows of the GBuffer a single task shades when a frame is shaded in parallel
+    */
+    public static final int SHADING_BAND_HEIGHT = 16;
+    
+    public static float[] drawzBuffer(List<Edge> edges, int resolution){
+        float[] zBuffer = getNewzBuffer(resolution, resolution);
+        drawzBuffer(edges, zBuffer, resolution, 0, 0, resolution, resolution);
+        return zBuffer;
+    }
+    
+    public static void drawDepth(Bitmap frame, List<Edge> edges, FrameProfiler profiler){
+        long start = System.nanoTime();
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        float[] zBuffer = getNewzBuffer(width, height);
+        drawDepth(frame, edges, zBuffer, 0, 0, width, height, profiler);
+        addTime(profiler, FrameProfiler.Stage.RASTERIZATION, start);
+    }
+    
+    public static void drawWireFrame(Bitmap frame, List<Edge> edges, FrameProfiler profiler){
+        long start = System.nanoTime();
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        float[] zBuffer = getNewzBuffer(width, height);
+        drawWireFrame(frame, edges, zBuffer, 0, 0, width, height, profiler);
+        addTime(profiler, FrameProfiler.Stage.RASTERIZATION, start);
+    }
+    
+    public static void drawNormal(Bitmap frame, List<Edge> edges, FrameProfiler profiler){
+        long start = System.nanoTime();
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        float[] zBuffer = getNewzBuffer(width, height);
+        drawNormal(frame, edges, zBuffer, 0, 0, width, height, profiler);
+        addTime(profiler, FrameProfiler.Stage.RASTERIZATION, start);
+    }
+    
+    public static void drawDiffuse(Bitmap frame, List<Edge> edges, FrameProfiler profiler){
+        long start = System.nanoTime();
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        float[] zBuffer = getNewzBuffer(width, height);
+        drawDiffuse(frame, edges, zBuffer, 0, 0, width, height, profiler);
+        addTime(profiler, FrameProfiler.Stage.RASTERIZATION, start);
+    }
+    
+    /**
+    * Draws the triangles in List edges lit by List lightSources to Bitmap frame, storing the geometry of the frame in GBuffer gBuffer before shading it.
+    * The geometry is drawn on the calling thread, and the GBuffer is shaded in bands of rows on ForkJoinPool pool.
+    * Drawing the geometry is profiled as rasterization and lighting it as shading
+    */
+    public static void drawLighted(
+            ForkJoinPool pool, Bitmap frame, List<Edge> edges, GBuffer gBuffer, List<LightSource> lightSources,
+            Matrix4 inverseScreenSpaceTransform, Matrix4 lightScreenSpaceTransform, Matrix4 inverseViewProjection,
+            int resolution, float[] ambientColor, float ambientIntensity, FrameProfiler profiler){
+        long start = System.nanoTime();
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        gBuffer.resize(width, height);
+        gBuffer.clear();
+        drawLightedGeometry(edges, gBuffer, 0, 0, width, height, profiler);
+        start = addTime(profiler, FrameProfiler.Stage.RASTERIZATION, start);
+        Lighting lighting = new Lighting(
+                lightSources, inverseScreenSpaceTransform, lightScreenSpaceTransform, inverseViewProjection, resolution, ambientColor, ambientIntensity);
+        shadeLighted(pool, frame, gBuffer, lighting);
+        addTime(profiler, FrameProfiler.Stage.SHADING, start);
+    }
+    
+    /**
+    * Draws the depth of the triangles in List edges to float[] zBuffer, limited to the pixels from (int minX, int minY) up to but not including (int maxX, int maxY)
+    */
+    static void drawzBuffer(List<Edge> edges, float[] zBuffer, int resolution, int minX, int minY, int maxX, int maxY){
+        for(int i = 0; i < edges.size() ; i += 3){
+            Edge left = edges.get(i);
+            Edge right = edges.get(i + 1);
+            int yStart = skipRows(left, right, edges.get(i + 2), minY, maxY);
+            int yEnd = Math.min(edges.get(i + 2).getyEnd(), maxY);
+            for(int j = yStart; j < yEnd; j++){
+                if(isSpanOutside(left, right, minX, maxX)){
+                    left.step();
+                    right.step();
+                    continue;
+                }
+                float[] vals = getCoreValuesAndSteps(left, right);
+                int xStart = Math.max((int)vals[0], minX);
+                int xEnd = Math.min((int)vals[1], maxX);
+                int skipped = xStart - (int)vals[0];
+                if(skipped > 0)
+                    step(vals, 4, skipped);
+                for(int k = xStart; k < xEnd; k++){
+                    int index = k + j * resolution;
+                    if(vals[5] < zBuffer[index])
+                        zBuffer[index] = vals[5];
+                    vals[5] += vals[4];
+                }
+                left.step();
+                right.step();
+            }
+        }
+    }
+    
+    /**
+    * Draws the triangles in List edges to Bitmap frame shaded by their depth, limited to the pixels from (int minX, int minY) up to but not including (int maxX, int maxY).
+    * The fragments are counted to FrameProfiler profiler, unless it is null
+    */
+    static void drawDepth(Bitmap frame, List<Edge> edges, float[] zBuffer, int minX, int minY, int maxX, int maxY, FrameProfiler profiler){
+        int width = frame.getWidth();
+        long tested = 0;
+        long written = 0;
+        for(int i = 0; i < edges.size() ; i += 3){
+            Edge left = edges.get(i);
+            Edge right = edges.get(i + 1);
+            int yStart = skipRows(left, right, edges.get(i + 2), minY, maxY);
+            int yEnd = Math.min(edges.get(i + 2).getyEnd(), maxY);
+            for(int j = yStart; j < yEnd; j++){
+                if(isSpanOutside(left, right, minX, maxX)){
+                    left.step();
+                    right.step();
+                    continue;
+                }
+                float[] vals = getCoreValuesAndSteps(left, right);
+                int xStart = Math.max((int)vals[0], minX);
+                int xEnd = Math.min((int)vals[1], maxX);
+                int skipped = xStart - (int)vals[0];
+                if(skipped > 0)
+                    step(vals, 4, skipped);
+                for(int k = xStart; k < xEnd; k++){
+                    int index = k + j * width;
+                    if(vals[5] < zBuffer[index]){
+                        zBuffer[index] = vals[5];
+                        written++;
+                        int shade = (int)(-vals[5] * 255) +100;
+                        frame.drawPixel(k, j, (byte)shade, (byte)shade, (byte)shade, (byte)shade);
+                    }
+                    vals[5] += vals[4];
+                }
+                tested += Math.max(xEnd - xStart, 0);
+                left.step();
+                right.step();
+            }
+        }
+        addFragments(profiler, tested, written);
+    }
+    
+    /**
+    * Draws the outlines of the triangles in List edges to Bitmap frame, limited to the pixels from (int minX, int minY) up to but not including (int maxX, int maxY).
+    * The fragments are counted to FrameProfiler profiler, unless it is null
+    */
+    static void drawWireFrame(Bitmap frame, List<Edge> edges, float[] zBuffer, int minX, int minY, int maxX, int maxY, FrameProfiler profiler){
+        int width = frame.getWidth();
+        long tested = 0;
+        long written = 0;
+        for(int i = 0; i < edges.size() ; i += 3){
+            Edge left = edges.get(i);
+            Edge right = edges.get(i + 1);
+            int yStart = skipRows(left, right, edges.get(i + 2), minY, maxY);
+            int yEnd = Math.min(edges.get(i + 2).getyEnd(), maxY);
+            for(int j = yStart; j < yEnd; j++){
+                if(isSpanOutside(left, right, minX, maxX)){
+                    left.step();
+                    right.step();
+                    continue;
+                }
+                float[] vals = getCoreValuesAndSteps(left, right);
+                int xStart = Math.max((int)vals[0], minX);
+                int xEnd = Math.min((int)vals[1], maxX);
+                int skipped = xStart - (int)vals[0];
+                if(skipped > 0)
+                    step(vals, 4, skipped);
+                for(int k = xStart; k < xEnd; k++){
+                    int index = k + j * width;
+                    if(vals[5] < zBuffer[index] && (k == (int)vals[0] || k == (int)vals[1])){
+                        zBuffer[index] = vals[5];
+                        written++;
+                        frame.drawPixel(k, j, (byte)255, (byte)255, (byte)255, (byte)255);
+                    }
+                    vals[5] += vals[4];
+                }
+                tested += Math.max(xEnd - xStart, 0);
+                left.step();
+                right.step();
+            }
+        }
+        addFragments(profiler, tested, written);
+    }
+    
+    /**
+    * Draws the triangles in List edges to Bitmap frame colored by their normals, limited to the pixels from (int minX, int minY) up to but not including (int maxX, int maxY).
+    * The fragments are counted to FrameProfiler profiler, unless it is null
+    */
+    static void drawNormal(Bitmap frame, List<Edge> edges, float[] zBuffer, int minX, int minY, int maxX, int maxY, FrameProfiler profiler){
+        int width = frame.getWidth();
+        long tested = 0;
+        long written = 0;
+        for(int i = 0; i < edges.size() ; i += 3){
+            Edge left = edges.get(i);
+            Edge right = edges.get(i + 1);
+            int yStart = skipRows(left, right, edges.get(i + 2), minY, maxY);
+            int yEnd = Math.min(edges.get(i + 2).getyEnd(), maxY);
+            for(int j = yStart; j < yEnd; j++){
+                if(isSpanOutside(left, right, minX, maxX)){
+                    left.step();
+                    right.step();
+                    continue;
+                }
+                float[] vals = getCoreValuesAndSteps(left, right);
+                float[] normalVals = getNormalValuesAndSteps(left, right, vals);
+                int xStart = Math.max((int)vals[0], minX);
+                int xEnd = Math.min((int)vals[1], maxX);
+                int skipped = xStart - (int)vals[0];
+                if(skipped > 0){
+                    step(vals, 4, skipped);
+                    step(normalVals, 0, skipped);
+                }
+                for(int k = xStart; k < xEnd; k++){
+                    int index = k + j * width;
+                    if(vals[5] < zBuffer[index]){
+                        zBuffer[index] = vals[5];
+                        written++;
+                        frame.drawPixel(k, j, (byte)255, (byte)((normalVals[5] + 1) * 127.5f), (byte)((normalVals[3] + 1) * 127.5f), (byte)((normalVals[1] + 1) * 127.5f));
+                    }
+                    vals[5] += vals[4];
+                    normalVals[1] += normalVals[0];
+                    normalVals[3] += normalVals[2];
+                    normalVals[5] += normalVals[4];
+                }
+                tested += Math.max(xEnd - xStart, 0);
+                left.step();
+                right.step();
+            }
+        }
+        addFragments(profiler, tested, written);
+    }
+    
+    /**
+    * Draws the triangles in List edges to Bitmap frame textured by their Edges textures, limited to the pixels from (int minX, int minY) up to but not including (int maxX, int maxY).
+    * The fragments are counted to FrameProfiler profiler, unless it is null
+    */
+    static void drawDiffuse(Bitmap frame, List<Edge> edges, float[] zBuffer, int minX, int minY, int maxX, int maxY, FrameProfiler profiler){
+        int width = frame.getWidth();
+        long tested = 0;
+        long written = 0;
+        for(int i = 0; i < edges.size() ; i += 3){
+            Edge left = edges.get(i);
+            Edge right = edges.get(i + 1);
+            Bitmap texture = left.getTexture();
+            int textureWidth = texture.getWidth();
+            int textureHeight = texture.getHeight();
+            int yStart = skipRows(left, right, edges.get(i + 2), minY, maxY);
+            int yEnd = Math.min(edges.get(i + 2).getyEnd(), maxY);
+            for(int j = yStart; j < yEnd; j++){
+                if(isSpanOutside(left, right, minX, maxX)){
+                    left.step();
+                    right.step();
+                    continue;
+                }
+                float[] vals = getCoreValuesAndSteps(left, right);
+                float[] UVVals = getUVValuesAndSteps(left, right, vals);
+                int xStart = Math.max((int)vals[0], minX);
+                int xEnd = Math.min((int)vals[1], maxX);
+                int skipped = xStart - (int)vals[0];
+                if(skipped > 0){
+                    step(vals, 4, skipped);
+                    step(UVVals, 0, skipped);
+                }
+                for(int k = xStart; k < xEnd; k++){
+                    int index = k + j * width;
+                    if(vals[5] < zBuffer[index]){
+                        zBuffer[index] = vals[5];
+                        written++;
+                        float z = 1f / UVVals[5];
+                        int srcX = (int)((UVVals[1] * z) * (textureWidth - 1) + 0.5f);
+                        int srcY = (int)((UVVals[3] * z) * (textureHeight - 1) + 0.5f);
+                        int srcIndex = (srcX + srcY * textureWidth) * 4;
+                        frame.drawPixel(k, j, 
+                                texture.getComponent(srcIndex),
+                                texture.getComponent(srcIndex + 1),
+                                texture.getComponent(srcIndex + 2),
+                                texture.getComponent(srcIndex + 3));
+                    }
+                    vals[5] += vals[4];
+                    UVVals[1] += UVVals[0];
+                    UVVals[3] += UVVals[2];
+                    UVVals[5] += UVVals[4];
+                }
+                tested += Math.max(xEnd - xStart, 0);
+                left.step();
+                right.step();
+            }
+        }
+        addFragments(profiler, tested, written);
+    }
+    
+    /**
+    * Draws the triangles in List edges to GBuffer gBuffer, storing their depth, w, normals and texture colors for shading,
+    * limited to the pixels from (int minX, int minY) up to but not including (int maxX, int maxY).
+    * The fragments are counted to FrameProfiler profiler, unless it is null
+    */
+    static void drawLightedGeometry(List<Edge> edges, GBuffer gBuffer, int minX, int minY, int maxX, int maxY, FrameProfiler profiler){
+        int width = gBuffer.getWidth();
+        float[] zBuffer = gBuffer.getDepth();
+        float[] wBuffer = gBuffer.getW();
+        float[] normalBuffer = gBuffer.getNormals();
+        int[] albedoBuffer = gBuffer.getAlbedo();
+        long tested = 0;
+        long written = 0;
+        for(int i = 0; i < edges.size() ; i += 3){
+            Edge left = edges.get(i);
+            Edge right = edges.get(i + 1);
+            Bitmap texture = left.getTexture();
+            int textureWidth = texture.getWidth();
+            int textureHeight = texture.getHeight();
+            int yStart = skipRows(left, right, edges.get(i + 2), minY, maxY);
+            int yEnd = Math.min(edges.get(i + 2).getyEnd(), maxY);
+            for(int j = yStart; j < yEnd; j++){
+                if(isSpanOutside(left, right, minX, maxX)){
+                    left.step();
+                    right.step();
+                    continue;
+                }
+                float[] vals = getCoreValuesAndSteps(left, right);
+                float[] normalVals = getNormalValuesAndSteps(left, right, vals);
+                float[] UVVals = getUVValuesAndSteps(left, right, vals);
+                float wXStep = (right.getW() - left.getW())/vals[3];
+                float w = left.getW() + wXStep * vals[2];
+                int xStart = Math.max((int)vals[0], minX);
+                int xEnd = Math.min((int)vals[1], maxX);
+                int skipped = xStart - (int)vals[0];
+                if(skipped > 0){
+                    step(vals, 4, skipped);
+                    step(normalVals, 0, skipped);
+                    step(UVVals, 0, skipped);
+                }
+                for(int k = xStart; k < xEnd; k++){
+                    int index = k + j * width;
+                    if(vals[5] < zBuffer[index]){
+                        zBuffer[index] = vals[5];
+                        written++;
+                        wBuffer[index] = w;
+                        int n = index * GBuffer.NORMAL_SIZE;
+                        normalBuffer[n] = normalVals[1];
+                        normalBuffer[n + 1] = normalVals[3];
+                        normalBuffer[n + 2] = normalVals[5];
+                        float z = 1f / UVVals[5];
+                        int srcX = (int)((UVVals[1] * z) * (textureWidth - 1) + 0.5f);
+                        int srcY = (int)((UVVals[3] * z) * (textureHeight - 1) + 0.5f);
+                        int srcIndex = (srcX + srcY * textureWidth) * 4;
+                        albedoBuffer[index] = GBuffer.packAlbedo(
+                                texture.getComponent(srcIndex + 1),
+                                texture.getComponent(srcIndex + 2),
+                                texture.getComponent(srcIndex + 3));
+                    }
+                    vals[5] += vals[4];
+                    normalVals[1] += normalVals[0];
+                    normalVals[3] += normalVals[2];
+                    normalVals[5] += normalVals[4];
+                    UVVals[1] += UVVals[0];
+                    UVVals[3] += UVVals[2];
+                    UVVals[5] += UVVals[4];
+                }
+                tested += Math.max(xEnd - xStart, 0);
+                left.step();
+                right.step();
+            }
+        }
+        addFragments(profiler, tested, written);
+    }
+    
+    /**
+    * Lights every pixel stored in GBuffer gBuffer with Lighting lighting and draws them to Bitmap frame, splitting the rows into bands
+    * of at most SHADING_BAND_HEIGHT rows that are shaded in parallel on ForkJoinPool pool
+    */
+    static void shadeLighted(ForkJoinPool pool, Bitmap frame, GBuffer gBuffer, Lighting lighting){
+        pool.invoke(new ShadeTask(frame, gBuffer, lighting, 0, gBuffer.getHeight()));
+    }
+    
+    /**
+    * Lights the pixels stored in GBuffer gBuffer by drawLightedGeometry with the LightSources and the ambient light of Lighting lighting and draws them to Bitmap frame,
+    * limited to the pixels from (int minX, int minY) up to but not including (int maxX, int maxY). The pixels are shaded row by row.
+    * The interpolated normals stored in the GBuffer are given a w of 1 before they are compared to the down direction of a LightSource, which also has a w of 1.
+    */
+    static void shadeLighted(Bitmap frame, GBuffer gBuffer, Lighting lighting, int minX, int minY, int maxX, int maxY){
+        int width = gBuffer.getWidth();
+        float[] zBuffer = gBuffer.getDepth();
+        float[] wBuffer = gBuffer.getW();
+        float[] normalBuffer = gBuffer.getNormals();
+        int[] albedoBuffer = gBuffer.getAlbedo();
+        int lightSourcesAmnt = lighting.m_lightColors.length;
+        float[][] lightColors = lighting.m_lightColors;
+        float[] lightIntensities = lighting.m_lightIntensities;
+        float[][] lightzBuffers = lighting.m_lightzBuffers;
+        float[][] screenToLightTransforms = lighting.m_screenToLightTransforms;
+        float[][] lightDirections = lighting.m_lightDirections;
+        int resolution = lighting.m_resolution;
+        float lightScaleX = lighting.m_lightScaleX;
+        float lightOffsetX = lighting.m_lightOffsetX;
+        float lightScaleY = lighting.m_lightScaleY;
+        float lightOffsetY = lighting.m_lightOffsetY;
+        float ambientBlue = lighting.m_ambientBlue;
+        float ambientGreen = lighting.m_ambientGreen;
+        float ambientRed = lighting.m_ambientRed;
+
+        for(int j = minY; j < maxY; j++){
+            for(int i = minX; i < maxX; i++){
+                int index = j*width + i;
+                float depth = zBuffer[index];
+                if(depth != Float.MAX_VALUE){
+                    float w = wBuffer[index];
+                    float x = i * w;
+                    float y = j * w;
+                    float z = depth * w;
+                    int n = index * GBuffer.NORMAL_SIZE;
+                    float normalX = normalBuffer[n];
+                    float normalY = normalBuffer[n + 1];
+                    float normalZ = normalBuffer[n + 2];
+                    float normalLength = (float)Math.sqrt(normalX*normalX + normalY*normalY + normalZ*normalZ + 1);
+                    float blue = 0;
+                    float green = 0;
+                    float red = 0;
+                    for(int m = 0; m < lightSourcesAmnt; m++){
+                        float[] t = screenToLightTransforms[m];
+                        float lightX = t[0]*x + t[1]*y + t[2]*z + t[3]*w;
+                        float lightY = t[4]*x + t[5]*y + t[6]*z + t[7]*w;
+                        float lightZ = t[8]*x + t[9]*y + t[10]*z + t[11]*w;
+                        float lightW = t[12]*x + t[13]*y + t[14]*z + t[15]*w;
+                        float absW = Math.abs(lightW);
+                        if(Math.abs(lightX) <= absW && Math.abs(lightY) <= absW && Math.abs(lightZ) <= absW){
+                            int lightMapX = (int)((lightScaleX * lightX + lightOffsetX * lightW) / lightW);
+                            int lightMapY = (int)((lightScaleY * lightY + lightOffsetY * lightW) / lightW);
+                            if(lightzBuffers[m][lightMapY * resolution + lightMapX] > lightZ / lightW - 0.001){
+                                float[] d = lightDirections[m];
+                                float intensity = (d[0]*normalX + d[1]*normalY + d[2]*normalZ + d[3]) / normalLength;
+                                if(intensity < 0)
+                                    intensity = 0;
+                                if(intensity > 1)
+                                    intensity = 1;
+                                intensity *= lightIntensities[m];
+                                blue += lightColors[m][0] * intensity;
+                                green += lightColors[m][1] * intensity;
+                                red += lightColors[m][2] * intensity;
+                            }
+                        }
+                    }
+                    int albedo = albedoBuffer[index];
+                    blue = Math.min((float)(albedo >>> 16) / 255 * Math.min(blue + ambientBlue, 1), 1);
+                    green = Math.min((float)(albedo >>> 8 & 0xFF) / 255 * Math.min(green + ambientGreen, 1), 1);
+                    red = Math.min((float)(albedo & 0xFF) / 255 * Math.min(red + ambientRed, 1), 1);
+                    frame.drawPixel(i, j, (byte)0, (byte)(int)(blue * 255), (byte)(int)(green * 255), (byte)(int)(red * 255));
+                }
+            }
+        }
+    }
+    
+    /**
+    * Adds the nanoseconds since long start to Stage stage of FrameProfiler profiler, unless it is null, and returns the current time
+    */
+    static long addTime(FrameProfiler profiler, FrameProfiler.Stage stage, long start){
+        long now = System.nanoTime();
+        if(profiler != null)
+            profiler.addTime(stage, now - start);
+        return now;
+    }
+    
+    private static void addFragments(FrameProfiler profiler, long tested, long written){
+        if(profiler != null){
+            profiler.add(FrameProfiler.Counter.FRAGMENTS_TESTED, tested);
+            profiler.add(FrameProfiler.Counter.FRAGMENTS_WRITTEN, written);
+        }
+    }
+    
+    /**
+    * Steps Edge left and Edge right of a triangle half with Edge middle past the rows above int minY without drawing them, and returns the first row to draw.
+    * The Edges end up exactly where stepping them row by row would have left them, so an Edge shared with the other half of the triangle continues from the right row
+    */
+    private static int skipRows(Edge left, Edge right, Edge middle, int minY, int maxY){
+        int yStart = middle.getyStart();
+        if(yStart >= minY)
+            return yStart;
+        int skipped = Math.min(minY, Math.min(middle.getyEnd(), maxY)) - yStart;
+        if(skipped > 0){
+            left.step(skipped);
+            right.step(skipped);
+        }
+        return minY;
+    }
+    
+    /**
+    * Returns true if the span between Edge left and Edge right on their current row has no pixels from int minX up to but not including int maxX
+    */
+    private static boolean isSpanOutside(Edge left, Edge right, int minX, int maxX){
+        return (int)Math.ceil(right.getX()) <= minX || (int)Math.ceil(left.getX()) >= maxX;
+    }
+    
+    /**
+    * Steps the values of float[] valuesAndSteps, each stored after its step from index int from on, int steps pixels along a row.
+    * The steps are added one pixel at a time like in the drawing loops, so the pixels after the skipped ones get exactly the values they would have had without skipping
+    */
+    private static void step(float[] valuesAndSteps, int from, int steps){
+        for(int i = from; i < valuesAndSteps.length; i += 2){
+            float value = valuesAndSteps[i + 1];
+            for(int j = 0; j < steps; j++)
+                value += valuesAndSteps[i];
+            valuesAndSteps[i + 1] = value;
+        }
+    }
+    
+    static float[] getNewzBuffer(int width, int height){
+        float[] zBuffer = new float[width * height];
+        Arrays.fill(zBuffer, Float.MAX_VALUE);
+        return zBuffer;
+    }
+    
+    private static float[] getCoreValuesAndSteps(Edge left, Edge right){
+        float[] vals = new float[6];
+        vals[0] = (int)Math.ceil(left.getX());
+        vals[1] = (int)Math.ceil(right.getX());
+        vals[2] = vals[0] - left.getX();
+        vals[3] = right.getX() - left.getX();
+        vals[4] = (right.getDepth() - left.getDepth())/vals[3];
+        vals[5] = left.getDepth() + vals[4] * vals[2];
+        
+        return vals;
+    }
+    
+    private static float[] getNormalValuesAndSteps(Edge left, Edge right, float[] vals){
+        float[] normalVals = new float[6];
+        normalVals[0] = (right.getNormalX() - left.getNormalX())/vals[3];
+        normalVals[1] = left.getNormalX() + normalVals[0] * vals[2];
+        normalVals[2] = (right.getNormalY() - left.getNormalY())/vals[3];
+        normalVals[3] = left.getNormalY() + normalVals[2] * vals[2];
+        normalVals[4] = (right.getNormalZ() - left.getNormalZ())/vals[3];
+        normalVals[5] = left.getNormalZ() + normalVals[4] * vals[2];
+        return normalVals;
+    }
+    
+    private static float[] getUVValuesAndSteps(Edge left, Edge right, float[] vals){
+        float[] UVVals = new float[6];
+        UVVals[0] = (right.getUVcoordX() - left.getUVcoordX())/vals[3];
+        UVVals[1] = left.getUVcoordX() + UVVals[0] * vals[2];
+        UVVals[2] = (right.getUVcoordY() - left.getUVcoordY())/vals[3];
+        UVVals[3] = left.getUVcoordY() + UVVals[2] * vals[2];
+        UVVals[4] = (right.getOneOverZ() - left.getOneOverZ())/vals[3];
+        UVVals[5] = left.getOneOverZ() + UVVals[4] * vals[2];
+        return UVVals;
+    }
+    
+    /**
+    * Lighting holds what shading a frame needs from its LightSources and the ambient light, calculated once per frame and shared by every part of the frame shaded with shadeLighted.
+    * The transforms from the frame's screen space to each LightSource's view are combined to a single matrix per LightSource
+    */
+    static class Lighting{
+        private final float[][] m_lightColors;
+        private final float[] m_lightIntensities;
+        private final float[][] m_lightzBuffers;
+        private final float[][] m_screenToLightTransforms;
+        private final float[][] m_lightDirections;
+        private final int m_resolution;
+        private final float m_lightScaleX, m_lightOffsetX, m_lightScaleY, m_lightOffsetY;
+        private final float m_ambientBlue, m_ambientGreen, m_ambientRed;
+        
+        /**
+        * Creates the Lighting of a frame lit by List lightSources, whose light maps are int resolution wide and tall, and the ambient light of color float[] ambientColor
+        * and intensity float ambientIntensity. The pixels of the frame are transformed back to world space by Matrix4 inverseScreenSpaceTransform and Matrix4 inverseViewProjection,
+        * and to the light maps by each LightSource's view projection and Matrix4 lightScreenSpaceTransform
+        */
+        Lighting(
+                List<LightSource> lightSources, Matrix4 inverseScreenSpaceTransform, Matrix4 lightScreenSpaceTransform, Matrix4 inverseViewProjection,
+                int resolution, float[] ambientColor, float ambientIntensity){
+            int lightSourcesAmnt = lightSources.size();
+            m_lightColors = new float[lightSourcesAmnt][3];
+            m_lightIntensities = new float[lightSourcesAmnt];
+            m_lightzBuffers = new float[lightSourcesAmnt][];
+            m_screenToLightTransforms = new float[lightSourcesAmnt][16];
+            m_lightDirections = new float[lightSourcesAmnt][4];
+            
+            Matrix4 screenToWorld = inverseViewProjection.mul(inverseScreenSpaceTransform);
+            for(int i = 0; i < lightSourcesAmnt; i++){
+                LightSource ls = lightSources.get(i);
+                m_lightColors[i] = ls.getColorValues();
+                m_lightIntensities[i] = ls.getIntensity();
+                m_lightzBuffers[i] = ls.getzBuffer();
+                Matrix4 screenToLight = ls.getViewProjection().mul(screenToWorld);
+                for(int row = 0; row < 4; row++)
+                    for(int col = 0; col < 4; col++)
+                        m_screenToLightTransforms[i][row * 4 + col] = screenToLight.get(row, col);
+                Vector4 down = ls.getTransform().getRotation().getDown();
+                m_lightDirections[i] = new float[]{down.getX(), down.getY(), down.getZ(), down.getW()};
+            }
+            m_resolution = resolution;
+            m_lightScaleX = lightScreenSpaceTransform.get(0, 0);
+            m_lightOffsetX = lightScreenSpaceTransform.get(0, 3);
+            m_lightScaleY = lightScreenSpaceTransform.get(1, 1);
+            m_lightOffsetY = lightScreenSpaceTransform.get(1, 3);
+            m_ambientBlue = ambientColor[0] * ambientIntensity;
+            m_ambientGreen = ambientColor[1] * ambientIntensity;
+            m_ambientRed = ambientColor[2] * ambientIntensity;
+        }
+    }
+    
+    /**
+    * ShadeTask shades a band of rows of a GBuffer to a Bitmap, splitting itself until the band is at most SHADING_BAND_HEIGHT rows tall
+    */
+    private static class ShadeTask extends RecursiveAction{
+        private static final long serialVersionUID = 1L;
+        
+        private final Bitmap m_frame;
+        private final GBuffer m_gBuffer;
+        private final Lighting m_lighting;
+        private final int m_minY, m_maxY;
+
+        public ShadeTask(Bitmap frame, GBuffer gBuffer, Lighting lighting, int minY, int maxY) {
+            m_frame = frame;
+            m_gBuffer = gBuffer;
+            m_lighting = lighting;
+            m_minY = minY;
+            m_maxY = maxY;
+        }
+        
+        @Override
+        protected void compute() {
+            if(m_maxY - m_minY > SHADING_BAND_HEIGHT){
+                int middle = (m_minY + m_maxY) / 2;
+                invokeAll(
+                        new ShadeTask(m_frame, m_gBuffer, m_lighting, m_minY, middle),
+                        new ShadeTask(m_frame, m_gBuffer, m_lighting, middle, m_maxY));
+                return;
+            }
+            shadeLighted(m_frame, m_gBuffer, m_lighting, 0, m_minY, m_gBuffer.getWidth(), m_maxY);
+        }
+    }
+}
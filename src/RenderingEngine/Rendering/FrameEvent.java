@@ -0,0 +1,82 @@
+package RenderingEngine.Rendering;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * FrameEvent is a Java Flight Recorder event recorded for every frame RenderPanel draws,
+ * containing the Stage times and Counters of the frame's FrameProfiler.
+ * The event is only committed while a recording with it enabled is running, for example one started with
+ * -XX:StartFlightRecording
+ * 
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+@Name("RenderingEngine.Frame")
+@Label("Frame")
+@Category("Rendering Engine")
+@Description("A frame drawn by a RenderPanel")
+public class FrameEvent extends jdk.jfr.Event {
+    @Label("Mode")
+    String mode;
+    
+    @Label("Width")
+    int width;
+    
+    @Label("Height")
+    int height;
+    
+    @Label("Geometry")
+    @Timespan(Timespan.NANOSECONDS)
+    long geometry;
+    
+    @Label("Shadow Maps")
+    @Timespan(Timespan.NANOSECONDS)
+    long shadowMaps;
+    
+    @Label("Rasterization")
+    @Timespan(Timespan.NANOSECONDS)
+    long rasterization;
+    
+    @Label("Shading")
+    @Timespan(Timespan.NANOSECONDS)
+    long shading;
+    
+    @Label("Objects Culled")
+    long objectsCulled;
+    @Label("Triangles In")
+    long trianglesIn;
+    
+    @Label("Triangles Clipped")
+    long trianglesClipped;
+    
+    @Label("Back Faces Culled")
+    long backFacesCulled;
+    
+    @Label("Fragments Tested")
+    long fragmentsTested;
+    
+    @Label("Fragments Written")
+    long fragmentsWritten;
+    
+    /**
+    * Sets the fields of this FrameEvent from a frame of Mode mode, int width pixels wide and int height pixels tall, profiled by FrameProfiler profiler
+    */
+    void set(OffscreenRenderer.Mode mode, int width, int height, FrameProfiler profiler) {
+        this.mode = mode.name();
+        this.width = width;
+        this.height = height;
+        geometry = profiler.getTime(FrameProfiler.Stage.GEOMETRY);
+        shadowMaps = profiler.getTime(FrameProfiler.Stage.SHADOW_MAPS);
+        rasterization = profiler.getTime(FrameProfiler.Stage.RASTERIZATION);
+        shading = profiler.getTime(FrameProfiler.Stage.SHADING);
+        objectsCulled = profiler.getCount(FrameProfiler.Counter.OBJECTS_CULLED);
+        trianglesIn = profiler.getCount(FrameProfiler.Counter.TRIANGLES_IN);
+        trianglesClipped = profiler.getCount(FrameProfiler.Counter.TRIANGLES_CLIPPED);
+        backFacesCulled = profiler.getCount(FrameProfiler.Counter.BACK_FACES_CULLED);
+        fragmentsTested = profiler.getCount(FrameProfiler.Counter.FRAGMENTS_TESTED);
+        fragmentsWritten = profiler.getCount(FrameProfiler.Counter.FRAGMENTS_WRITTEN);
+    }
+}
@@ -0,0 +1,87 @@
+package RenderingEngine.Rendering;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * FrameProfiler collects the time spent in each Stage of rendering a frame and the Counters of the triangles and fragments it went through.
+ * Stages and Counters may be added to from several threads at once, so frames drawn in parallel tiles or chunks are profiled as well.
+ * The time of a Stage run on several threads at once is the sum of the time spent on each thread.
+ * 
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+public class FrameProfiler {
+    /**
+    * Stage enumeration denotes the profiled stages of rendering a frame
+    */
+    public static enum Stage{
+        GEOMETRY, SHADOW_MAPS, RASTERIZATION, SHADING
+    }
+    
+    /**
+    * Counter enumeration denotes the counted objects, triangles and fragments of a frame
+    */
+    public static enum Counter{
+        OBJECTS_CULLED, TRIANGLES_IN, TRIANGLES_CLIPPED, BACK_FACES_CULLED, FRAGMENTS_TESTED, FRAGMENTS_WRITTEN
+    }
+    
+    private final AtomicLongArray m_stageTimes;
+    private final AtomicLongArray m_counters;
+    private volatile long m_frameTime;
+    
+    public FrameProfiler() {
+        m_stageTimes = new AtomicLongArray(Stage.values().length);
+        m_counters = new AtomicLongArray(Counter.values().length);
+    }
+    
+    /**
+    * Returns the nanoseconds spent in Stage stage
+    */
+    public long getTime(Stage stage) {return m_stageTimes.get(stage.ordinal());}
+    
+    /**
+    * Returns the value of Counter counter
+    */
+    public long getCount(Counter counter) {return m_counters.get(counter.ordinal());}
+    
+    /**
+    * Returns the nanoseconds the whole frame took
+    */
+    public long getFrameTime() {return m_frameTime;}
+    
+    public void setFrameTime(long nanoseconds) {m_frameTime = nanoseconds;}
+    
+    /**
+    * Adds long nanoseconds to the time spent in Stage stage
+    */
+    public void addTime(Stage stage, long nanoseconds) {m_stageTimes.addAndGet(stage.ordinal(), nanoseconds);}
+    
+    /**
+    * Adds long amount to Counter counter
+    */
+    public void add(Counter counter, long amount) {m_counters.addAndGet(counter.ordinal(), amount);}
+    
+    /**
+    * Resets every Stage time, Counter and the frame time to zero for a new frame
+    */
+    public void reset() {
+        for(int i = 0; i < m_stageTimes.length(); i++)
+            m_stageTimes.set(i, 0);
+        for(int i = 0; i < m_counters.length(); i++)
+            m_counters.set(i, 0);
+        m_frameTime = 0;
+    }
+    
+    /**
+    * Returns the frame time, the Stage times in milliseconds and the Counters, one per line
+    */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("FRAME %.2f ms", m_frameTime / 1e6));
+        for(Stage stage : Stage.values())
+            builder.append(String.format("%n%s %.2f ms", stage, getTime(stage) / 1e6));
+        for(Counter counter : Counter.values())
+            builder.append(String.format("%n%s %d", counter, getCount(counter)));
+        return builder.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package RenderingEngine.Rendering;
+
+import java.util.Arrays;
+
+/**
+ * GBuffer stores the geometry of a frame for deferred shading as primitive arrays with one entry per pixel:
+ * the depth, the w of the interpolated position, the interpolated normal as NORMAL_SIZE floats, and the albedo packed to a single int.
+ * The normals are stored as they were interpolated, since they are not unit length and the shading depends on their length,
+ * so encoding their direction alone would need their length stored next to it and save nothing.
+ * The arrays are only reallocated when the size of the GBuffer changes, so the same GBuffer can be reused for every frame.
+ *
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+public class GBuffer {
+    /**
+    * The amount of floats stored per pixel for the normal: x, y and z
+    */
+    public static final int NORMAL_SIZE = 3;
+    
+    private int m_width, m_height;
+    private float[] m_depth, m_w, m_normals;
+    private int[] m_albedo;
+
+    public GBuffer() {
+        resize(0, 0);
+    }
+
+    public int getWidth() {return m_width;}
+    public int getHeight() {return m_height;}
+    public float[] getDepth() {return m_depth;}
+    public float[] getW() {return m_w;}
+    public float[] getNormals() {return m_normals;}
+    public int[] getAlbedo() {return m_albedo;}
+
+    /**
+    * Resizes this GBuffer to be int width wide and int height tall, reallocating the arrays only if the size changes
+    */
+    public void resize(int width, int height) {
+        if(m_depth != null && width == m_width && height == m_height)
+            return;
+        m_width = width;
+        m_height = height;
+        m_depth = new float[width * height];
+        m_w = new float[width * height];
+        m_normals = new float[width * height * NORMAL_SIZE];
+        m_albedo = new int[width * height];
+    }
+
+    /**
+    * Resets the depth of every pixel to Float.MAX_VALUE. The other arrays are only read where something has been drawn, so they are left as they are
+    */
+    public void clear() {
+        Arrays.fill(m_depth, Float.MAX_VALUE);
+    }
+
+    /**
+    * Returns the albedo color (byte b, byte g, byte r) packed to a single int
+    */
+    public static int packAlbedo(byte b, byte g, byte r) {
+        return (b & 0xFF) << 16 | (g & 0xFF) << 8 | (r & 0xFF);
+    }
+}
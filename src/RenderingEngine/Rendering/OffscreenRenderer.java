@@ -0,0 +1,483 @@
+package RenderingEngine.Rendering;
+
+import RenderingEngine.Constructs.Camera;
+import RenderingEngine.Constructs.Edge;
+import RenderingEngine.Constructs.EngineObject;
+import RenderingEngine.Constructs.LightSource;
+import RenderingEngine.Constructs.Transform;
+import RenderingEngine.CoreComponents.Bitmap;
+import RenderingEngine.CoreComponents.Matrix4;
+import RenderingEngine.CoreComponents.Vector4;
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * OffscreenRenderer renders a scene of EngineObjects and LightSources seen through a Camera to a Bitmap of a given size.
+ * It doesn't depend on any AWT components, so it can be used to render frames on a JVM running with -Djava.awt.headless=true.
+ * RenderPanel presents the frames of an OffscreenRenderer on screen.
+ * Every frame is profiled by the FrameProfiler of the OffscreenRenderer, which holds the Stage times and Counters of the latest frame.
+ * Rendering and the setters changing what a frame is drawn from are synchronized on the OffscreenRenderer, so only one frame at a time uses
+ * its GBuffer and shadow maps, and they are never resized or recalculated by another thread during a frame.
+ * 
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+public class OffscreenRenderer implements AutoCloseable {
+    /**
+    * Mode enumeration denotes the available rendering modes
+    */
+    public static enum Mode{
+        DEPTH, WIREFRAME, NORMAL, DIFFUSE, LIGHTED_STATIC, LIGHTED_DYNAMIC
+    }
+    
+    private Mode m_mode;
+    
+    private final Camera m_camera;
+    private final Matrix4 m_identity;
+    private Matrix4 m_screenSpaceTransform, m_inverseScreenSpaceTransform;
+    
+    private List<LightSource> m_lightSources;
+    private Matrix4 m_lightScreenSpaceTransform;
+    private int m_lightMapResolution;
+    private final Map<LightSource, ShadowMapState> m_shadowMapStates;
+    
+    private List<EngineObject> m_renderObjects;
+    private BVH m_bvh;
+    private final List<EngineObject> m_visibleObjects;
+    private final BitSet m_insideObjects;
+     
+    private float m_fov;
+    private float m_nearClip;
+    private float m_farClip;
+    
+    private int m_width;
+    private int m_height;
+    private Bitmap m_frame;
+    private final GBuffer m_gBuffer;
+    private final FrameProfiler m_profiler;
+    
+    private boolean m_tiled;
+    private boolean m_parallelGeometry;
+    private boolean m_guardBand;
+    private final ForkJoinPool m_workerPool;
+    
+    private byte[] m_zenithColor;
+    private float[] m_ambientLightColor;
+    private float m_ambientLightIntensity;
+    
+    /**
+    * Creates a new OffscreenRenderer rendering frames int width pixels wide and int height pixels tall, with the camera at zero position
+    * and lightMap resolution set to 2000, and initializes the Lists for EngineObjects and LightSources
+    */
+    public OffscreenRenderer(int width, int height){
+        m_width = width;
+        m_height = height;
+        m_camera = new Camera(
+                        "Camera",
+                        new Transform(),
+                        m_fov = 90,
+                        (float)width/(float)height,
+                        m_nearClip = 0.1f,
+                        m_farClip = 100);
+        m_screenSpaceTransform = new Matrix4().initScreenSpaceTransform(width/2, height/2);
+        m_inverseScreenSpaceTransform = new Matrix4().initInverseScreenSpaceTransform(width/2, height/2);
+        m_mode = Mode.LIGHTED_DYNAMIC;
+        m_lightSources = new ArrayList<>();
+        m_shadowMapStates = new WeakHashMap<>();
+        m_renderObjects = new ArrayList<>();
+        m_visibleObjects = new ArrayList<>();
+        m_insideObjects = new BitSet();
+        m_identity = new Matrix4().initIdentity();
+        m_workerPool = new ForkJoinPool();
+        m_gBuffer = new GBuffer();
+        m_profiler = new FrameProfiler();
+        m_tiled = false;
+        m_parallelGeometry = false;
+        m_guardBand = false;
+        setLightMapResolution(2000);
+        
+        m_zenithColor = new byte[]{(byte)0x00, (byte)0x00, (byte)0x00};
+        m_ambientLightColor = new float[]{0,0,0};
+        m_ambientLightIntensity = 0;
+    }
+    
+    /**
+    * Returns the width of the frames of this OffscreenRenderer in pixels
+    */
+    public int getWidth() {return m_width;}
+    
+    /**
+    * Returns the height of the frames of this OffscreenRenderer in pixels
+    */
+    public int getHeight() {return m_height;}
+    
+    /**
+    * Returns this OffscreenRenderers Cameras Transform
+    */
+    public Transform getCameraTransform() {return m_camera.getTransform();}
+    
+    /**
+    * Returns this OffscreenRenderers current rendering mode
+    */
+    public Mode getMode(){return m_mode;}
+    
+    /**
+    * Returns a new float array of size 3, containing the field of view, near- and far - clipping distances of this OffscreenRenderer and Camera
+    */
+    public float[] getProjectionParameters(){
+        return new float[]{m_fov, m_nearClip, m_farClip};
+    }
+    
+    /**
+    * Returns a new Color representing the ambient light color of this OffscreenRenderer
+    */
+    public Color getAmbientLightColor (){
+        return new Color((int)(m_ambientLightColor[2]*255), (int)(m_ambientLightColor[1]*255), (int)(m_ambientLightColor[0]*255));
+    }
+    
+    /**
+    * Returns a new Color representing the zenith (background) color of this OffscreenRenderer
+    */
+    public Color getZenithColor(){
+        return new Color((int)(m_zenithColor[2] & 0XFF), (int)(m_zenithColor[1] & 0XFF), (int)(m_zenithColor[0] & 0XFF));
+    }
+    
+    /**
+    * Returns the ambient light intensity of this OffscreenRenderer
+    */
+    public float getAmbientLightIntensity(){return m_ambientLightIntensity;}
+    
+    /**
+    * Returns the ambient light map resolution of this OffscreenRenderer
+    */
+    public int getLightMapResolution(){return m_lightMapResolution;}
+    
+    /**
+    * Returns the List of EngineObjects this OffscreenRenderer renders
+    */
+    public List<EngineObject> getRenderObjects(){return m_renderObjects;}
+    
+    /**
+    * Returns the List of LightSources this OffscreenRenderer renders with
+    */
+    public List<LightSource> getLightSources(){return m_lightSources;}
+    
+    /**
+    * Returns true if this OffscreenRenderer rasterizes in parallel screen tiles instead of a single thread
+    */
+    public boolean isTiled(){return m_tiled;}
+    
+    /**
+    * Returns true if this OffscreenRenderer calculates the Edges of its EngineObjects in parallel chunks instead of a single thread
+    */
+    public boolean isParallelGeometry(){return m_parallelGeometry;}
+    
+    /**
+    * Returns true if this OffscreenRenderer draws triangles inside the guard band of EdgeCalculator without clipping them against the sides of the view frustum
+    */
+    public boolean isGuardBand(){return m_guardBand;}
+    
+    /**
+    * Returns the FrameProfiler of this OffscreenRenderer, which holds the Stage times and Counters of the latest frame until the next frame is started
+    */
+    public FrameProfiler getProfiler(){return m_profiler;}
+    
+    /**
+    * Sets the size of the frames of this OffscreenRenderer to int width pixels wide and int height pixels tall and updates the aspect ratio of its Camera
+    */
+    public synchronized void setSize(int width, int height){
+        if(width == m_width && height == m_height)
+            return;
+        m_width = width;
+        m_height = height;
+        m_screenSpaceTransform = new Matrix4().initScreenSpaceTransform(width/2, height/2);
+        m_inverseScreenSpaceTransform = new Matrix4().initInverseScreenSpaceTransform(width/2, height/2);
+        setProjection(m_fov, m_nearClip, m_farClip);
+    }
+
+    /**
+    * Sets the transform of this OffscreenRenderers Camera to Tranform transform
+    */
+    public synchronized void setCameraTransform(Transform camera) {m_camera.setTransform(camera);}
+    
+    /**
+    * Sets this OffscreenRenderers rendering mode to Mode mode
+    */
+    public synchronized void setMode(Mode mode){m_mode = mode;}
+    
+    /**
+    * Sets this OffscreenRenderer to rasterize in parallel screen tiles if boolean tiled is true, otherwise on a single thread.
+    * Lighted frames are shaded in parallel bands of rows either way
+    */
+    public synchronized void setTiled(boolean tiled){m_tiled = tiled;}
+    
+    /**
+    * Sets this OffscreenRenderer to calculate the Edges of its EngineObjects in parallel chunks if boolean parallelGeometry is true, otherwise on a single thread
+    */
+    public synchronized void setParallelGeometry(boolean parallelGeometry){m_parallelGeometry = parallelGeometry;}
+    
+    /**
+    * Sets this OffscreenRenderer to draw triangles inside the guard band of EdgeCalculator without clipping them against the sides of the view frustum
+    * if boolean guardBand is true, leaving the pixels outside the frame out when rasterizing them. Otherwise every triangle crossing the view frustum is clipped
+    */
+    public synchronized void setGuardBand(boolean guardBand){m_guardBand = guardBand;}
+    
+    /**
+    * Sets the List of LightSources of this OffscreenRenderer to List LightSources and checks if their zBuffers need to be calculated
+    */
+    public synchronized void setLightSources(List<LightSource> lightSources){m_lightSources = lightSources; checkLightBufferRefresh();}
+    
+    /**
+    * Sets the light map resolution of this OffscreenRenderer to int resolution
+    */
+    public synchronized void setLightMapResolution(int resolution){
+        m_lightMapResolution = resolution;
+        m_lightScreenSpaceTransform = new Matrix4().initScreenSpaceTransform(resolution/2, resolution/2);
+        checkLightBufferRefresh();
+    }
+    
+    /**
+    * Sets the List of EngineObjects of this OffscreenRenderer to List EngineObjects and checks if the LghtSources zBuffers need to be calculated
+    */
+    public synchronized void setRenderObjects(List<EngineObject> renderObjects) {m_renderObjects = renderObjects; checkLightBufferRefresh();}
+    
+    /**
+    * Sets the the projection of this OffscreenRenderers Camera using float fov, float nearClip, float farClip
+    */
+    public synchronized void setProjection(float fov, float nearClip, float farClip){
+        m_camera.setProjection(m_fov = fov, (float)m_width/(float)m_height, m_nearClip = nearClip, m_farClip = farClip);
+    }
+    
+    /**
+    * Sets the the illumination parameters of this OffscreenRenderer to Color zenithColor, Color ambientLightColor, float ambientLightIntensity, int lightMapResolution
+    */
+    public synchronized void setIllumination(Color zenithColor, Color ambientLightColor, float ambientLightIntensity, int lightMapResolution){
+        byte[] zC = new byte[]{(byte)zenithColor.getBlue(), (byte)zenithColor.getGreen(), (byte)zenithColor.getRed()};
+        float[] aC = new float[]{ambientLightColor.getBlue()/255, ambientLightColor.getGreen()/255, ambientLightColor.getRed()/255};
+        m_zenithColor = zC;
+        m_ambientLightColor = aC;
+        m_ambientLightIntensity = ambientLightIntensity;
+        setLightMapResolution(lightMapResolution);
+    }
+    
+    /**
+    * Renders a frame to a Bitmap owned by this OffscreenRenderer and returns it. The same Bitmap is drawn over by the next frame,
+    * unless the size of this OffscreenRenderer has changed in between
+    */
+    public synchronized Bitmap render(){
+        if(m_frame == null || m_frame.getWidth() != m_width || m_frame.getHeight() != m_height)
+            m_frame = new Bitmap(m_width, m_height);
+        render(m_frame);
+        return m_frame;
+    }
+    
+    /**
+    * Renders a frame to Bitmap frame, which has to be as wide and tall as the frames of this OffscreenRenderer.
+    * The FrameProfiler is reset and then profiles the frame. The triangles and fragments are counted for the view of the Camera only,
+    * while the time spent calculating the zBuffers of the LightSources, including their Edges, is profiled as the shadow map Stage
+    */
+    public synchronized void render(Bitmap frame){
+        if(frame.getWidth() != m_width || frame.getHeight() != m_height)
+            throw new IllegalArgumentException(
+                    "Can't render a " + m_width + " by " + m_height + " frame to a " + frame.getWidth() + " by " + frame.getHeight() + " Bitmap");
+        m_profiler.reset();
+        long frameStart = System.nanoTime();
+        List<Edge> edges = getRenderObjectsEdges(m_camera.getViewProjection(), m_screenSpaceTransform, m_profiler);
+        long start = EdgeDrawer.addTime(m_profiler, FrameProfiler.Stage.GEOMETRY, frameStart);
+        if(m_mode == Mode.LIGHTED_DYNAMIC){
+            refreshDirtyLightBuffers();
+            EdgeDrawer.addTime(m_profiler, FrameProfiler.Stage.SHADOW_MAPS, start);
+        }
+        frame.clear(m_zenithColor);
+        if(m_tiled)
+            drawTiled(frame, edges);
+        else
+            draw(frame, edges);
+        m_profiler.setFrameTime(System.nanoTime() - frameStart);
+    }
+    
+    /**
+    * Returns the EngineObject seen at pixel (int x, int y) of the frames of this OffscreenRenderer, or null if there is none.
+    * A ray is cast through the pixel from the near clipping plane to the far clipping plane and tested against the BVH,
+    * so nothing has to be rendered for picking
+    */
+    public synchronized EngineObject pick(int x, int y){
+        Matrix4 inverseViewProjection = m_camera.getInverseViewProjection();
+        Vector4 near = unproject(inverseViewProjection, x, y, -1);
+        Vector4 far = unproject(inverseViewProjection, x, y, 1);
+        return getBVH().intersectRay(near, far.sub(near));
+    }
+    
+    /**
+    * Stops the worker threads of this OffscreenRenderer after the frame being rendered, if any, is finished.
+    * The OffscreenRenderer can't render frames afterwards, since every lighted frame is shaded on the worker threads
+    */
+    @Override
+    public synchronized void close(){
+        m_workerPool.shutdown();
+    }
+    
+    /**
+    * Returns the world space position of pixel (int x, int y) at normalized device depth float depth, transformed by Matrix4 inverseViewProjection
+    */
+    private Vector4 unproject(Matrix4 inverseViewProjection, int x, int y, float depth){
+        Vector4 position = inverseViewProjection.transform(m_inverseScreenSpaceTransform.transform(new Vector4(x, y, depth)));
+        return position.div(position.getW());
+    }
+    
+    private void checkLightBufferRefresh(){
+        if(m_mode == Mode.LIGHTED_STATIC)
+            refreshLightBuffers();
+    }
+    
+    private void draw(Bitmap frame, List<Edge> edges){
+        switch(m_mode){
+            case DEPTH:
+                EdgeDrawer.drawDepth(frame, edges, m_profiler);
+                break;
+            case WIREFRAME:
+                EdgeDrawer.drawWireFrame(frame, edges, m_profiler);
+                break;
+            case NORMAL:
+                EdgeDrawer.drawNormal(frame, edges, m_profiler);
+                break;
+            case DIFFUSE:
+                EdgeDrawer.drawDiffuse(frame, edges, m_profiler);
+                break;
+            default:
+                EdgeDrawer.drawLighted(
+                        m_workerPool, frame, edges, m_gBuffer, m_lightSources,
+                        m_inverseScreenSpaceTransform, m_lightScreenSpaceTransform, m_camera.getInverseViewProjection(),
+                        m_lightMapResolution, m_ambientLightColor,m_ambientLightIntensity, m_profiler);
+        }
+    }
+    
+    private void drawTiled(Bitmap frame, List<Edge> edges){
+        switch(m_mode){
+            case DEPTH:
+                TiledEdgeDrawer.drawDepth(m_workerPool, frame, edges, m_profiler);
+                break;
+            case WIREFRAME:
+                TiledEdgeDrawer.drawWireFrame(m_workerPool, frame, edges, m_profiler);
+                break;
+            case NORMAL:
+                TiledEdgeDrawer.drawNormal(m_workerPool, frame, edges, m_profiler);
+                break;
+            case DIFFUSE:
+                TiledEdgeDrawer.drawDiffuse(m_workerPool, frame, edges, m_profiler);
+                break;
+            default:
+                TiledEdgeDrawer.drawLighted(
+                        m_workerPool, frame, edges, m_gBuffer, m_lightSources,
+                        m_inverseScreenSpaceTransform, m_lightScreenSpaceTransform, m_camera.getInverseViewProjection(),
+                        m_lightMapResolution, m_ambientLightColor,m_ambientLightIntensity, m_profiler);
+        }
+    }
+    
+    private void refreshLightBuffers(){
+        for(LightSource ls: m_lightSources)
+            refreshLightBuffer(ls);
+    }
+    
+    /**
+    * Recalculates the zBuffers of only those LightSources, whose zBuffer is missing or was calculated from a different view of the scene
+    */
+    private void refreshDirtyLightBuffers(){
+        for(LightSource ls: m_lightSources){
+            ShadowMapState state = m_shadowMapStates.get(ls);
+            if(ls.getzBuffer() == null || state == null || state.isDirty(ls, m_renderObjects, m_lightMapResolution))
+                refreshLightBuffer(ls);
+        }
+    }
+    
+    private void refreshLightBuffer(LightSource ls){
+        List<Edge> edges = getRenderObjectsEdges(ls.getViewProjection(), m_lightScreenSpaceTransform, null);
+        if(m_tiled)
+            ls.setzBuffer(TiledEdgeDrawer.drawzBuffer(m_workerPool, edges, m_lightMapResolution));
+        else
+            ls.setzBuffer(EdgeDrawer.drawzBuffer(edges, m_lightMapResolution));
+        m_shadowMapStates.put(ls, new ShadowMapState(ls, m_renderObjects, m_lightMapResolution));
+    }
+    
+    /**
+    * Returns the Edges of the EngineObjects of this OffscreenRenderer inside the view frustum of Matrix4 viewProjection.
+    * The EngineObjects are culled with the BVH first, and the EngineObjects it culls are counted to FrameProfiler profiler, unless it is null.
+    * The EngineObjects the BVH finds inside the view frustum are passed on as such, so EdgeCalculator doesn't test their bounds again
+    */
+    private List<Edge> getRenderObjectsEdges(Matrix4 viewProjection, Matrix4 screenSpaceTransform, FrameProfiler profiler){
+        BVH bvh = getBVH();
+        bvh.cull(viewProjection, m_visibleObjects, m_insideObjects);
+        if(profiler != null)
+            profiler.add(FrameProfiler.Counter.OBJECTS_CULLED, bvh.size() - m_visibleObjects.size());
+        if(m_parallelGeometry)
+            return EdgeCalculator.getEdges(
+                    m_workerPool, viewProjection, screenSpaceTransform, m_identity, m_visibleObjects, m_insideObjects, m_guardBand, profiler);
+        List<Edge> edges = new ArrayList<>();
+        for(int i = 0; i < m_visibleObjects.size(); i++)
+            edges.addAll(EdgeCalculator.getEdges(
+                    viewProjection, screenSpaceTransform, m_identity, m_visibleObjects.get(i), m_insideObjects.get(i), m_guardBand, profiler));
+        return edges;
+    }
+    
+    /**
+    * Returns the BVH over the EngineObjects of this OffscreenRenderer, building a new one if the List of EngineObjects has changed
+    * and refitting the current one to the transforms of the EngineObjects otherwise
+    */
+    private synchronized BVH getBVH(){
+        if(m_bvh == null || !m_bvh.contains(m_renderObjects))
+            m_bvh = new BVH(m_renderObjects);
+        else
+            m_bvh.refit();
+        return m_bvh;
+    }
+    
+    /**
+    * ShadowMapState stores what a LightSource's zBuffer was calculated from: the LightSource's view projection, the light map resolution,
+    * and the versions of the EngineObjects of the scene and which of them were inside the LightSource's view frustum
+    */
+    private static class ShadowMapState{
+        private final int m_projectionVersion;
+        private final int m_resolution;
+        private final Map<EngineObject, Integer> m_geometryVersions;
+        private final Set<EngineObject> m_visibleObjects;
+
+        public ShadowMapState(LightSource ls, List<EngineObject> renderObjects, int resolution) {
+            m_projectionVersion = ls.getProjectionVersion();
+            m_resolution = resolution;
+            m_geometryVersions = new HashMap<>();
+            m_visibleObjects = new HashSet<>();
+            for(EngineObject o : renderObjects){
+                m_geometryVersions.put(o, o.getGeometryVersion());
+                if(ls.intersectsViewFrustum(o.getWorldBoundsMin(), o.getWorldBoundsMax()))
+                    m_visibleObjects.add(o);
+            }
+        }
+        
+        /**
+        * Returns true if LightSource ls's zBuffer would be different when calculated from List renderObjects at int resolution.
+        * Changes to EngineObjects that are outside the LightSource's view frustum both before and after the change do not make the zBuffer dirty.
+        */
+        public boolean isDirty(LightSource ls, List<EngineObject> renderObjects, int resolution){
+            if(ls.getProjectionVersion() != m_projectionVersion || resolution != m_resolution)
+                return true;
+            int unchangedVisibleObjects = 0;
+            for(EngineObject o : renderObjects){
+                Integer version = m_geometryVersions.get(o);
+                if(version != null && version == o.getGeometryVersion()){
+                    if(m_visibleObjects.contains(o))
+                        unchangedVisibleObjects++;
+                }
+                else if(ls.intersectsViewFrustum(o.getWorldBoundsMin(), o.getWorldBoundsMax()))
+                    return true;
+            }
+            return unchangedVisibleObjects != m_visibleObjects.size();
+        }
+    }
+}
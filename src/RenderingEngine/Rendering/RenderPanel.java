@@ -1,265 +1,359 @@
-package RenderingEngine.Rendering;
-
-import RenderingEngine.Constructs.LightSource;
-import RenderingEngine.Constructs.EngineObject;
-import RenderingEngine.Constructs.Camera;
-import RenderingEngine.Constructs.Edge;
-import RenderingEngine.Constructs.Transform;
-import RenderingEngine.CoreComponents.Bitmap;
-import RenderingEngine.CoreComponents.Matrix4;
-import java.awt.Color;
-import javax.swing.JPanel;
-import java.awt.Graphics;
-import java.awt.event.ComponentAdapter;
-import java.awt.image.BufferedImage;
-import java.awt.image.DataBufferByte;
-import java.util.ArrayList;
-import java.util.List;
-
-
-/**
- * RenderPanel is the actual rendering engine that combines all the other classes in the RenderingEngine package to a usable visual representation
- * 
- * @author Eero Lempiö el415524@student.uta.fi
- */
-public class RenderPanel extends JPanel{
-    private Mode m_mode;
-    
-    /**
-    * Mode enumeration denotes the available rendering modes
-    */
-    public static enum Mode{
-        DEPTH, WIREFRAME, NORMAL, DIFFUSE, LIGHTED_STATIC, LIGHTED_DYNAMIC
-    }
-    
-    private final Camera m_camera;
-    private final Matrix4 m_identity;
-    private Matrix4 m_screenSpaceTransform, m_inverseScreenSpaceTransform;
-    
-    private List<LightSource> m_lightSources;
-    private Matrix4 m_lightScreenSpaceTransform;
-    private int m_lightMapResolution;
-    
-    private List<EngineObject> m_renderObjects;
-     
-    private float m_fov;
-    private float m_nearClip;
-    private float m_farClip;
-    
-    private int m_width;
-    private int m_height;
-    
-    private BufferedImage m_displayImage;
-    private byte[] m_displayComponents;
-    
-    private byte[] m_zenithColor;
-    private float[] m_ambientLightColor;
-    private float m_ambientLightIntensity;
-    
-    /**
-    * Creates a new RenderPanel, with the camera at zero position and lightMap resolution set to 2000, 
-    * and initializes the Lists for EngineObjects and LightSources
-    */
-    public RenderPanel(){
-        m_camera = new Camera(
-                        "Camera",
-                        new Transform(),
-                        m_fov = 90,
-                        (float)getWidth()/(float)getHeight(),
-                        m_nearClip = 0.1f,
-                        m_farClip = 100);
-        m_lightSources = new ArrayList<>();
-        setLightMapResolution(2000);
-        
-        m_renderObjects = new ArrayList<>();
-        
-        m_identity = new Matrix4().initIdentity();
-        addComponentListener(new ComponentAdapter() {
-            @Override
-            public void componentResized(java.awt.event.ComponentEvent evt) {resize();}
-        });
-        setMode(Mode.LIGHTED_DYNAMIC);
-        
-        m_zenithColor = new byte[]{(byte)0x00, (byte)0x00, (byte)0x00};
-        m_ambientLightColor = new float[]{0,0,0};
-        m_ambientLightIntensity = 0;
-    }
-    
-    /**
-    * Returns this RenderPanels Cameras Transform
-    */
-    public Transform getCameraTransform() {return m_camera.getTransform();}
-    
-    /**
-    * Returns this RenderPanels current rendering mode as int
-    */
-    public int getMode(){return m_mode.ordinal();}
-    
-    /**
-    * Returns a new float array of size 3, containing the field of view, near- and far - clipping distances of this RenderPanel and Camera
-    */
-    public float[] getProjectionParameters(){
-        return new float[]{m_fov, m_nearClip, m_farClip};
-    }
-    
-    /**
-    * Returns a new Color representing the ambient light color of this RenderPanel
-    */
-    public Color getAmbientLightColor (){
-        return new Color((int)(m_ambientLightColor[2]*255), (int)(m_ambientLightColor[1]*255), (int)(m_ambientLightColor[0]*255));
-    }
-    
-    /**
-    * Returns a new Color representing the zenith (background) color of this RenderPanel
-    */
-    public Color getZenithColor(){
-        return new Color((int)(m_zenithColor[2] & 0XFF), (int)(m_zenithColor[1] & 0XFF), (int)(m_zenithColor[0] & 0XFF));
-    }
-    
-    /**
-    * Returns the ambient light intensity of this RenderPanel
-    */
-    public float getAmbientLightIntensity(){return m_ambientLightIntensity;}
-    
-    /**
-    * Returns the ambient light map resolution of this RenderPanel
-    */
-    public int getLightMapResolution(){return m_lightMapResolution;}
-
-    /**
-    * Sets the transform of this RenderPanels Camera to Tranform transform
-    */
-    public void setCameraTransform(Transform camera) {m_camera.setTransform(camera);}
-    
-    /**
-    * Sets this RenderPanels rendering mode to Mode mode
-    */
-    public void setMode(Mode mode){m_mode = mode;}
-    
-    /**
-    * Sets the List of LightSources of this RenderPanel to List LightSources and checks if their zBuffers need to be calculated
-    */
-    public void setLightSources(List<LightSource> lightSources){m_lightSources = lightSources; checkLightBufferRefresh();}
-    
-    /**
-    * Sets the light map resolution of this RenderPanel to int resolution
-    */
-    public void setLightMapResolution(int resolution){
-        m_lightMapResolution = resolution;
-        m_lightScreenSpaceTransform = new Matrix4().initScreenSpaceTransform(resolution/2, resolution/2);
-        checkLightBufferRefresh();
-    }
-    
-    /**
-    * Sets the List of EngineObjects of this RenderPanel to List EngineObjects and checks if the LghtSources zBuffers need to be calculated
-    */
-    public void setRenderObjects(List<EngineObject> renderObjects) {m_renderObjects = renderObjects; checkLightBufferRefresh();}
-    
-    /**
-    * Sets the the projection of this RenderPanels Camera using float fov, float nearClip, float farClip
-    */
-    public void setProjection(float fov, float nearClip, float farClip){
-        m_camera.setProjection(m_fov = fov, (float)getWidth()/(float)getHeight(), m_nearClip = nearClip, m_farClip = farClip);
-    };
-    
-    /**
-    * Sets the the illumination parameters of this RenderPanel to Color zenithColor, Color ambientLightColor, float ambientLightIntensity, int lightMapResolution
-    */
-    public void setIllumination(Color zenithColor, Color ambientLightColor, float ambientLightIntensity, int lightMapResolution){
-        byte[] zC = new byte[]{(byte)zenithColor.getBlue(), (byte)zenithColor.getGreen(), (byte)zenithColor.getRed()};
-        float[] aC = new float[]{ambientLightColor.getBlue()/255, ambientLightColor.getGreen()/255, ambientLightColor.getRed()/255};
-        m_zenithColor = zC;
-        m_ambientLightColor = aC;
-        m_ambientLightIntensity = ambientLightIntensity;
-        setLightMapResolution(lightMapResolution);
-    }
-    
-    /**
-    * Renders an image to this RenderPanel
-    */
-    public void render(){
-        drawFrame();
-        repaint();
-    }
-    
-    @Override
-    protected void paintComponent(Graphics graphics) {
-        super.paintComponent(graphics);
-        graphics.drawImage(m_displayImage, 0, 0, getWidth(), getHeight(), null);
-    }
-    
-    private void checkLightBufferRefresh(){
-        if(m_mode == Mode.LIGHTED_STATIC)
-            refreshLightBuffers();
-    }
-  
-    private void resize(){
-        int width = getWidth();
-        int height = getHeight();
-        m_width = width > 0? width : 1;
-        m_height = height > 0? height : 1;
-        
-        m_screenSpaceTransform = new Matrix4().initScreenSpaceTransform(m_width/2, m_height/2);
-        m_inverseScreenSpaceTransform = new Matrix4().initInverseScreenSpaceTransform(m_width/2, m_height/2);
-        
-        m_displayImage = new  BufferedImage(m_width, m_height, BufferedImage.TYPE_3BYTE_BGR);
-        m_displayComponents = ((DataBufferByte)m_displayImage.getRaster().getDataBuffer()).getData();
-        setProjection(m_fov, m_nearClip, m_farClip);
-        render();
-    }
-    
-    private void drawFrame(){
-        int width = m_width;
-        int height = m_height;
-        List<Edge> edges = getRenderObjectsEdges(m_camera.getViewProjection(), m_screenSpaceTransform);
-        Bitmap frame = getNewFrame(width, height);
-        switch(m_mode){
-            case DEPTH:
-                EdgeDrawer.drawDepth(frame, edges);
-                break;
-            case WIREFRAME:
-                EdgeDrawer.drawWireFrame(frame, edges);
-                break;
-            case NORMAL:
-                EdgeDrawer.drawNormal(frame, edges);
-                break;
-            case DIFFUSE:
-                EdgeDrawer.drawDiffuse(frame, edges);
-                break;
-            case LIGHTED_STATIC:
-                EdgeDrawer.drawLighted(
-                        frame, edges, m_lightSources,
-                        m_inverseScreenSpaceTransform, m_lightScreenSpaceTransform, m_camera.getInverseViewProjection(),
-                        m_identity, m_lightMapResolution, m_ambientLightColor,m_ambientLightIntensity);
-                break;
-            default:
-                refreshLightBuffers();
-                EdgeDrawer.drawLighted(
-                        frame, edges, m_lightSources,
-                        m_inverseScreenSpaceTransform, m_lightScreenSpaceTransform, m_camera.getInverseViewProjection(),
-                        m_identity, m_lightMapResolution, m_ambientLightColor,m_ambientLightIntensity);
-        }
-        if(width == m_width && height == m_height)
-            frame.copyToByteArray(m_displayComponents);
-    }
-    
-    private void refreshLightBuffers(){
-        for(LightSource ls: m_lightSources){
-            List<Edge> edges = getRenderObjectsEdges(ls.getViewProjection(), m_lightScreenSpaceTransform);
-            ls.setzBuffer(EdgeDrawer.drawzBuffer(edges, m_lightMapResolution));
-        }
-    }
-    
-    private List<Edge> getRenderObjectsEdges(Matrix4 viewProjection, Matrix4 screenSpaceTransform){
-        List<Edge> edges = new ArrayList<>();
-        for(EngineObject o : m_renderObjects)
-            edges.addAll(EdgeCalculator.getEdges(viewProjection, screenSpaceTransform, m_identity, o));
-        return edges;
-    }
-    
-    private Bitmap getNewFrame(int width, int height){
-        Bitmap frame = new Bitmap(width, height);
-        frame.clear(m_zenithColor);
-        return frame;
-    }
-}
+package RenderingEngine.Rendering;
+
+import RenderingEngine.Constructs.LightSource;
+import RenderingEngine.Constructs.BaseObject;
+import RenderingEngine.Constructs.EngineObject;
+import RenderingEngine.Constructs.Transform;
+import RenderingEngine.CoreComponents.Bitmap;
+import java.awt.Color;
+import javax.swing.JPanel;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.event.ComponentAdapter;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * RenderPanel presents the frames of an OffscreenRenderer on screen, rendering a new frame whenever something in the scene has changed.
+ * Every frame is recorded as a FrameEvent for Java Flight Recorder, and the profile of the latest frame can be shown on top of it as a text overlay,
+ * together with the achieved frame rate and the dropped frames of the RenderScheduler drawing the frames.
+ * 
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+public class RenderPanel extends JPanel implements AutoCloseable{
+    /**
+    * The amount of framebuffers frames are drawn to before they are painted
+    */
+    public static final int FRAMEBUFFER_AMOUNT = 3;
+    
+    private static final Font OVERLAY_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color OVERLAY_BACKGROUND = new Color(0, 0, 0, 160);
+    
+    private final OffscreenRenderer m_renderer;
+    
+    private volatile int m_width;
+    private volatile int m_height;
+    
+    private final SwapChain m_swapChain;
+    private final Object m_renderLock;
+    
+    private final AtomicBoolean m_dirty;
+    private BaseObject[] m_drawnObjects;
+    private int[] m_drawnVersions;
+    
+    private volatile boolean m_closed;
+    private volatile boolean m_profilerOverlay;
+    private volatile String[] m_overlayLines;
+    private volatile RenderScheduler m_scheduler;
+    
+    /**
+    * Creates a new RenderPanel, with the camera at zero position and lightMap resolution set to 2000, 
+    * and initializes the Lists for EngineObjects and LightSources. Frames are rasterized in parallel tiles unless there is only a single processor to run them on
+    */
+    public RenderPanel(){
+        m_dirty = new AtomicBoolean(true);
+        m_drawnObjects = new BaseObject[0];
+        m_drawnVersions = new int[0];
+        m_closed = false;
+        m_profilerOverlay = false;
+        m_overlayLines = new String[0];
+        m_width = 1;
+        m_height = 1;
+        m_renderer = new OffscreenRenderer(m_width, m_height);
+        m_swapChain = new SwapChain(FRAMEBUFFER_AMOUNT);
+        m_renderLock = new Object();
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(java.awt.event.ComponentEvent evt) {resize();}
+        });
+        setMode(OffscreenRenderer.Mode.LIGHTED_DYNAMIC);
+        setTiled(Runtime.getRuntime().availableProcessors() > 1);
+    }
+    
+    /**
+    * Returns the OffscreenRenderer whose frames this RenderPanel presents
+    */
+    public OffscreenRenderer getRenderer() {return m_renderer;}
+    
+    /**
+    * Returns this RenderPanels Cameras Transform
+    */
+    public Transform getCameraTransform() {return m_renderer.getCameraTransform();}
+    
+    /**
+    * Returns this RenderPanels current rendering mode as int
+    */
+    public int getMode(){return m_renderer.getMode().ordinal();}
+    
+    /**
+    * Returns a new float array of size 3, containing the field of view, near- and far - clipping distances of this RenderPanel and Camera
+    */
+    public float[] getProjectionParameters(){return m_renderer.getProjectionParameters();}
+    
+    /**
+    * Returns a new Color representing the ambient light color of this RenderPanel
+    */
+    public Color getAmbientLightColor (){return m_renderer.getAmbientLightColor();}
+    
+    /**
+    * Returns a new Color representing the zenith (background) color of this RenderPanel
+    */
+    public Color getZenithColor(){return m_renderer.getZenithColor();}
+    
+    /**
+    * Returns the ambient light intensity of this RenderPanel
+    */
+    public float getAmbientLightIntensity(){return m_renderer.getAmbientLightIntensity();}
+    
+    /**
+    * Returns the ambient light map resolution of this RenderPanel
+    */
+    public int getLightMapResolution(){return m_renderer.getLightMapResolution();}
+    
+    /**
+    * Returns true if this RenderPanel rasterizes in parallel screen tiles instead of a single thread
+    */
+    public boolean isTiled(){return m_renderer.isTiled();}
+    
+    /**
+    * Returns true if this RenderPanel calculates the Edges of its EngineObjects in parallel chunks instead of a single thread
+    */
+    public boolean isParallelGeometry(){return m_renderer.isParallelGeometry();}
+    
+    /**
+    * Returns true if this RenderPanel draws triangles inside the guard band without clipping them
+    */
+    public boolean isGuardBand(){return m_renderer.isGuardBand();}
+    
+    /**
+    * Returns true if this RenderPanel shows the profile of the latest frame on top of it
+    */
+    public boolean isProfilerOverlay(){return m_profilerOverlay;}
+    
+    /**
+    * Marks the frame dirty, so that the next call to render draws a new frame even if nothing this RenderPanel tracks has changed
+    */
+    public void markDirty(){m_dirty.set(true);}
+
+    /**
+    * Sets the transform of this RenderPanels Camera to Tranform transform
+    */
+    public void setCameraTransform(Transform camera) {m_renderer.setCameraTransform(camera); markDirty();}
+    
+    /**
+    * Sets this RenderPanels rendering mode to Mode mode
+    */
+    public void setMode(OffscreenRenderer.Mode mode){m_renderer.setMode(mode); markDirty();}
+    
+    /**
+    * Sets this RenderPanel to rasterize in parallel screen tiles if boolean tiled is true, otherwise on a single thread
+    */
+    public void setTiled(boolean tiled){m_renderer.setTiled(tiled); markDirty();}
+    
+    /**
+    * Sets this RenderPanel to calculate the Edges of its EngineObjects in parallel chunks if boolean parallelGeometry is true, otherwise on a single thread
+    */
+    public void setParallelGeometry(boolean parallelGeometry){m_renderer.setParallelGeometry(parallelGeometry); markDirty();}
+    
+    /**
+    * Sets this RenderPanel to draw triangles inside the guard band without clipping them if boolean guardBand is true
+    */
+    public void setGuardBand(boolean guardBand){m_renderer.setGuardBand(guardBand); markDirty();}
+    
+    /**
+    * Sets this RenderPanel to show the profile of the latest frame on top of it if boolean profilerOverlay is true
+    */
+    public void setProfilerOverlay(boolean profilerOverlay){m_profilerOverlay = profilerOverlay; markDirty();}
+    
+    /**
+    * Sets the RenderScheduler drawing the frames of this RenderPanel to RenderScheduler scheduler, whose frame rate and dropped frames are shown in the overlay
+    */
+    public void setScheduler(RenderScheduler scheduler){m_scheduler = scheduler; markDirty();}
+    
+    /**
+    * Sets the List of LightSources of this RenderPanel to List LightSources and checks if their zBuffers need to be calculated
+    */
+    public void setLightSources(List<LightSource> lightSources){m_renderer.setLightSources(lightSources); markDirty();}
+    
+    /**
+    * Sets the light map resolution of this RenderPanel to int resolution
+    */
+    public void setLightMapResolution(int resolution){m_renderer.setLightMapResolution(resolution); markDirty();}
+    
+    /**
+    * Sets the List of EngineObjects of this RenderPanel to List EngineObjects and checks if the LghtSources zBuffers need to be calculated
+    */
+    public void setRenderObjects(List<EngineObject> renderObjects) {m_renderer.setRenderObjects(renderObjects); markDirty();}
+    
+    /**
+    * Sets the the projection of this RenderPanels Camera using float fov, float nearClip, float farClip
+    */
+    public void setProjection(float fov, float nearClip, float farClip){m_renderer.setProjection(fov, nearClip, farClip); markDirty();}
+    
+    /**
+    * Sets the the illumination parameters of this RenderPanel to Color zenithColor, Color ambientLightColor, float ambientLightIntensity, int lightMapResolution
+    */
+    public void setIllumination(Color zenithColor, Color ambientLightColor, float ambientLightIntensity, int lightMapResolution){
+        m_renderer.setIllumination(zenithColor, ambientLightColor, ambientLightIntensity, lightMapResolution);
+        markDirty();
+    }
+    
+    /**
+    * Returns the EngineObject seen at point (int x, int y) of this RenderPanel, or null if there is none. Nothing is rendered for picking
+    */
+    public EngineObject pick(int x, int y){return m_renderer.pick(x, y);}
+    
+    /**
+    * Renders an image to this RenderPanel. The image is drawn to a back buffer of the SwapChain and painted once it is finished,
+    * so the painting never waits for the rendering or shows a partly drawn frame. Only one image is rendered at a time.
+    * Nothing is drawn if the frame isn't dirty and none of the EngineObjects or LightSources have been added, removed or changed since the latest frame
+    */
+    public void render(){
+        if(m_closed)
+            return;
+        boolean dirty = m_dirty.getAndSet(false);
+        if(!updateDrawnObjects() && !dirty)
+            return;
+        drawFrame();
+        repaint();
+    }
+    
+    /**
+    * Closes the OffscreenRenderer of this RenderPanel once the frame being rendered, if any, is finished. Nothing is rendered afterwards
+    */
+    @Override
+    public void close(){
+        synchronized(m_renderLock){
+            m_closed = true;
+            m_renderer.close();
+        }
+    }
+    
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        super.paintComponent(graphics);
+        BufferedImage image = m_swapChain.getFrontBuffer();
+        if(image != null)
+            graphics.drawImage(image, 0, 0, getWidth(), getHeight(), null);
+        if(m_profilerOverlay)
+            paintOverlay(graphics);
+    }
+    
+    private void paintOverlay(Graphics graphics) {
+        String[] lines = m_overlayLines;
+        graphics.setFont(OVERLAY_FONT);
+        FontMetrics metrics = graphics.getFontMetrics();
+        int width = 0;
+        for(String line : lines)
+            width = Math.max(width, metrics.stringWidth(line));
+        graphics.setColor(OVERLAY_BACKGROUND);
+        graphics.fillRect(0, 0, width + 8, lines.length * metrics.getHeight() + 8);
+        graphics.setColor(Color.WHITE);
+        for(int i = 0; i < lines.length; i++)
+            graphics.drawString(lines[i], 4, 4 + metrics.getAscent() + i * metrics.getHeight());
+    }
+    
+    /**
+    * Returns the lines of the overlay: the profile of the latest frame in FrameProfiler profiler,
+    * followed by the achieved frame rate and the dropped frames of the RenderScheduler, if there is one
+    */
+    private String[] getOverlayLines(FrameProfiler profiler) {
+        String[] profile = profiler.toString().split("\\R");
+        RenderScheduler scheduler = m_scheduler;
+        if(scheduler == null)
+            return profile;
+        String[] lines = Arrays.copyOf(profile, profile.length + 2);
+        if(scheduler.isIdle())
+            lines[profile.length] = "SCHEDULER idle";
+        else
+            lines[profile.length] = String.format("SCHEDULER %.1f / %d fps", scheduler.getAchievedFPS(), scheduler.getTargetFPS());
+        lines[profile.length + 1] = String.format("DROPPED_FRAMES %d", scheduler.getDroppedFrames());
+        return lines;
+    }
+    
+    /**
+    * Returns true if the EngineObjects and LightSources, or their versions, differ from the ones recorded for the latest frame
+    */
+    private synchronized boolean sceneChanged(){
+        List<EngineObject> renderObjects = m_renderer.getRenderObjects();
+        List<LightSource> lightSources = m_renderer.getLightSources();
+        if(renderObjects.size() + lightSources.size() != m_drawnObjects.length)
+            return true;
+        int i = 0;
+        for(BaseObject o : renderObjects){
+            if(o != m_drawnObjects[i] || o.getVersion() != m_drawnVersions[i])
+                return true;
+            i++;
+        }
+        for(BaseObject o : lightSources){
+            if(o != m_drawnObjects[i] || o.getVersion() != m_drawnVersions[i])
+                return true;
+            i++;
+        }
+        return false;
+    }
+    
+    /**
+    * Records the current EngineObjects and LightSources and their versions for the frame about to be drawn. Returns true if they had changed
+    */
+    private synchronized boolean updateDrawnObjects(){
+        if(!sceneChanged())
+            return false;
+        List<EngineObject> renderObjects = m_renderer.getRenderObjects();
+        List<LightSource> lightSources = m_renderer.getLightSources();
+        int size = renderObjects.size() + lightSources.size();
+        m_drawnObjects = new BaseObject[size];
+        m_drawnVersions = new int[size];
+        int i = 0;
+        for(BaseObject o : renderObjects){
+            m_drawnObjects[i] = o;
+            m_drawnVersions[i++] = o.getVersion();
+        }
+        for(BaseObject o : lightSources){
+            m_drawnObjects[i] = o;
+            m_drawnVersions[i++] = o.getVersion();
+        }
+        return true;
+    }
+  
+    private void resize(){
+        int width = getWidth();
+        int height = getHeight();
+        m_width = width > 0? width : 1;
+        m_height = height > 0? height : 1;
+        markDirty();
+        render();
+    }
+    
+    /**
+    * Draws the frame directly to the backing array of a framebuffer of the SwapChain through a Bitmap wrapping it, so nothing is allocated or copied per frame.
+    * The size of the frame is read once, so a resize during the frame only takes effect on the next frame.
+    * The frame is recorded as a FrameEvent, and the profile of the frame is formatted for the overlay if it is shown
+    */
+    private void drawFrame(){
+        synchronized(m_renderLock){
+            if(m_closed)
+                return;
+            FrameEvent event = new FrameEvent();
+            event.begin();
+            int width = m_width;
+            int height = m_height;
+            m_renderer.setSize(width, height);
+            Bitmap frame = m_swapChain.acquireBackBuffer(width, height);
+            m_renderer.render(frame);
+            m_swapChain.present();
+            event.end();
+            FrameProfiler profiler = m_renderer.getProfiler();
+            if(event.shouldCommit()){
+                event.set(m_renderer.getMode(), width, height, profiler);
+                event.commit();
+            }
+            if(m_profilerOverlay)
+                m_overlayLines = getOverlayLines(profiler);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package RenderingEngine.Rendering;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * RenderScheduler draws frames from a FrameSource on its own thread at a target frame rate.
+ * Frames are started at most once every frame interval and the thread sleeps for the rest of the interval.
+ * When the FrameSource doesn't need a new frame the thread parks until wake is called, so an idle scheduler uses no processor time.
+ * Frames taking longer than the frame time budget are counted as dropped.
+ *
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+public class RenderScheduler {
+    /**
+    * FrameSource tells the RenderScheduler when a new frame is needed and draws it
+    */
+    public static interface FrameSource{
+        /**
+        * Returns true if something has changed since the previous frame and a new frame should be drawn
+        */
+        boolean needsFrame();
+
+        /**
+        * Draws a frame, float delta seconds after the previous one
+        */
+        void drawFrame(float delta);
+    }
+
+    private static final long NANOSECONDS_PER_SECOND = 1000000000L;
+
+    private final FrameSource m_source;
+    private final Thread m_thread;
+    private volatile boolean m_running;
+    private volatile long m_frameInterval;
+    private volatile long m_frameBudget;
+    private volatile float m_achievedFPS;
+    private volatile long m_droppedFrames;
+
+    /**
+    * Creates a RenderScheduler drawing frames from FrameSource source at int targetFPS frames per second,
+    * with a frame time budget of one frame interval
+    */
+    public RenderScheduler(FrameSource source, int targetFPS) {
+        m_source = source;
+        setTargetFPS(targetFPS);
+        m_thread = new Thread("Render scheduler"){
+            @Override
+            public void run(){
+                schedule();
+            }
+        };
+        m_thread.setDaemon(true);
+    }
+
+    /**
+    * Starts drawing frames
+    */
+    public void start() {
+        m_running = true;
+        m_thread.start();
+    }
+
+    /**
+    * Stops drawing frames after the current frame
+    */
+    public void stop() {
+        m_running = false;
+        LockSupport.unpark(m_thread);
+    }
+
+    /**
+    * Wakes the scheduler up if it is idle, so that it asks the FrameSource whether a new frame is needed
+    */
+    public void wake() {
+        LockSupport.unpark(m_thread);
+    }
+
+    /**
+    * Sets the target frame rate to int targetFPS frames per second and the frame time budget to one frame interval
+    */
+    public final void setTargetFPS(int targetFPS) {
+        if(targetFPS <= 0)
+            throw new IllegalArgumentException("The target frame rate has to be positive");
+        m_frameInterval = NANOSECONDS_PER_SECOND / targetFPS;
+        m_frameBudget = m_frameInterval;
+    }
+
+    /**
+    * Sets the time a frame can take before it is counted as dropped to float milliseconds
+    */
+    public void setFrameBudget(float milliseconds) {m_frameBudget = (long)(milliseconds * 1000000);}
+
+    public int getTargetFPS() {return (int)(NANOSECONDS_PER_SECOND / m_frameInterval);}
+    public float getFrameBudget() {return m_frameBudget / 1000000f;}
+
+    /**
+    * Returns the frame rate achieved during the latest second of drawing frames, or 0 if the scheduler is idle
+    */
+    public float getAchievedFPS() {return m_achievedFPS;}
+
+    /**
+    * Returns the amount of frames that have taken longer than the frame time budget
+    */
+    public long getDroppedFrames() {return m_droppedFrames;}
+
+    /**
+    * Returns true if the scheduler is parked waiting for wake to be called
+    */
+    public boolean isIdle() {return m_thread.getState() == Thread.State.WAITING;}
+
+    private void schedule() {
+        long previousTime = System.nanoTime();
+        long windowStart = previousTime;
+        int windowFrames = 0;
+        while(m_running){
+            if(!m_source.needsFrame()){
+                m_achievedFPS = 0;
+                LockSupport.park(this);
+                previousTime = System.nanoTime();
+                windowStart = previousTime;
+                windowFrames = 0;
+                continue;
+            }
+            long frameStart = System.nanoTime();
+            m_source.drawFrame((float)((frameStart - previousTime) / (double)NANOSECONDS_PER_SECOND));
+            previousTime = frameStart;
+            long frameEnd = System.nanoTime();
+            if(frameEnd - frameStart > m_frameBudget)
+                m_droppedFrames++;
+
+            windowFrames++;
+            if(frameEnd - windowStart >= NANOSECONDS_PER_SECOND){
+                m_achievedFPS = windowFrames * (float)NANOSECONDS_PER_SECOND / (frameEnd - windowStart);
+                windowStart = frameEnd;
+                windowFrames = 0;
+            }
+
+            long nextFrame = frameStart + m_frameInterval;
+            long remaining;
+            while(m_running && (remaining = nextFrame - System.nanoTime()) > 0)
+                LockSupport.parkNanos(this, remaining);
+        }
+    }
+}
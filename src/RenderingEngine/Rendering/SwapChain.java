@@ -0,0 +1,75 @@
+package RenderingEngine.Rendering;
+
+import RenderingEngine.CoreComponents.Bitmap;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+/**
+ * SwapChain is a set of preallocated framebuffers that are drawn and presented from different threads without either waiting for the other.
+ * One thread at a time draws to a back buffer acquired with acquireBackBuffer and hands it over with present,
+ * while the thread painting the frames always gets the latest presented framebuffer from getFrontBuffer.
+ * A buffer is never drawn to while it is being painted, and the buffers are only swapped inside short synchronized blocks.
+ *
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+public class SwapChain {
+    private final BufferedImage[] m_images;
+    private final Bitmap[] m_frames;
+    private int m_frontBuffer, m_readyBuffer, m_backBuffer;
+
+    /**
+    * Creates a SwapChain of int length framebuffers. With two framebuffers a presented frame that hasn't been painted yet
+    * is drawn over by the next frame, with three or more every presented frame is available for painting until a newer one is presented
+    */
+    public SwapChain(int length) {
+        if(length < 2)
+            throw new IllegalArgumentException("A SwapChain needs at least two framebuffers");
+        m_images = new BufferedImage[length];
+        m_frames = new Bitmap[length];
+        m_frontBuffer = -1;
+        m_readyBuffer = -1;
+        m_backBuffer = -1;
+    }
+
+    /**
+    * Returns a Bitmap int width pixels wide and int height pixels tall drawing to a framebuffer that is not being painted.
+    * The framebuffer is only reallocated if it was created with a different size
+    */
+    public synchronized Bitmap acquireBackBuffer(int width, int height) {
+        m_backBuffer = -1;
+        for(int i = 0; i < m_images.length && m_backBuffer == -1; i++)
+            if(i != m_frontBuffer && i != m_readyBuffer)
+                m_backBuffer = i;
+        if(m_backBuffer == -1){
+            m_backBuffer = m_readyBuffer;
+            m_readyBuffer = -1;
+        }
+        BufferedImage image = m_images[m_backBuffer];
+        if(image == null || image.getWidth() != width || image.getHeight() != height){
+            image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+            m_images[m_backBuffer] = image;
+            m_frames[m_backBuffer] = new Bitmap(width, height, ((DataBufferByte)image.getRaster().getDataBuffer()).getData());
+        }
+        return m_frames[m_backBuffer];
+    }
+
+    /**
+    * Hands the back buffer acquired with acquireBackBuffer over to be painted
+    */
+    public synchronized void present() {
+        m_readyBuffer = m_backBuffer;
+        m_backBuffer = -1;
+    }
+
+    /**
+    * Returns the image of the latest presented framebuffer, which will not be drawn to until a newer framebuffer has been returned.
+    * Returns null if nothing has been presented yet
+    */
+    public synchronized BufferedImage getFrontBuffer() {
+        if(m_readyBuffer != -1){
+            m_frontBuffer = m_readyBuffer;
+            m_readyBuffer = -1;
+        }
+        return m_frontBuffer == -1 ? null : m_images[m_frontBuffer];
+    }
+}
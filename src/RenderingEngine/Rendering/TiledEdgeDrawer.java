@@ -0,0 +1,250 @@
+package RenderingEngine.Rendering;
+
+import RenderingEngine.Constructs.Edge;
+import RenderingEngine.Constructs.LightSource;
+import RenderingEngine.CoreComponents.Bitmap;
+import RenderingEngine.CoreComponents.Matrix4;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * TiledEdgeDrawer draws the same images as EdgeDrawer, but bins the triangles of a List of Edges into screen tiles
+ * and rasterizes the tiles in parallel on a ForkJoinPool. Each tile only writes its own part of the zBuffer and frame.
+ * The rasterization times given to a FrameProfiler are the sums of the times spent on each tile.
+ * Lighted frames are shaded after every tile has been drawn, in bands of rows like EdgeDrawer shades them.
+ * 
+ * @author Eero Lempiö el415524@student.uta.fi
+ */
+public class TiledEdgeDrawer {
+    /**
+    * The width and height of a single tile in pixels
+    */
+    public static final int TILE_SIZE = 64;
+    
+    /**
+    * The amount of Edges EdgeCalculator creates for a single triangle
+    */
+    private static final int EDGES_PER_TRIANGLE = 6;
+    
+    /**
+    * The amount of triangles the array of a tile has room for when it is created
+    */
+    private static final int INITIAL_BIN_SIZE = 64;
+    
+    public static float[] drawzBuffer(ForkJoinPool pool, List<Edge> edges, int resolution){
+        float[] zBuffer = EdgeDrawer.getNewzBuffer(resolution, resolution);
+        drawTiles(pool, edges, resolution, resolution, new TileDrawer() {
+            @Override
+            public void draw(List<Edge> tileEdges, int minX, int minY, int maxX, int maxY) {
+                EdgeDrawer.drawzBuffer(tileEdges, zBuffer, resolution, minX, minY, maxX, maxY);
+            }
+        }, null);
+        return zBuffer;
+    }
+    
+    public static void drawDepth(ForkJoinPool pool, Bitmap frame, List<Edge> edges, FrameProfiler profiler){
+        float[] zBuffer = EdgeDrawer.getNewzBuffer(frame.getWidth(), frame.getHeight());
+        drawTiles(pool, edges, frame.getWidth(), frame.getHeight(), new TileDrawer() {
+            @Override
+            public void draw(List<Edge> tileEdges, int minX, int minY, int maxX, int maxY) {
+                long start = System.nanoTime();
+                EdgeDrawer.drawDepth(frame, tileEdges, zBuffer, minX, minY, maxX, maxY, profiler);
+                EdgeDrawer.addTime(profiler, FrameProfiler.Stage.RASTERIZATION, start);
+            }
+        }, profiler);
+    }
+    
+    public static void drawWireFrame(ForkJoinPool pool, Bitmap frame, List<Edge> edges, FrameProfiler profiler){
+        float[] zBuffer = EdgeDrawer.getNewzBuffer(frame.getWidth(), frame.getHeight());
+        drawTiles(pool, edges, frame.getWidth(), frame.getHeight(), new TileDrawer() {
+            @Override
+            public void draw(List<Edge> tileEdges, int minX, int minY, int maxX, int maxY) {
+                long start = System.nanoTime();
+                EdgeDrawer.drawWireFrame(frame, tileEdges, zBuffer, minX, minY, maxX, maxY, profiler);
+                EdgeDrawer.addTime(profiler, FrameProfiler.Stage.RASTERIZATION, start);
+            }
+        }, profiler);
+    }
+    
+    public static void drawNormal(ForkJoinPool pool, Bitmap frame, List<Edge> edges, FrameProfiler profiler){
+        float[] zBuffer = EdgeDrawer.getNewzBuffer(frame.getWidth(), frame.getHeight());
+        drawTiles(pool, edges, frame.getWidth(), frame.getHeight(), new TileDrawer() {
+            @Override
+            public void draw(List<Edge> tileEdges, int minX, int minY, int maxX, int maxY) {
+                long start = System.nanoTime();
+                EdgeDrawer.drawNormal(frame, tileEdges, zBuffer, minX, minY, maxX, maxY, profiler);
+                EdgeDrawer.addTime(profiler, FrameProfiler.Stage.RASTERIZATION, start);
+            }
+        }, profiler);
+    }
+    
+    public static void drawDiffuse(ForkJoinPool pool, Bitmap frame, List<Edge> edges, FrameProfiler profiler){
+        float[] zBuffer = EdgeDrawer.getNewzBuffer(frame.getWidth(), frame.getHeight());
+        drawTiles(pool, edges, frame.getWidth(), frame.getHeight(), new TileDrawer() {
+            @Override
+            public void draw(List<Edge> tileEdges, int minX, int minY, int maxX, int maxY) {
+                long start = System.nanoTime();
+                EdgeDrawer.drawDiffuse(frame, tileEdges, zBuffer, minX, minY, maxX, maxY, profiler);
+                EdgeDrawer.addTime(profiler, FrameProfiler.Stage.RASTERIZATION, start);
+            }
+        }, profiler);
+    }
+    
+    public static void drawLighted(
+            ForkJoinPool pool, Bitmap frame, List<Edge> edges, GBuffer gBuffer, List<LightSource> lightSources,
+            Matrix4 inverseScreenSpaceTransform, Matrix4 lightScreenSpaceTransform, Matrix4 inverseViewProjection,
+            int resolution, float[] ambientColor, float ambientIntensity, FrameProfiler profiler){
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        gBuffer.resize(width, height);
+        gBuffer.clear();
+        EdgeDrawer.Lighting lighting = new EdgeDrawer.Lighting(
+                lightSources, inverseScreenSpaceTransform, lightScreenSpaceTransform, inverseViewProjection, resolution, ambientColor, ambientIntensity);
+        drawTiles(pool, edges, width, height, new TileDrawer() {
+            @Override
+            public void draw(List<Edge> tileEdges, int minX, int minY, int maxX, int maxY) {
+                long start = System.nanoTime();
+                EdgeDrawer.drawLightedGeometry(tileEdges, gBuffer, minX, minY, maxX, maxY, profiler);
+                EdgeDrawer.addTime(profiler, FrameProfiler.Stage.RASTERIZATION, start);
+            }
+        }, profiler);
+        long start = System.nanoTime();
+        EdgeDrawer.shadeLighted(pool, frame, gBuffer, lighting);
+        EdgeDrawer.addTime(profiler, FrameProfiler.Stage.SHADING, start);
+    }
+    
+    /**
+    * TileDrawer draws the Edges binned to a single tile, limited to the pixels from (int minX, int minY) up to but not including (int maxX, int maxY)
+    */
+    private static interface TileDrawer{
+        void draw(List<Edge> tileEdges, int minX, int minY, int maxX, int maxY);
+    }
+    
+    /**
+    * Bins the triangles of List edges into tiles covering an area int width wide and int height tall and draws the tiles in parallel with TileDrawer drawer.
+    * Binning is profiled as rasterization to FrameProfiler profiler, unless it is null
+    */
+    private static void drawTiles(ForkJoinPool pool, List<Edge> edges, int width, int height, TileDrawer drawer, FrameProfiler profiler){
+        long start = System.nanoTime();
+        int tilesX = (width + TILE_SIZE - 1) / TILE_SIZE;
+        int tilesY = (height + TILE_SIZE - 1) / TILE_SIZE;
+        int[][] bins = new int[tilesX * tilesY][];
+        int[] binSizes = new int[tilesX * tilesY];
+        binTriangles(edges, tilesX, tilesY, bins, binSizes);
+        EdgeDrawer.addTime(profiler, FrameProfiler.Stage.RASTERIZATION, start);
+        pool.invoke(new TileTask(edges, bins, binSizes, drawer, tilesX, width, height, 0, bins.length));
+    }
+    
+    /**
+    * Stores the indices of the first Edges of the triangles in List edges overlapping each tile to int[][] bins, one array per tile,
+    * and the amount of them to int[] binSizes. The arrays of the tiles are created when the first triangle is binned to them and double in size when they are full
+    */
+    private static void binTriangles(List<Edge> edges, int tilesX, int tilesY, int[][] bins, int[] binSizes){
+        for(int i = 0; i < edges.size(); i += EDGES_PER_TRIANGLE){
+            float minX = Float.MAX_VALUE;
+            float maxX = -Float.MAX_VALUE;
+            int minY = Integer.MAX_VALUE;
+            int maxY = Integer.MIN_VALUE;
+            for(int j = i; j < i + EDGES_PER_TRIANGLE; j++){
+                Edge edge = edges.get(j);
+                if(edge.getyStart() >= edge.getyEnd())
+                    continue;
+                float endX = edge.getX() + edge.getxStep() * (edge.getyEnd() - edge.getyStart());
+                minX = Math.min(minX, Math.min(edge.getX(), endX));
+                maxX = Math.max(maxX, Math.max(edge.getX(), endX));
+                minY = Math.min(minY, edge.getyStart());
+                maxY = Math.max(maxY, edge.getyEnd());
+            }
+            if(minY >= maxY)
+                continue;
+            int tileMinX = Math.max(Math.floorDiv((int)Math.floor(minX), TILE_SIZE), 0);
+            int tileMaxX = Math.min(Math.floorDiv((int)Math.ceil(maxX), TILE_SIZE), tilesX - 1);
+            int tileMinY = Math.max(Math.floorDiv(minY, TILE_SIZE), 0);
+            int tileMaxY = Math.min(Math.floorDiv(maxY - 1, TILE_SIZE), tilesY - 1);
+            for(int ty = tileMinY; ty <= tileMaxY; ty++)
+                for(int tx = tileMinX; tx <= tileMaxX; tx++){
+                    int tile = tx + ty * tilesX;
+                    int[] bin = bins[tile];
+                    if(bin == null)
+                        bin = bins[tile] = new int[INITIAL_BIN_SIZE];
+                    else if(binSizes[tile] == bin.length)
+                        bin = bins[tile] = Arrays.copyOf(bin, bin.length * 2);
+                    bin[binSizes[tile]++] = i;
+                }
+        }
+    }
+    
+    /**
+    * Returns copies of the Edges of the triangles starting at the first int count indices in int[] triangles, so that they can be stepped without affecting other tiles.
+    * Edges shared inside a triangle stay shared in the copies.
+    */
+    private static List<Edge> copyTriangles(List<Edge> edges, int[] triangles, int count){
+        List<Edge> copies = new ArrayList<>(count * EDGES_PER_TRIANGLE);
+        Edge[] originals = new Edge[EDGES_PER_TRIANGLE];
+        Edge[] copied = new Edge[EDGES_PER_TRIANGLE];
+        for(int t = 0; t < count; t++){
+            int first = triangles[t];
+            for(int j = 0; j < EDGES_PER_TRIANGLE; j++){
+                Edge edge = edges.get(first + j);
+                originals[j] = edge;
+                copied[j] = null;
+                for(int k = 0; k < j; k++)
+                    if(originals[k] == edge){
+                        copied[j] = copied[k];
+                        break;
+                    }
+                if(copied[j] == null)
+                    copied[j] = new Edge(edge);
+                copies.add(copied[j]);
+            }
+        }
+        return copies;
+    }
+    
+    /**
+    * TileTask draws a range of tiles, splitting itself until a single tile is left
+    */
+    private static class TileTask extends RecursiveAction{
+        private static final long serialVersionUID = 1L;
+        
+        private final List<Edge> m_edges;
+        private final int[][] m_bins;
+        private final int[] m_binSizes;
+        private final TileDrawer m_drawer;
+        private final int m_tilesX, m_width, m_height;
+        private final int m_start, m_end;
+
+        public TileTask(List<Edge> edges, int[][] bins, int[] binSizes, TileDrawer drawer, int tilesX, int width, int height, int start, int end) {
+            m_edges = edges;
+            m_bins = bins;
+            m_binSizes = binSizes;
+            m_drawer = drawer;
+            m_tilesX = tilesX;
+            m_width = width;
+            m_height = height;
+            m_start = start;
+            m_end = end;
+        }
+        
+        @Override
+        protected void compute() {
+            if(m_end - m_start > 1){
+                int middle = (m_start + m_end) / 2;
+                invokeAll(
+                        new TileTask(m_edges, m_bins, m_binSizes, m_drawer, m_tilesX, m_width, m_height, m_start, middle),
+                        new TileTask(m_edges, m_bins, m_binSizes, m_drawer, m_tilesX, m_width, m_height, middle, m_end));
+                return;
+            }
+            int minX = (m_start % m_tilesX) * TILE_SIZE;
+            int minY = (m_start / m_tilesX) * TILE_SIZE;
+            if(m_binSizes[m_start] == 0)
+                return;
+            m_drawer.draw(
+                    copyTriangles(m_edges, m_bins[m_start], m_binSizes[m_start]),
+                    minX, minY, Math.min(minX + TILE_SIZE, m_width), Math.min(minY + TILE_SIZE, m_height));
+        }
+    }
+}